@@ -0,0 +1,42 @@
+package top.tigercrl.minebotapi.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import top.tigercrl.minebotapi.MineBotApi;
+import top.tigercrl.minebotapi.sdk.bot.Bot;
+import top.tigercrl.minebotapi.sdk.bot.WSBot;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 入站帧的解析与事件分发（不连接服务器，直接调用 onMessage）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DispatchBenchmark {
+    @Param({"group_message", "private_message", "heartbeat", "group_increase", "send_msg"})
+    public String fixture;
+
+    private WSBot bot;
+    private String frame;
+
+    @Setup
+    public void setup() {
+        Fixtures.initConfig();
+        // 在当前线程中完成解析与分发，测量完整的处理时间
+        MineBotApi.config.inboundQueue.enabled = false;
+        // 连接到不可用的地址，连接失败后仍可直接调用 onMessage
+        bot = (WSBot) Bot.createWebSocketBot("ws://127.0.0.1:9");
+        frame = Fixtures.load(fixture);
+    }
+
+    @TearDown
+    public void tearDown() {
+        bot.close();
+    }
+
+    @Benchmark
+    public void onMessage() {
+        bot.onMessage(frame);
+    }
+}
@@ -0,0 +1,83 @@
+package top.tigercrl.minebotapi.benchmarks;
+
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.*;
+import top.tigercrl.minebotapi.MineBotApi;
+import top.tigercrl.minebotapi.ModConfig;
+import top.tigercrl.minebotapi.benchmarks.mock.MockOneBotServer;
+import top.tigercrl.minebotapi.sdk.bot.Bot;
+import top.tigercrl.minebotapi.sdk.bot.WSBot;
+import top.tigercrl.minebotapi.sdk.records.APIResponse;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * API 请求的发送、回声匹配与响应解析，使用无延迟的 {@link MockOneBotServer}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EchoCorrelationBenchmark {
+    @Param({"JAVA_WEBSOCKET", "NETTY"})
+    public ModConfig.TransportSettings.Type transport;
+    @Param({"0", "4"})
+    public int apiConnections;
+    private MockOneBotServer server;
+    private WSBot bot;
+
+    @Setup
+    public void setup() throws Exception {
+        Fixtures.initConfig();
+        MineBotApi.config.transport.type = transport;
+        MineBotApi.config.transport.apiConnections = apiConnections;
+        MockOneBotServer.Options options = new MockOneBotServer.Options();
+        options.heartbeatInterval = 0;
+        server = new MockOneBotServer(options);
+        server.startAndWait(10000);
+        bot = (WSBot) Bot.createWebSocketBot("ws://127.0.0.1:" + server.getPort());
+        long deadline = System.currentTimeMillis() + 10000;
+        while (!bot.isOpen()) {
+            if (System.currentTimeMillis() > deadline) throw new IllegalStateException("无法连接到本地服务器");
+            Thread.sleep(10);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        bot.close();
+        server.stop(1000);
+    }
+
+    @Benchmark
+    public APIResponse<JSONObject> sendMsg() {
+        return bot.customApiAsync("send_msg", new JSONObject().put("message_type", "group").put("group_id", 736152904L).put("message", "hello"), null).join();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public APIResponse<JSONObject> sendMsgContended() {
+        return sendMsg();
+    }
+
+    @Benchmark
+    public APIResponse<Bot.GroupMemberInfo[]> getGroupMemberList() {
+        return bot.getGroupMemberList(736152904L, null);
+    }
+
+    /**
+     * 一个线程反复获取群成员列表的同时其他线程发送消息，比较大响应对小请求的影响
+     */
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    public APIResponse<Bot.GroupMemberInfo[]> mixedGetGroupMemberList() {
+        return getGroupMemberList();
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(3)
+    public APIResponse<JSONObject> mixedSendMsg() {
+        return sendMsg();
+    }
+}
@@ -0,0 +1,48 @@
+package top.tigercrl.minebotapi.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import top.tigercrl.minebotapi.utils.EncodingUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CQ 码转义
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class EncodingBenchmark {
+    /**
+     * plain：无需转义的普通聊天；escaped：含大量需要转义的字符
+     */
+    @Param({"plain", "escaped"})
+    public String text;
+
+    private String raw;
+    private String encoded;
+
+    @Setup
+    public void setup() {
+        raw = switch (text) {
+            case "plain" -> "服务器今晚十点重启，请大家提前下线保存好背包里的东西 see you later";
+            case "escaped" -> "[公告] 坐标 x=120, y=64, z=-380 & 传送点 [spawn], [shop], [arena] & 更多";
+            default -> throw new IllegalArgumentException(text);
+        };
+        encoded = EncodingUtils.encodeCQCode(raw);
+    }
+
+    @Benchmark
+    public String encodeCQCode() {
+        return EncodingUtils.encodeCQCode(raw);
+    }
+
+    @Benchmark
+    public String decodeCQCode() {
+        return EncodingUtils.decodeCQCode(encoded);
+    }
+
+    @Benchmark
+    public String encodeText() {
+        return EncodingUtils.encodeText(raw);
+    }
+}
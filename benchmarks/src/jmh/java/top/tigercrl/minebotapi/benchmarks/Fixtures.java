@@ -0,0 +1,50 @@
+package top.tigercrl.minebotapi.benchmarks;
+
+import top.tigercrl.minebotapi.MineBotApi;
+import top.tigercrl.minebotapi.ModConfig;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 基准测试使用的 OneBot 数据样本，位于 resources/fixtures 下
+ */
+public final class Fixtures {
+    /**
+     * 回声响应样本中的占位 echo，由模拟服务器替换为实际请求的 echo
+     */
+    public static final String ECHO_PLACEHOLDER = "00000000-0000-0000-0000-000000000000";
+
+    private Fixtures() {
+    }
+
+    /**
+     * 读取数据样本
+     *
+     * @param name 样本名称（不含扩展名）
+     * @return 样本内容
+     */
+    public static String load(String name) {
+        try (InputStream in = Fixtures.class.getResourceAsStream("/fixtures/" + name + ".json")) {
+            if (in == null) throw new IllegalArgumentException("找不到数据样本：" + name);
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 初始化配置并关闭所有日志，使测量结果只包含 SDK 本身的开销
+     */
+    public static void initConfig() {
+        ModConfig config = new ModConfig();
+        config.logSettings.api = false;
+        config.logSettings.botConnection = false;
+        config.logSettings.event = false;
+        config.logSettings.heartbeat = false;
+        config.logSettings.message = false;
+        MineBotApi.config = config;
+    }
+}
@@ -0,0 +1,70 @@
+package top.tigercrl.minebotapi.benchmarks;
+
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.*;
+import top.tigercrl.minebotapi.sdk.message.ArrayMessage;
+import top.tigercrl.minebotapi.sdk.message.StringMessage;
+import top.tigercrl.minebotapi.sdk.records.MessageInfo;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 消息解析与 CQ 码编解码
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MessageCodecBenchmark {
+    @Param({"group_message", "private_message"})
+    public String fixture;
+
+    private String frame;
+    private JSONObject json;
+    private ArrayMessage arrayMessage;
+    private StringMessage stringMessage;
+    private MessageInfo messageInfo;
+
+    @Setup
+    public void setup() {
+        frame = Fixtures.load(fixture);
+        json = new JSONObject(frame);
+        messageInfo = MessageInfo.fromJSON(json);
+        arrayMessage = messageInfo.message();
+        stringMessage = arrayMessage.toStringMessage();
+    }
+
+    @Benchmark
+    public JSONObject parseFrame() {
+        return new JSONObject(frame);
+    }
+
+    @Benchmark
+    public MessageInfo parseMessageInfo() {
+        return MessageInfo.fromJSON(json);
+    }
+
+    @Benchmark
+    public MessageInfo parseFrameToMessageInfo() {
+        return MessageInfo.fromJSON(new JSONObject(frame));
+    }
+
+    @Benchmark
+    public String serializeMessageInfo() {
+        return messageInfo.toJSON().toString();
+    }
+
+    @Benchmark
+    public StringMessage arrayToCQCode() {
+        return arrayMessage.toStringMessage();
+    }
+
+    @Benchmark
+    public ArrayMessage cqCodeToArray() {
+        return stringMessage.toArrayMessage();
+    }
+
+    @Benchmark
+    public Object arrayToJSON() {
+        return arrayMessage.getMessage();
+    }
+}
@@ -0,0 +1,218 @@
+package top.tigercrl.minebotapi.benchmarks.mock;
+
+import org.json.JSONObject;
+import top.tigercrl.minebotapi.MineBotApi;
+import top.tigercrl.minebotapi.ModConfig;
+import top.tigercrl.minebotapi.benchmarks.Fixtures;
+import top.tigercrl.minebotapi.sdk.bot.Bot;
+import top.tigercrl.minebotapi.sdk.bot.WSBot;
+import top.tigercrl.minebotapi.sdk.events.BotLifecycleEvent;
+import top.tigercrl.minebotapi.sdk.events.MessageEvent;
+import top.tigercrl.minebotapi.sdk.metrics.LatencyHistogram;
+
+import java.lang.reflect.Field;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 端到端负载测试：启动 {@link MockOneBotServer}，用 {@link WSBot} 连接后
+ * <ol>
+ *     <li>以固定并发数持续调用API，报告 p50/p99/p99.9 延迟与吞吐量</li>
+ *     <li>逐级加倍推送群消息的速率，找出机器人能持续处理的最大事件速率</li>
+ * </ol>
+ * 参数以 {@code key=value} 形式传入，可以是 {@link Settings} 或 {@link MockOneBotServer.Options} 中的任意字段，
+ * 例如 {@code ./gradlew :benchmarks:loadTest -PloadArgs="concurrency=64 latencyMin=1 latencyMax=5 errorRate=0.01"}
+ */
+public class LoadHarness {
+    /**
+     * 负载测试参数
+     */
+    public static class Settings {
+        /**
+         * 调用的API
+         */
+        public String action = "send_group_msg";
+        /**
+         * 同时进行中的API调用数
+         */
+        public int concurrency = 16;
+        /**
+         * API 测试时长（秒）
+         */
+        public int apiDuration = 10;
+        /**
+         * 事件速率测试的起始速率（条/秒）
+         */
+        public double startRate = 1000;
+        /**
+         * 事件速率测试的最大速率（条/秒）
+         */
+        public double maxRate = 512000;
+        /**
+         * 事件速率测试每一级的时长（秒）
+         */
+        public int stepDuration = 5;
+        /**
+         * 事件 p99 延迟超过该值（毫秒）即视为无法持续处理
+         */
+        public long lagThreshold = 100;
+        /**
+         * 机器人使用的连接实现
+         */
+        public ModConfig.TransportSettings.Type transport = ModConfig.TransportSettings.Type.JAVA_WEBSOCKET;
+        /**
+         * 机器人与模拟服务器协商 permessage-deflate 压缩
+         */
+        public boolean compression = false;
+        /**
+         * 大于 {@code 0} 时机器人分别连接 /event 与该数量的 /api
+         */
+        public int apiConnections = 0;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Settings settings = new Settings();
+        MockOneBotServer.Options options = new MockOneBotServer.Options();
+        for (String arg : args) {
+            for (String pair : arg.trim().split("\\s+")) {
+                if (pair.isEmpty()) continue;
+                String[] kv = pair.split("=", 2);
+                if (kv.length != 2 || !(set(settings, kv[0], kv[1]) || set(options, kv[0], kv[1])))
+                    throw new IllegalArgumentException("无效的参数：" + pair);
+            }
+        }
+
+        Fixtures.initConfig();
+        MineBotApi.config.transport.type = settings.transport;
+        MineBotApi.config.transport.compression = settings.compression;
+        MineBotApi.config.transport.apiConnections = settings.apiConnections;
+        options.compression = settings.compression;
+        MockOneBotServer server = new MockOneBotServer(options);
+        server.startAndWait(10000);
+        WSBot bot = (WSBot) Bot.createWebSocketBot("ws://" + options.host + ":" + server.getPort());
+        try {
+            long deadline = System.currentTimeMillis() + 10000;
+            while (!bot.isOpen()) {
+                if (System.currentTimeMillis() > deadline) throw new IllegalStateException("无法连接到模拟服务器");
+                Thread.sleep(10);
+            }
+            runApi(bot, server, settings);
+            runEvents(server, settings);
+        } finally {
+            bot.close();
+            server.stop(1000);
+        }
+        System.exit(0);
+    }
+
+    private static void runApi(WSBot bot, MockOneBotServer server, Settings settings) throws InterruptedException {
+        System.out.printf("== API 延迟：%s，并发 %d，持续 %ds ==%n", settings.action, settings.concurrency, settings.apiDuration);
+        JSONObject params = new JSONObject().put("group_id", 736152904L).put("user_id", 1498023761L).put("message", "hello");
+        LatencyHistogram latency = new LatencyHistogram();
+        LongAdder succeeded = new LongAdder();
+        Map<String, LongAdder> failures = new ConcurrentHashMap<>();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(settings.apiDuration);
+        CountDownLatch done = new CountDownLatch(settings.concurrency);
+        long start = System.nanoTime();
+        for (int i = 0; i < settings.concurrency; i++)
+            callLoop(bot, settings.action, params, deadline, latency, succeeded, failures, done);
+        done.await();
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        long total = latency.getCount();
+        System.out.printf("请求 %d，成功 %d，吞吐量 %.0f 次/秒%n", total, succeeded.sum(), total / seconds);
+        System.out.printf("延迟 p50 %.3fms，p99 %.3fms，p99.9 %.3fms，最大 %.3fms%n",
+                latency.getPercentile(50) / 1000.0, latency.getPercentile(99) / 1000.0,
+                latency.getPercentile(99.9) / 1000.0, latency.getMax() / 1000.0);
+        failures.forEach((type, count) -> System.out.printf("失败 %s：%d%n", type, count.sum()));
+        System.out.printf("服务器：收到 %d，返回错误 %d，未响应 %d%n", server.getRequestCount(), server.getErrorCount(), server.getDroppedCount());
+    }
+
+    private static void callLoop(WSBot bot, String action, JSONObject params, long deadline, LatencyHistogram latency,
+                                 LongAdder succeeded, Map<String, LongAdder> failures, CountDownLatch done) {
+        while (System.nanoTime() < deadline) {
+            long start = System.nanoTime();
+            // 回调与当前线程中后到的一方发起下一次调用：调用已同步完成时在循环中继续，避免在回调中递归导致栈溢出
+            AtomicBoolean handoff = new AtomicBoolean();
+            bot.customApiAsync(action, params, null).whenComplete((response, e) -> {
+                latency.record((System.nanoTime() - start) / 1000);
+                if (e == null) succeeded.increment();
+                else {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    failures.computeIfAbsent(cause.getClass().getSimpleName(), k -> new LongAdder()).increment();
+                }
+                if (!handoff.compareAndSet(false, true))
+                    callLoop(bot, action, params, deadline, latency, succeeded, failures, done);
+            });
+            if (handoff.compareAndSet(false, true)) return;
+        }
+        done.countDown();
+    }
+
+    private static void runEvents(MockOneBotServer server, Settings settings) throws InterruptedException {
+        System.out.printf("== 事件速率：从 %.0f 条/秒起逐级加倍，每级 %ds，p99 延迟上限 %dms ==%n", settings.startRate, settings.stepDuration, settings.lagThreshold);
+        LatencyHistogram[] lag = {new LatencyHistogram()};
+        AtomicLong delivered = new AtomicLong();
+        BotLifecycleEvent.BotMessage arrival = (bot, message) -> {
+            long sentAt = message.optLong(MockOneBotServer.SENT_AT_FIELD);
+            if (sentAt != 0) lag[0].record((System.nanoTime() - sentAt) / 1000);
+        };
+        MessageEvent.GroupChat dispatched = (bot, messageInfo) -> delivered.incrementAndGet();
+        BotLifecycleEvent.BOT_MESSAGE.register(arrival);
+        MessageEvent.GROUP_CHAT.register(dispatched);
+        double sustainable = 0;
+        try {
+            for (double rate = settings.startRate; rate <= settings.maxRate; rate *= 2) {
+                lag[0] = new LatencyHistogram();
+                delivered.set(0);
+                long sentBefore = server.getEventCount();
+                server.getOptions().messageRate = rate;
+                Thread.sleep(TimeUnit.SECONDS.toMillis(settings.stepDuration));
+                server.getOptions().messageRate = 0;
+                long sent = server.getEventCount() - sentBefore;
+                // 给积压的事件留出处理时间
+                long drainDeadline = System.currentTimeMillis() + 2000;
+                while (delivered.get() < sent && System.currentTimeMillis() < drainDeadline) Thread.sleep(10);
+
+                double p99 = lag[0].getPercentile(99) / 1000.0;
+                boolean ok = delivered.get() >= sent && p99 <= settings.lagThreshold;
+                System.out.printf("目标 %.0f 条/秒：实际发送 %.0f 条/秒，处理 %d/%d，延迟 p50 %.3fms，p99 %.3fms，%s%n",
+                        rate, sent / (double) settings.stepDuration, delivered.get(), sent,
+                        lag[0].getPercentile(50) / 1000.0, p99, ok ? "可持续" : "无法持续");
+                if (!ok) break;
+                sustainable = sent / (double) settings.stepDuration;
+            }
+        } finally {
+            BotLifecycleEvent.BOT_MESSAGE.unregister(arrival);
+            MessageEvent.GROUP_CHAT.unregister(dispatched);
+        }
+        System.out.printf("最大可持续事件速率：%.0f 条/秒%n", sustainable);
+    }
+
+    private static boolean set(Object target, String name, String value) {
+        Field field;
+        try {
+            field = target.getClass().getField(name);
+        } catch (NoSuchFieldException e) {
+            return false;
+        }
+        try {
+            Class<?> type = field.getType();
+            if (type == int.class) field.setInt(target, Integer.parseInt(value));
+            else if (type == long.class) field.setLong(target, Long.parseLong(value));
+            else if (type == boolean.class) field.setBoolean(target, Boolean.parseBoolean(value));
+            else if (type == double.class) field.setDouble(target, Double.parseDouble(value));
+            else if (type == String.class) field.set(target, value);
+            else if (type.isEnum()) field.set(target, Enum.valueOf(type.asSubclass(Enum.class), value.toUpperCase()));
+            else return false;
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,361 @@
+package top.tigercrl.minebotapi.benchmarks.mock;
+
+import org.java_websocket.WebSocket;
+import org.java_websocket.drafts.Draft_6455;
+import org.java_websocket.extensions.permessage_deflate.PerMessageDeflateExtension;
+import org.java_websocket.handshake.ClientHandshake;
+import org.java_websocket.server.WebSocketServer;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import top.tigercrl.minebotapi.benchmarks.Fixtures;
+
+import java.net.InetSocketAddress;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.DoubleSupplier;
+
+/**
+ * 本地 OneBot v11 模拟服务器（正向 WebSocket）
+ * <p>
+ * 按 {@link Options} 模拟 API 响应延迟、错误率、丢失与乱序，并以指定速率推送消息、通知与心跳事件，
+ * 用于在没有真实QQ账号的情况下进行端到端性能测试
+ */
+public class MockOneBotServer extends WebSocketServer {
+    /**
+     * 推送的事件帧中记录发送时间（{@link System#nanoTime()}）的字段，仅在同一进程内有意义
+     */
+    public static final String SENT_AT_FIELD = "_mock_sent_at";
+
+    private final Options options;
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "MockOneBot-Scheduler");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Map<String, String> responseData = new HashMap<>();
+    private final List<Runnable> reorderBuffer = new ArrayList<>();
+    private final AtomicInteger messageId = new AtomicInteger(1893452107);
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong events = new AtomicLong();
+    private final String[] groupMessage;
+    private final String[] notice;
+    private final String heartbeat;
+
+    public MockOneBotServer(Options options) {
+        super(new InetSocketAddress(options.host, options.port), options.compression
+                ? List.of(new Draft_6455(new PerMessageDeflateExtension()))
+                : List.of(new Draft_6455()));
+        this.options = options;
+        setReuseAddr(true);
+        setTcpNoDelay(true);
+
+        long selfId = options.selfId;
+        responseData.put("get_login_info", new JSONObject().put("user_id", selfId).put("nickname", "MineBot").toString());
+        responseData.put("get_stranger_info", new JSONObject().put("user_id", 1209384756L).put("nickname", "Alex").put("sex", "female").put("age", 19).toString());
+        responseData.put("get_friend_list", new JSONArray()
+                .put(new JSONObject().put("user_id", 1209384756L).put("nickname", "Alex").put("remark", "白名单管理"))
+                .put(new JSONObject().put("user_id", 1498023761L).put("nickname", "Steve_2077").put("remark", "")).toString());
+        JSONObject groupInfo = new JSONObject().put("group_id", 736152904L).put("group_name", "MC 生存服交流群").put("member_count", 500).put("max_member_count", 2000);
+        responseData.put("get_group_info", groupInfo.toString());
+        responseData.put("get_group_list", new JSONArray().put(groupInfo).toString());
+        JSONObject memberList = new JSONObject(Fixtures.load("get_group_member_list"));
+        responseData.put("get_group_member_list", memberList.getJSONArray("data").toString());
+        responseData.put("get_group_member_info", memberList.getJSONArray("data").getJSONObject(0).toString());
+        JSONObject storedMessage = new JSONObject(Fixtures.load("group_message"));
+        responseData.put("get_msg", storedMessage.toString());
+        JSONObject sender = storedMessage.getJSONObject("sender");
+        responseData.put("get_forward_msg", new JSONObject().put("messages", new JSONArray().put(new JSONObject().put("type", "node")
+                .put("data", new JSONObject().put("user_id", sender.getLong("user_id")).put("nickname", sender.getString("nickname"))
+                        .put("content", storedMessage.getJSONArray("message"))))).toString());
+        JSONObject honor = new JSONObject().put("user_id", "1498023761").put("nickname", "Steve_2077").put("avatar", "https://q1.qlogo.cn/g?b=qq&nk=1498023761&s=640");
+        responseData.put("get_group_honor_info", new JSONObject().put("group_id", 736152904L)
+                .put("current_talkative", new JSONObject(honor.toMap()).put("day_count", 3))
+                .put("talkative_list", new JSONArray().put(new JSONObject(honor.toMap()).put("description", "连续 3 天"))).toString());
+        responseData.put("get_image", new JSONObject().put("file", "/data/cache/image/5c1e8a7f3b2d4e6f9a0b1c2d3e4f5a6b.jpg").toString());
+        responseData.put("get_record", new JSONObject().put("file", "/data/cache/record/0b6f7a2e9c4d.mp3").toString());
+        responseData.put("get_status", new JSONObject(Fixtures.load("heartbeat")).getJSONObject("status").toString());
+        responseData.put("get_version_info", new JSONObject().put("app_name", "mock-onebot").put("app_version", "1.0.0").put("protocol_version", "v11").toString());
+        responseData.put("can_send_image", new JSONObject().put("yes", true).toString());
+        responseData.put("can_send_record", new JSONObject().put("yes", true).toString());
+        responseData.put("get_csrf_token", new JSONObject().put("token", 1395648813).toString());
+        responseData.put("get_cookies", new JSONObject().put("cookies", "uin=o2854196310; skey=@mock").toString());
+        responseData.put("get_credentials", new JSONObject().put("cookies", "uin=o2854196310; skey=@mock").put("csrf_token", 1395648813).toString());
+
+        groupMessage = splitAt(withSentAt(Fixtures.load("group_message")), "\"message_id\":1893452107");
+        notice = splitAt(withSentAt(Fixtures.load("group_increase")), "\"user_id\":1684203957");
+        heartbeat = Fixtures.load("heartbeat");
+    }
+
+    /**
+     * 启动服务器并等待端口绑定完成
+     *
+     * @param timeout 超时时间（毫秒）
+     * @throws InterruptedException 等待时被中断
+     */
+    public void startAndWait(long timeout) throws InterruptedException {
+        start();
+        if (!started.await(timeout, TimeUnit.MILLISECONDS))
+            throw new IllegalStateException("模拟服务器启动超时");
+    }
+
+    @Override
+    public void onStart() {
+        if (options.reorderWindow > 1)
+            scheduler.scheduleAtFixedRate(this::flushReorderBuffer, 5, 5, TimeUnit.MILLISECONDS);
+        if (options.heartbeatInterval > 0)
+            scheduler.scheduleAtFixedRate(() -> broadcastEvent(heartbeat.replace("\"interval\":5000", "\"interval\":" + options.heartbeatInterval)),
+                    options.heartbeatInterval, options.heartbeatInterval, TimeUnit.MILLISECONDS);
+        startStream(() -> options.messageRate, "\"message_id\":", groupMessage);
+        startStream(() -> options.noticeRate, "\"user_id\":", notice);
+        started.countDown();
+    }
+
+    @Override
+    public void stop(int timeout) throws InterruptedException {
+        scheduler.shutdownNow();
+        super.stop(timeout);
+    }
+
+    @Override
+    public void onMessage(WebSocket conn, String message) {
+        if (isEndpoint(conn, "/event")) return;
+        requests.incrementAndGet();
+        JSONObject request = new JSONObject(message);
+        String action = request.getString("action");
+        Object echo = request.opt("echo");
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (random.nextDouble() < options.dropRate) {
+            dropped.incrementAndGet();
+            return;
+        }
+        String response;
+        if (random.nextDouble() < options.errorRate) {
+            errors.incrementAndGet();
+            response = response("failed", options.errorRetcode, "null", "mock error", "模拟错误", echo);
+        } else if (action.endsWith("_async") || action.endsWith("_rate_limited")) {
+            response = response("async", 1, "null", "", "", echo);
+        } else if (action.startsWith("send_") && action.endsWith("_msg")) {
+            response = response("ok", 0, "{\"message_id\":" + messageId.incrementAndGet() + "}", "", "", echo);
+        } else { // 其余API没有返回数据
+            response = response("ok", 0, responseData.getOrDefault(action, "null"), "", "", echo);
+        }
+        long delay = options.latencyMin + (options.latencyMax > options.latencyMin ? random.nextLong(options.latencyMax - options.latencyMin + 1) : 0);
+        Runnable send = () -> {
+            if (conn.isOpen()) conn.send(response);
+        };
+        if (options.reorderWindow > 1) {
+            Runnable buffered = () -> addToReorderBuffer(send);
+            if (delay > 0) scheduler.schedule(buffered, delay, TimeUnit.MILLISECONDS);
+            else buffered.run();
+        } else if (delay > 0) {
+            scheduler.schedule(send, delay, TimeUnit.MILLISECONDS);
+        } else {
+            send.run();
+        }
+    }
+
+    @Override
+    public void onOpen(WebSocket conn, ClientHandshake handshake) {
+        if (isEndpoint(conn, "/api")) return;
+        conn.send(new JSONObject().put("time", System.currentTimeMillis() / 1000).put("self_id", options.selfId)
+                .put("post_type", "meta_event").put("meta_event_type", "lifecycle").put("sub_type", "connect").toString());
+    }
+
+    @Override
+    public void onClose(WebSocket conn, int code, String reason, boolean remote) {
+    }
+
+    @Override
+    public void onError(WebSocket conn, Exception ex) {
+    }
+
+    /**
+     * 获取收到的API请求数
+     *
+     * @return 请求数
+     */
+    public long getRequestCount() {
+        return requests.get();
+    }
+
+    /**
+     * 获取返回错误的请求数
+     *
+     * @return 请求数
+     */
+    public long getErrorCount() {
+        return errors.get();
+    }
+
+    /**
+     * 获取未响应的请求数
+     *
+     * @return 请求数
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * 获取已推送的消息与通知事件数（不含心跳）
+     *
+     * @return 事件数
+     */
+    public long getEventCount() {
+        return events.get();
+    }
+
+    /**
+     * 获取配置，修改事件速率后立即生效
+     *
+     * @return 配置
+     */
+    public Options getOptions() {
+        return options;
+    }
+
+    /**
+     * 与 OneBot 实现一致，/event 只推送事件，/api 只处理API请求，/ 两者都处理
+     */
+    private static boolean isEndpoint(WebSocket conn, String path) {
+        String resource = conn.getResourceDescriptor();
+        return resource != null && resource.startsWith(path);
+    }
+
+    private void broadcastEvent(String event) {
+        broadcast(event, getConnections().stream().filter(conn -> !isEndpoint(conn, "/api")).toList());
+    }
+
+    private static String response(String status, int retcode, String data, String message, String wording, Object echo) {
+        return "{\"status\":\"" + status + "\",\"retcode\":" + retcode + ",\"data\":" + data
+                + ",\"message\":" + JSONObject.quote(message) + ",\"wording\":" + JSONObject.quote(wording)
+                + ",\"echo\":" + (echo == null ? "null" : JSONObject.valueToString(echo)) + "}";
+    }
+
+    private void addToReorderBuffer(Runnable send) {
+        List<Runnable> flush = null;
+        synchronized (reorderBuffer) {
+            reorderBuffer.add(send);
+            if (reorderBuffer.size() >= options.reorderWindow) {
+                flush = new ArrayList<>(reorderBuffer);
+                reorderBuffer.clear();
+            }
+        }
+        if (flush != null) sendShuffled(flush);
+    }
+
+    private void flushReorderBuffer() {
+        List<Runnable> flush;
+        synchronized (reorderBuffer) {
+            if (reorderBuffer.isEmpty()) return;
+            flush = new ArrayList<>(reorderBuffer);
+            reorderBuffer.clear();
+        }
+        sendShuffled(flush);
+    }
+
+    private static void sendShuffled(List<Runnable> sends) {
+        Collections.shuffle(sends, ThreadLocalRandom.current());
+        sends.forEach(Runnable::run);
+    }
+
+    /**
+     * 每毫秒按目标速率补发应发送的事件，速率可以在运行中修改
+     */
+    private void startStream(DoubleSupplier rate, String field, String[] template) {
+        long[] state = new long[2]; // 上次检查的时间，未发送的事件数 * 1e9
+        scheduler.scheduleAtFixedRate(() -> {
+            long now = System.nanoTime();
+            if (state[0] == 0) {
+                state[0] = now;
+                return;
+            }
+            double perSecond = rate.getAsDouble();
+            if (perSecond <= 0) {
+                state[0] = now;
+                state[1] = 0;
+                return;
+            }
+            state[1] += (long) ((now - state[0]) * perSecond);
+            state[0] = now;
+            long due = state[1] / 1_000_000_000L;
+            state[1] -= due * 1_000_000_000L;
+            for (long i = 0; i < due; i++) {
+                broadcastEvent(template[0] + field + messageId.incrementAndGet() + template[1] + System.nanoTime() + template[2]);
+                events.incrementAndGet();
+            }
+        }, 1, 1, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 在帧末尾插入发送时间字段，并按占位字段拆分为 [前缀, 发送时间之前, 结尾]
+     */
+    private static String[] splitAt(String frame, String field) {
+        int index = frame.indexOf(field);
+        int end = frame.lastIndexOf('}');
+        String sentAtPrefix = ",\"" + SENT_AT_FIELD + "\":";
+        int sentAt = frame.lastIndexOf(sentAtPrefix, end);
+        return new String[]{frame.substring(0, index), frame.substring(index + field.length(), sentAt + sentAtPrefix.length()), frame.substring(end)};
+    }
+
+    private static String withSentAt(String frame) {
+        return frame.substring(0, frame.lastIndexOf('}')) + ",\"" + SENT_AT_FIELD + "\":0}";
+    }
+
+    /**
+     * 模拟服务器配置
+     */
+    public static class Options {
+        public String host = "127.0.0.1";
+        /**
+         * 端口，{@code 0} 为随机端口
+         */
+        public int port = 0;
+        public long selfId = 2854196310L;
+        /**
+         * API 响应延迟下限（毫秒）
+         */
+        public long latencyMin = 0;
+        /**
+         * API 响应延迟上限（毫秒），在上下限之间均匀分布
+         */
+        public long latencyMax = 0;
+        /**
+         * 返回错误响应的概率
+         */
+        public double errorRate = 0;
+        /**
+         * 错误响应的 retcode
+         */
+        public int errorRetcode = 100;
+        /**
+         * 不响应请求的概率
+         */
+        public double dropRate = 0;
+        /**
+         * 乱序窗口，大于 {@code 1} 时响应会被攒到该数量（或最多 5ms）后打乱顺序发送
+         */
+        public int reorderWindow = 0;
+        /**
+         * 群消息事件速率（条/秒）
+         */
+        public volatile double messageRate = 0;
+        /**
+         * 群成员增加通知速率（条/秒）
+         */
+        public volatile double noticeRate = 0;
+        /**
+         * 心跳间隔（毫秒），{@code 0} 为不发送心跳
+         */
+        public long heartbeatInterval = 5000;
+        /**
+         * 接受 permessage-deflate 压缩
+         */
+        public boolean compression = false;
+    }
+}
@@ -2,13 +2,45 @@ package top.tigercrl.minebotapi;
 
 import me.shedaniel.autoconfig.AutoConfig;
 import me.shedaniel.autoconfig.serializer.GsonConfigSerializer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import top.tigercrl.minebotapi.sdk.bot.BotExecutors;
+import top.tigercrl.minebotapi.sdk.metrics.PrometheusExporter;
+import top.tigercrl.minebotapi.sdk.replay.FrameRecorder;
+
+import java.io.IOException;
+import java.nio.file.Path;
 
 public class MineBotApi {
     public static final String MOD_ID = "minebotapi";
+    private static final Logger LOGGER = LogManager.getLogger();
     public static ModConfig config;
 
     public static void init() {
         AutoConfig.register(ModConfig.class, GsonConfigSerializer::new);
         config = AutoConfig.getConfigHolder(ModConfig.class).getConfig();
+        BotExecutors.init();
+        if (config.metrics.enabled && config.metrics.prometheusPort > 0) {
+            try {
+                PrometheusExporter.start(config.metrics.prometheusHost, config.metrics.prometheusPort);
+            } catch (IOException e) {
+                LOGGER.error("无法启动 Prometheus 指标导出", e);
+            }
+        }
+        if (config.frameRecorder.enabled) {
+            try {
+                FrameRecorder recorder = FrameRecorder.start(Path.of(config.frameRecorder.directory, "frames-" + System.currentTimeMillis() + ".bin"),
+                        null, config.frameRecorder.maxFileSize * 1024L * 1024L);
+                Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                    try {
+                        recorder.close();
+                    } catch (IOException e) {
+                        LOGGER.error("无法关闭帧记录文件", e);
+                    }
+                }, "MineBotApi-FrameRecorder-Shutdown"));
+            } catch (IOException e) {
+                LOGGER.error("无法开始记录帧", e);
+            }
+        }
     }
 }
@@ -2,12 +2,57 @@ package top.tigercrl.minebotapi;
 
 import me.shedaniel.autoconfig.ConfigData;
 import me.shedaniel.autoconfig.annotation.Config;
+import top.tigercrl.minebotapi.sdk.enums.ApiLane;
+import top.tigercrl.minebotapi.sdk.enums.BlockingCallPolicy;
+import top.tigercrl.minebotapi.sdk.enums.HeartbeatTimeoutAction;
+import top.tigercrl.minebotapi.sdk.enums.InboundOverflowPolicy;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 @Config(name = MineBotApi.MOD_ID)
 public class ModConfig implements ConfigData {
     public LogSettings logSettings = new LogSettings();
     public int apiRequestTimeout = 10000;
+    /**
+     * 各API的默认超时时间，单位毫秒，未列出的API使用 {@link #apiRequestTimeout}
+     */
+    public Map<String, Integer> apiActionTimeouts = new HashMap<>(Map.of(
+            "get_group_member_list", 30000,
+            "get_group_honor_info", 20000,
+            "get_forward_msg", 20000,
+            "get_friend_list", 20000
+    ));
     public int heartbeatTimeout = 5000;
+    public HeartbeatWatchdogSettings heartbeatWatchdog = new HeartbeatWatchdogSettings();
+    public AdaptiveTimeoutSettings adaptiveTimeout = new AdaptiveTimeoutSettings();
+    public CircuitBreakerSettings circuitBreaker = new CircuitBreakerSettings();
+    public RetrySettings retry = new RetrySettings();
+    public MetricsSettings metrics = new MetricsSettings();
+    public FrameRecorderSettings frameRecorder = new FrameRecorderSettings();
+    public OutboxSettings outbox = new OutboxSettings();
+    public LaneSettings lanes = new LaneSettings();
+    public TransportSettings transport = new TransportSettings();
+    public InboundQueueSettings inboundQueue = new InboundQueueSettings();
+    public ServerExecutorSettings serverExecutor = new ServerExecutorSettings();
+    public BlockingCallGuardSettings blockingCallGuard = new BlockingCallGuardSettings();
+    public FailoverSettings failover = new FailoverSettings();
+    public GroupRoutingSettings groupRouting = new GroupRoutingSettings();
+    public EventDedupSettings eventDedup = new EventDedupSettings();
+    public DuplicateFilterSettings duplicateFilter = new DuplicateFilterSettings();
+
+    /**
+     * 获取API的默认超时时间
+     *
+     * @param action API名称（不含请求类型后缀）
+     * @return 超时时间，单位毫秒
+     */
+    public int getApiTimeout(String action) {
+        Integer timeout = apiActionTimeouts.get(action);
+        return timeout == null ? apiRequestTimeout : timeout;
+    }
 
     public static class LogSettings {
         public boolean api = true;
@@ -15,5 +60,434 @@ public class ModConfig implements ConfigData {
         public boolean event = true;
         public boolean heartbeat = false;
         public boolean message = false;
+        /**
+         * 在单独的线程中格式化并输出日志
+         */
+        public boolean async = true;
+        /**
+         * 异步日志队列长度，队列满时丢弃最旧的日志
+         */
+        public int asyncQueueSize = 4096;
+        /**
+         * 日志中 JSON 等内容的最大长度，超出部分被截断，不大于 {@code 0} 时不截断
+         */
+        public int maxPayloadLength = 2048;
+        /**
+         * 各分类日志的采样率，范围 {@code 0} ~ {@code 1}
+         */
+        public double apiSampleRate = 1;
+        public double eventSampleRate = 1;
+        public double heartbeatSampleRate = 1;
+        public double messageSampleRate = 1;
+    }
+
+    /**
+     * 心跳监视设置
+     * 超过上报的心跳间隔加上 {@link #heartbeatTimeout} 仍未收到心跳时视为超时
+     */
+    public static class HeartbeatWatchdogSettings {
+        /**
+         * 检查间隔，单位毫秒
+         */
+        public int checkInterval = 1000;
+        /**
+         * 心跳超时时执行的操作
+         */
+        public List<HeartbeatTimeoutAction> actions = new ArrayList<>(List.of(HeartbeatTimeoutAction.WARN));
+        /**
+         * 超时期间重复输出警告的间隔，单位毫秒
+         */
+        public int warnInterval = 5000;
+    }
+
+    /**
+     * 根据API往返时间自动调整API的默认超时时间
+     * 调整后的超时时间不会超过 {@link #apiActionTimeouts} 或 {@link #apiRequestTimeout} 中配置的值
+     */
+    public static class AdaptiveTimeoutSettings {
+        public boolean enabled = true;
+        /**
+         * 超时时间 = 往返时间 p99 × factor
+         */
+        public double factor = 3;
+        /**
+         * 超时时间下限，单位毫秒
+         */
+        public int minTimeout = 1000;
+        /**
+         * 样本数量达到此值后才会调整超时时间或判断延迟异常
+         */
+        public int minSamples = 50;
+        /**
+         * 统计窗口，单位毫秒
+         */
+        public int window = 60000;
+        /**
+         * 近期往返时间超过基线的此倍数时判定为延迟异常
+         */
+        public double degradeFactor = 3;
+        /**
+         * 近期往返时间低于此值时不判定为延迟异常，单位毫秒
+         */
+        public int degradeMinRtt = 200;
+    }
+
+    /**
+     * API熔断设置，机器人整体与每个API各有一个熔断器
+     */
+    public static class CircuitBreakerSettings {
+        public boolean enabled = true;
+        /**
+         * 统计最近多少次调用的结果
+         */
+        public int windowSize = 20;
+        /**
+         * 统计的调用次数达到此值后才会熔断
+         */
+        public int minCalls = 10;
+        /**
+         * 失败比例达到此值时熔断
+         */
+        public double failureRateThreshold = 0.5;
+        /**
+         * 熔断持续时间，单位毫秒，之后放行探测请求
+         */
+        public int openDuration = 10000;
+        /**
+         * 半开状态下放行的探测请求数量，全部成功后恢复
+         */
+        public int halfOpenProbes = 1;
+        /**
+         * 不计为失败的 retcode（例如权限不足等业务错误），只影响单个API的熔断器，整个机器人的熔断器只统计超时与连接故障
+         */
+        public List<Integer> ignoredRetcodes = new ArrayList<>();
+    }
+
+    /**
+     * API重试设置，重试只在调用的超时时间内进行
+     */
+    public static class RetrySettings {
+        public boolean enabled = true;
+        /**
+         * 最大尝试次数（包括第一次调用）
+         */
+        public int maxAttempts = 3;
+        /**
+         * 第一次重试前的退避时间，单位毫秒，之后每次翻倍
+         */
+        public int initialBackoff = 200;
+        /**
+         * 退避时间上限，单位毫秒
+         */
+        public int maxBackoff = 2000;
+        /**
+         * 幂等API返回这些 retcode 时重试
+         */
+        public List<Integer> retryRetcodes = new ArrayList<>();
+        /**
+         * 额外视为幂等的API
+         */
+        public List<String> idempotentActions = new ArrayList<>();
+    }
+
+    /**
+     * 指标设置
+     */
+    public static class MetricsSettings {
+        public boolean enabled = true;
+        /**
+         * Prometheus 指标导出端口，不大于 {@code 0} 时不导出
+         */
+        public int prometheusPort = 0;
+        public String prometheusHost = "127.0.0.1";
+    }
+
+    /**
+     * 帧记录设置
+     */
+    public static class FrameRecorderSettings {
+        /**
+         * 启动时开始记录所有机器人收到的帧，用于复现问题
+         */
+        public boolean enabled = false;
+        /**
+         * 记录文件所在目录，每次启动创建一个新文件
+         */
+        public String directory = "minebotapi/frames";
+        /**
+         * 单个记录文件的大小上限，单位MB，达到后停止记录
+         */
+        public int maxFileSize = 1024;
+    }
+
+    /**
+     * 持久化发送队列设置
+     */
+    public static class OutboxSettings {
+        /**
+         * 机器人不可用时将发送消息的请求写入磁盘，连接恢复后重新发送
+         */
+        public boolean enabled = false;
+        /**
+         * 队列所在目录，每个机器人使用以服务器地址命名的子目录
+         */
+        public String directory = "minebotapi/outbox";
+        /**
+         * 进入队列的API
+         */
+        public List<String> actions = new ArrayList<>(List.of("send_private_msg", "send_group_msg", "send_msg"));
+        /**
+         * 请求的有效期，单位毫秒，超过后不再发送，不大于 {@code 0} 时不过期
+         */
+        public long ttl = 1800000;
+        /**
+         * 等待发送的请求总大小上限，单位MB，超过后新的请求不再进入队列
+         */
+        public int maxSize = 16;
+        /**
+         * 单个分段文件的大小，单位MB
+         */
+        public int segmentSize = 4;
+        /**
+         * 刷盘间隔，单位毫秒
+         */
+        public int fsyncInterval = 100;
+        /**
+         * 累计多少条未刷盘的记录时立即刷盘
+         */
+        public int fsyncBatchSize = 64;
+        /**
+         * 连接恢复后重新发送的速率，单位条/秒
+         */
+        public double drainRate = 5;
+    }
+
+    /**
+     * API优先级通道设置
+     */
+    public static class LaneSettings {
+        /**
+         * 按通道限制同时进行中的请求数，超出 {@link #maxInFlight} 的请求排队等待，
+         * 会改变大量调用API时的发送时机，因此默认关闭，关闭时所有请求都立即发送
+         */
+        public boolean enabled = false;
+        /**
+         * 同时进行中的请求数上限，达到后新的请求按通道排队
+         */
+        public int maxInFlight = 16;
+        /**
+         * 为 {@link ApiLane#MODERATION} 预留的空位数，其他通道最多使用 {@code maxInFlight - moderationReserve} 个
+         */
+        public int moderationReserve = 2;
+        public int moderationWeight = 8;
+        public int interactiveWeight = 4;
+        public int bulkWeight = 2;
+        public int backgroundWeight = 1;
+        /**
+         * 各API所在的通道，未列出的API中 get_* 与 can_* 为 {@link ApiLane#BACKGROUND}，其余为 {@link ApiLane#INTERACTIVE}
+         */
+        public Map<String, ApiLane> actionLanes = new HashMap<>(Map.of(
+                "set_group_ban", ApiLane.MODERATION,
+                "set_group_kick", ApiLane.MODERATION,
+                "set_group_anonymous_ban", ApiLane.MODERATION,
+                "set_group_whole_ban", ApiLane.MODERATION,
+                "delete_msg", ApiLane.MODERATION,
+                "set_group_add_request", ApiLane.MODERATION
+        ));
+    }
+
+    /**
+     * 连接设置
+     */
+    public static class TransportSettings {
+        /**
+         * 连接实现，修改后对新创建的机器人生效
+         */
+        public Type type = Type.JAVA_WEBSOCKET;
+        /**
+         * {@link Type#NETTY} 使用的事件循环
+         */
+        public EventLoop eventLoop = EventLoop.SHARED;
+        /**
+         * {@link EventLoop#SHARED} 的线程数
+         */
+        public int sharedThreads = 1;
+        /**
+         * 单个消息的大小上限，单位字节
+         */
+        public int maxFrameSize = 64 * 1024 * 1024;
+        /**
+         * 连接超时时间，单位毫秒
+         */
+        public int connectTimeout = 10000;
+        /**
+         * 大于 {@code 0} 时不再使用通用的 / 连接，而是建立一个 /event 连接接收事件，
+         * 并建立该数量的 /api 连接发送API请求，每次选择等待响应的请求最少的连接。修改后对新创建的机器人生效
+         */
+        public int apiConnections = 0;
+        /**
+         * 与服务器协商 permessage-deflate 压缩，适用于服务器在另一台主机上、带宽受限的情况
+         */
+        public boolean compression = false;
+        /**
+         * 小于该大小（字节）的消息不压缩直接发送
+         */
+        public int compressionThreshold = 1024;
+        /**
+         * 压缩发送的消息时保留上一条消息的字典，压缩率更高但每个连接常驻约 256KB 内存
+         */
+        public boolean clientContextTakeover = true;
+        /**
+         * 请求服务器压缩时保留上一条消息的字典
+         */
+        public boolean serverContextTakeover = true;
+
+        public enum Type {
+            /**
+             * Java-WebSocket，每个机器人使用独立的读写线程
+             */
+            JAVA_WEBSOCKET,
+            /**
+             * Netty，所有机器人共用事件循环
+             */
+            NETTY
+        }
+
+        public enum EventLoop {
+            /**
+             * MineBot API 自己的事件循环
+             */
+            SHARED,
+            /**
+             * Minecraft 服务器的网络事件循环，不额外创建线程。
+             * 事件监听器会在服务器的网络线程中调用，执行耗时操作会拖慢玩家连接
+             */
+            MINECRAFT
+        }
+    }
+
+    /**
+     * 入站事件队列设置
+     */
+    public static class InboundQueueSettings {
+        /**
+         * 用户事件先进入每个机器人的有界队列，再在 MineBotApi-Dispatch 线程中解析并调用监听器，
+         * API响应与元事件仍在读取连接的线程中处理，不会排在大量聊天消息之后。
+         * 队列已满时按 {@link #policy} 丢弃事件，因此默认关闭，关闭时所有帧都在读取连接的线程中依次处理。修改后对新创建的机器人生效
+         */
+        public boolean enabled = false;
+        /**
+         * 队列容量，即队列长度的上限，暂停读取事件连接（{@link InboundOverflowPolicy#BLOCK}）期间最多为两倍
+         */
+        public int capacity = 1024;
+        /**
+         * 队列已满时的处理方式
+         */
+        public InboundOverflowPolicy policy = InboundOverflowPolicy.DROP_OLDEST;
+    }
+
+    /**
+     * 服务器线程执行器设置
+     */
+    public static class ServerExecutorSettings {
+        /**
+         * 每刻在服务器线程中执行机器人任务的耗时预算，单位微秒，超出后剩余任务顺延到下一刻
+         */
+        public int tickBudget = 5000;
+    }
+
+    /**
+     * 服务器线程同步调用检测设置
+     */
+    public static class BlockingCallGuardSettings {
+        /**
+         * 检测在 Minecraft 服务器线程中调用的同步API
+         */
+        public boolean enabled = false;
+        /**
+         * 检测到时的处理方式
+         */
+        public BlockingCallPolicy policy = BlockingCallPolicy.WARN;
+        /**
+         * 同一调用位置重复输出警告的最小间隔，单位毫秒
+         */
+        public int warnInterval = 60000;
+    }
+
+    /**
+     * 多端点故障转移设置
+     */
+    public static class FailoverSettings {
+        /**
+         * 检查端点健康状况（连接、心跳与 get_status）的间隔，单位毫秒
+         */
+        public int checkInterval = 2000;
+        /**
+         * get_status 的超时时间，单位毫秒
+         */
+        public int checkTimeout = 1000;
+        /**
+         * 连续检查失败该次数后视为不可用，连接断开时立即视为不可用
+         */
+        public int failureThreshold = 2;
+        /**
+         * 不可用的端点连续检查成功该次数后视为恢复
+         */
+        public int recoveryThreshold = 3;
+    }
+
+    /**
+     * 多账号群消息分发设置
+     */
+    public static class GroupRoutingSettings {
+        /**
+         * 每个账号每秒恢复的发送额度，按剩余额度分配群消息，额度用完时不会阻止发送
+         */
+        public double sendRate = 1.0;
+        /**
+         * 每个账号最多积累的发送额度
+         */
+        public int sendBurst = 5;
+        /**
+         * 重新获取各账号群列表的间隔，单位毫秒，不大于 0 时只在创建时获取
+         */
+        public int refreshInterval = 600000;
+    }
+
+    /**
+     * 跨机器人事件去重设置
+     */
+    public static class EventDedupSettings {
+        /**
+         * 多个账号收到同一群消息、群消息撤回或群成员增加事件时只调用一次监听器，见 {@link top.tigercrl.minebotapi.sdk.bot.EventDedup}
+         */
+        public boolean enabled = false;
+        /**
+         * 判断事件是否相同的时间窗口，单位毫秒
+         */
+        public int window = 10000;
+        /**
+         * 一个时间窗口内最多记录的事件数量，超出后提前丢弃较早的记录。修改后重启生效
+         */
+        public int capacity = 16384;
+    }
+
+    /**
+     * 单个机器人的重复事件过滤设置
+     */
+    public static class DuplicateFilterSettings {
+        /**
+         * 丢弃同一机器人在时间窗口内重复收到的消息、通知与请求事件，如部分 OneBot 实现在重新连接后重发的事件。
+         * 时间、类型与相关 QQ 号都相同的通知（如同一秒内的两次戳一戳）也会被视为重复。修改后对新创建的机器人生效
+         */
+        public boolean enabled = false;
+        /**
+         * 时间窗口，单位毫秒
+         */
+        public int window = 60000;
+        /**
+         * 每个机器人在一个时间窗口内最多记录的事件数量，超出后提前丢弃较早的记录
+         */
+        public int capacity = 2048;
     }
 }
@@ -0,0 +1,158 @@
+package top.tigercrl.minebotapi.sdk.bot;
+
+import top.tigercrl.minebotapi.ModConfig;
+import top.tigercrl.minebotapi.sdk.metrics.LatencyHistogram;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 按API统计往返时间，用于推算API的默认超时时间并检测延迟异常
+ * 往返时间以微秒记录
+ */
+class ApiLatencyTracker {
+    private static final double BASELINE_ALPHA = 0.01;
+    private static final double RECENT_ALPHA = 0.2;
+
+    private final Map<String, ActionStats> actions = new ConcurrentHashMap<>();
+
+    /**
+     * 获取API的统计信息
+     *
+     * @param action API名称（不含请求类型后缀）
+     * @return 统计信息
+     */
+    ActionStats get(String action) {
+        return actions.computeIfAbsent(action, ignored -> new ActionStats());
+    }
+
+    /**
+     * 是否有API处于延迟异常状态
+     *
+     * @return 是否延迟异常
+     */
+    boolean isDegraded() {
+        for (ActionStats stats : actions.values()) {
+            if (stats.isDegraded()) return true;
+        }
+        return false;
+    }
+
+    /**
+     * 延迟状态变化
+     */
+    enum Transition {
+        NONE,
+        DEGRADED,
+        RECOVERED
+    }
+
+    static class ActionStats {
+        private final AtomicLong windowStart = new AtomicLong(System.currentTimeMillis());
+        private volatile LatencyHistogram current = new LatencyHistogram();
+        private volatile LatencyHistogram previous = new LatencyHistogram();
+        private final AtomicLong baseline = new AtomicLong(Double.doubleToRawLongBits(Double.NaN));
+        private final AtomicLong recent = new AtomicLong(Double.doubleToRawLongBits(Double.NaN));
+        private final AtomicBoolean degraded = new AtomicBoolean();
+
+        /**
+         * 记录一次往返时间
+         *
+         * @param rtt      往返时间，单位微秒
+         * @param settings 自适应超时设置
+         * @return 延迟状态变化
+         */
+        Transition record(long rtt, ModConfig.AdaptiveTimeoutSettings settings) {
+            long now = System.currentTimeMillis();
+            long start = windowStart.get();
+            if (now - start >= settings.window && windowStart.compareAndSet(start, now)) {
+                previous = current;
+                current = new LatencyHistogram();
+            }
+            current.record(rtt);
+
+            double recentRtt = updateEwma(recent, rtt, RECENT_ALPHA);
+            // 延迟异常期间不更新基线，避免基线跟随异常值漂移
+            double baselineRtt = degraded.get() ? getBaseline() : updateEwma(baseline, rtt, BASELINE_ALPHA);
+            if (getSampleCount() < settings.minSamples) return Transition.NONE;
+            double threshold = Math.max(baselineRtt * settings.degradeFactor, settings.degradeMinRtt * 1000.0);
+            if (recentRtt > threshold) {
+                if (degraded.compareAndSet(false, true)) return Transition.DEGRADED;
+            } else if (recentRtt < (baselineRtt + threshold) / 2) {
+                if (degraded.compareAndSet(true, false)) return Transition.RECOVERED;
+            }
+            return Transition.NONE;
+        }
+
+        /**
+         * 根据往返时间推算超时时间
+         *
+         * @param settings 自适应超时设置
+         * @param ceiling  配置的超时时间，单位毫秒，作为上限
+         * @return 超时时间，单位毫秒
+         */
+        long getTimeout(ModConfig.AdaptiveTimeoutSettings settings, long ceiling) {
+            if (getSampleCount() < settings.minSamples) return ceiling;
+            long p99 = LatencyHistogram.percentile(99, current, previous) / 1000;
+            long timeout = (long) (p99 * settings.factor);
+            return Math.min(ceiling, Math.max(settings.minTimeout, timeout));
+        }
+
+        /**
+         * 获取当前统计窗口内的样本数量
+         *
+         * @return 样本数量
+         */
+        long getSampleCount() {
+            return current.getCount() + previous.getCount();
+        }
+
+        /**
+         * 获取当前统计窗口内的往返时间百分位数
+         *
+         * @param percentile 百分位
+         * @return 往返时间，单位微秒
+         */
+        long getPercentile(double percentile) {
+            return LatencyHistogram.percentile(percentile, current, previous);
+        }
+
+        /**
+         * 获取往返时间基线
+         *
+         * @return 往返时间，单位微秒
+         */
+        double getBaseline() {
+            return Double.longBitsToDouble(baseline.get());
+        }
+
+        /**
+         * 获取近期往返时间
+         *
+         * @return 往返时间，单位微秒
+         */
+        double getRecent() {
+            return Double.longBitsToDouble(recent.get());
+        }
+
+        /**
+         * 当前是否处于延迟异常状态
+         *
+         * @return 是否延迟异常
+         */
+        boolean isDegraded() {
+            return degraded.get();
+        }
+
+        private static double updateEwma(AtomicLong holder, long sample, double alpha) {
+            while (true) {
+                long bits = holder.get();
+                double old = Double.longBitsToDouble(bits);
+                double updated = Double.isNaN(old) ? sample : old + alpha * (sample - old);
+                if (holder.compareAndSet(bits, Double.doubleToRawLongBits(updated))) return updated;
+            }
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package top.tigercrl.minebotapi.sdk.bot;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.Nullable;
+import top.tigercrl.minebotapi.MineBotApi;
+import top.tigercrl.minebotapi.ModConfig;
+import top.tigercrl.minebotapi.sdk.enums.BlockingCallPolicy;
+import top.tigercrl.minebotapi.sdk.metrics.BotMetrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 检测在 Minecraft 服务器线程中调用的同步API
+ * 同步API会阻塞到收到响应为止，在服务器线程中调用时整个服务器都要等待。
+ * 警告日志中给出调用方（本包以外的第一个栈帧），同一调用位置按间隔限制输出频率
+ */
+class BlockingCallGuard {
+    private static final Logger LOGGER = LogManager.getLogger();
+    private static final String PACKAGE_PREFIX = BlockingCallGuard.class.getPackageName() + ".";
+    private static final StackWalker WALKER = StackWalker.getInstance();
+
+    private final BotMetrics metrics;
+    private final Map<String, Long> lastWarnings = new ConcurrentHashMap<>();
+
+    BlockingCallGuard(BotMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * 在发送同步请求前调用
+     *
+     * @param action API名称
+     * @return 处理方式，未启用检测或不在服务器线程中时为 {@code null}
+     */
+    @Nullable BlockingCallPolicy check(String action) {
+        ModConfig.BlockingCallGuardSettings settings = MineBotApi.config.blockingCallGuard;
+        if (!settings.enabled || !BotExecutors.isServerThread()) return null;
+        metrics.increment("blocking_calls");
+        String caller = WALKER.walk(frames -> frames
+                .filter(frame -> !frame.getClassName().startsWith(PACKAGE_PREFIX))
+                .findFirst()
+                .map(StackWalker.StackFrame::toString)
+                .orElse("未知"));
+        long now = System.nanoTime();
+        Long last = lastWarnings.get(caller);
+        if (last == null || now - last >= TimeUnit.MILLISECONDS.toNanos(settings.warnInterval)) {
+            lastWarnings.put(caller, now);
+            LOGGER.warn("在服务器线程中调用了同步API，服务器将阻塞到收到响应为止，请在 BotExecutors.blocking() 中调用或改用 customApiAsync，再通过 BotExecutors.serverThread() 回到服务器线程！API：{}，调用位置：{}，处理方式：{}，机器人UUID：{}",
+                    action, caller, settings.policy, Bot.uuid);
+        }
+        return settings.policy;
+    }
+}
@@ -9,16 +9,26 @@ import top.tigercrl.minebotapi.sdk.events.RequestEvent;
 import top.tigercrl.minebotapi.sdk.message.ArrayMessage;
 import top.tigercrl.minebotapi.sdk.message.Message;
 import top.tigercrl.minebotapi.sdk.message.MessageSegment;
+import top.tigercrl.minebotapi.sdk.metrics.BotMetrics;
 import top.tigercrl.minebotapi.sdk.records.APIResponse;
 import top.tigercrl.minebotapi.sdk.records.BotStatus;
 import top.tigercrl.minebotapi.sdk.records.MessageInfo;
 import top.tigercrl.minebotapi.sdk.records.MessageSenderAnonymous;
 
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * 基于OneBot的机器人
  * API见https://github.com/botuniverse/onebot-11/blob/master/api/public.md
+ * 同步API会阻塞到收到响应为止，不要在 Minecraft 服务器线程中调用。
+ * 应在 {@link BotExecutors#blocking()} 中调用同步API，或使用 {@link #customApiAsync}，
+ * 再通过 {@link BotExecutors#serverThread()} 回到服务器线程：
+ * <pre>{@code
+ * CompletableFuture.supplyAsync(() -> bot.getGroupInfo(groupId, false, null), BotExecutors.blocking())
+ *         .thenAcceptAsync(response -> player.sendSystemMessage(...), BotExecutors.serverThread());
+ * }</pre>
  */
 public interface Bot {
     /**
@@ -44,13 +54,43 @@ public interface Bot {
      * @return 机器人
      */
     static Bot createWebSocketBot(@NotNull String oneBotServerUrl, @Nullable String accessToken) {
+        return new WSBot(webSocketUrl(oneBotServerUrl, accessToken));
+    }
+
+    /**
+     * 创建在多个正向WebSocket端点之间故障转移的机器人
+     * 所有端点应登录同一账号，见 {@link FailoverBot}
+     *
+     * @param oneBotServerUrls 按优先级排列的OneBot服务器地址
+     * @param accessToken      访问令牌，为 {@code null} 或为空字符串就不使用
+     * @return 机器人
+     */
+    static FailoverBot createFailoverBot(@NotNull List<String> oneBotServerUrls, @Nullable String accessToken) {
+        if (oneBotServerUrls.isEmpty())
+            throw new IllegalArgumentException("至少需要一个OneBot服务器地址");
+        return new FailoverBot(oneBotServerUrls.stream().map(url -> webSocketUrl(url, accessToken)).toList());
+    }
+
+    /**
+     * 创建将群消息分散到多个账号发送的机器人，见 {@link GroupRoutingBot}
+     *
+     * @param accounts 各账号的机器人，其他API使用第一个账号
+     * @return 机器人
+     */
+    static GroupRoutingBot createGroupRoutingBot(@NotNull List<? extends Bot> accounts) {
+        if (accounts.isEmpty())
+            throw new IllegalArgumentException("至少需要一个账号的机器人");
+        return new GroupRoutingBot(accounts);
+    }
+
+    private static String webSocketUrl(String oneBotServerUrl, @Nullable String accessToken) {
         if (!oneBotServerUrl.startsWith("ws://") && !oneBotServerUrl.startsWith("wss://"))
             throw new IllegalArgumentException("OneBot WebSocket服务器链接必须以 ws:// 或 wss:// 开头");
         if (!oneBotServerUrl.endsWith("/"))
             oneBotServerUrl += "/";
         if (accessToken != null && !accessToken.isEmpty())
             oneBotServerUrl += "?access_token=" + accessToken;
-        return new WSBot(oneBotServerUrl);
+        return oneBotServerUrl;
     }
 
     /**
@@ -494,6 +534,14 @@ public interface Bot {
      */
     APIResponse<GroupInfo> getGroupInfo(long groupId, boolean noCache, @Nullable APIRequestType requestType);
 
+    /**
+     * 获取群列表
+     *
+     * @param requestType 请求类型，为 {@code null} 默认为 {@link APIRequestType#NORMAL}，此处使用 {@link APIRequestType#ASYNC} 是没有意义的
+     * @return 群列表
+     */
+    APIResponse<GroupInfo[]> getGroupList(@Nullable APIRequestType requestType);
+
     /**
      * 群信息
      *
@@ -939,10 +987,13 @@ public interface Bot {
             String appName = json.getString("app_name");
             String appVersion = json.getString("app_version");
             String protocolVersion = json.getString("protocol_version");
-            json.remove("app_name");
-            json.remove("app_version");
-            json.remove("protocol_version");
-            return new VersionInfo(appName, appVersion, protocolVersion, json);
+            // 复制其余字段而不是从传入的对象中删除，传入的对象属于调用方
+            JSONObject other = new JSONObject();
+            for (String key : json.keySet()) {
+                if (!key.equals("app_name") && !key.equals("app_version") && !key.equals("protocol_version"))
+                    other.put(key, json.get(key));
+            }
+            return new VersionInfo(appName, appVersion, protocolVersion, other);
         }
 
         /**
@@ -1000,4 +1051,50 @@ public interface Bot {
      * @return API返回数据
      */
     APIResponse<JSONObject> customApi(String action, JSONObject params, @Nullable APIRequestType requestType);
+
+    /**
+     * 异步调用自定义API
+     * 取消返回的 {@link CompletableFuture} 会立即释放该请求，之后到达的响应将被丢弃
+     *
+     * @param action      自定义API名称
+     * @param params      自定义参数
+     * @param requestType 请求类型，为 {@code null} 默认为 {@link APIRequestType#NORMAL}
+     * @return API返回数据
+     */
+    CompletableFuture<APIResponse<JSONObject>> customApiAsync(String action, JSONObject params, @Nullable APIRequestType requestType);
+
+    /**
+     * 获取使用指定超时时间调用API的机器人
+     * 返回的机器人与当前机器人共用同一连接，仅调用API时的超时时间不同
+     *
+     * @param timeout 超时时间，单位毫秒，不大于 {@code 0} 时使用配置中该API的默认超时时间
+     * @return 机器人
+     */
+    Bot withTimeout(long timeout);
+
+    /**
+     * 获取调用API失败时不抛出异常的机器人
+     * 返回的机器人在 OneBot 返回非 {@code 0} retcode 时不抛出 {@link top.tigercrl.minebotapi.sdk.exceptions.BotRequestException}，
+     * 而是返回 {@link APIResponse#status()} 为 {@link APIResponse.Status#FAIL} 且 {@link APIResponse#data()} 为 {@code null} 的响应，
+     * 适合预期会大量失败的调用（如批量禁言时对方已退群）。超时、连接断开等错误仍会抛出异常
+     *
+     * @return 机器人
+     */
+    Bot nonThrowing();
+
+    /**
+     * 获取在指定优先级通道中调用API的机器人
+     * 返回的机器人与当前机器人共用同一连接，适合将广播等批量请求放入 {@link ApiLane#BULK}，避免延迟群管理操作
+     *
+     * @param lane 优先级通道
+     * @return 机器人
+     */
+    Bot withLane(ApiLane lane);
+
+    /**
+     * 获取机器人的运行指标快照
+     *
+     * @return 指标快照
+     */
+    BotMetrics.Snapshot metrics();
 }
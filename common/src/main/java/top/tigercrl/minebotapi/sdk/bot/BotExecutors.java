@@ -0,0 +1,153 @@
+package top.tigercrl.minebotapi.sdk.bot;
+
+import dev.architectury.event.events.common.LifecycleEvent;
+import dev.architectury.event.events.common.TickEvent;
+import net.minecraft.server.MinecraftServer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.Nullable;
+import top.tigercrl.minebotapi.MineBotApi;
+import top.tigercrl.minebotapi.ModConfig;
+
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 机器人相关的执行器
+ */
+public final class BotExecutors {
+    private static final Logger LOGGER = LogManager.getLogger();
+    private static final Queue<Runnable> SERVER_TASKS = new ConcurrentLinkedQueue<>();
+    private static final LongAdder EXECUTED = new LongAdder();
+    private static final LongAdder DEFERRED = new LongAdder();
+    private static final Executor SERVER_THREAD = task -> SERVER_TASKS.add(Objects.requireNonNull(task));
+    private static final AtomicInteger BLOCKING_THREADS = new AtomicInteger();
+    private static final ExecutorService BLOCKING = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r, "MineBotApi-Blocking-" + BLOCKING_THREADS.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static volatile @Nullable MinecraftServer server;
+
+    private BotExecutors() {
+    }
+
+    /**
+     * 注册服务器事件，模组初始化时调用
+     */
+    public static void init() {
+        LifecycleEvent.SERVER_STARTING.register(instance -> server = instance);
+        LifecycleEvent.SERVER_STOPPED.register(BotExecutors::discard);
+        TickEvent.SERVER_POST.register(BotExecutors::drain);
+    }
+
+    /**
+     * 获取在 Minecraft 服务器线程中执行任务的执行器
+     * <p>
+     * 任务先加入队列，每刻结束时（{@link TickEvent#SERVER_POST}）按提交顺序执行，
+     * 单刻耗时超过 {@link ModConfig.ServerExecutorSettings#tickBudget} 后剩余任务顺延到下一刻，每刻至少执行一个任务。
+     * 服务器未运行时任务会一直等待，服务器关闭后未执行的任务被丢弃。
+     * <p>
+     * 用于在API的结果到达后操作世界，而不必在服务器线程中调用会阻塞的同步API：
+     * <pre>{@code
+     * bot.customApiAsync("get_group_info", params, null)
+     *         .thenAcceptAsync(response -> player.sendSystemMessage(...), BotExecutors.serverThread());
+     * CompletableFuture.supplyAsync(() -> bot.getGroupInfo(groupId, false, null), BotExecutors.blocking())
+     *         .thenAcceptAsync(response -> player.sendSystemMessage(...), BotExecutors.serverThread());
+     * }</pre>
+     *
+     * @return 执行器
+     */
+    public static Executor serverThread() {
+        return SERVER_THREAD;
+    }
+
+    /**
+     * 获取执行会阻塞的后台任务（如重新连接、同步API调用）的执行器
+     * <p>
+     * 按需创建守护线程，空闲一分钟后回收，不占用 {@link java.util.concurrent.ForkJoinPool#commonPool()}。
+     * 除 {@link Bot#customApiAsync} 外的API都是同步的，模组应在此执行器中调用，见 {@link #serverThread()}
+     *
+     * @return 执行器
+     */
+    public static Executor blocking() {
+        return BLOCKING;
+    }
+
+    /**
+     * 获取正在运行的 Minecraft 服务器
+     *
+     * @return 服务器，未运行时为 {@code null}
+     */
+    static @Nullable MinecraftServer getServer() {
+        return server;
+    }
+
+    /**
+     * 当前线程是否为 Minecraft 服务器线程
+     *
+     * @return 服务器未运行时为 {@code false}
+     */
+    static boolean isServerThread() {
+        MinecraftServer server = BotExecutors.server;
+        return server != null && server.isSameThread();
+    }
+
+    /**
+     * 获取等待在服务器线程中执行的任务数量
+     *
+     * @return 任务数量
+     */
+    static int getServerQueueSize() {
+        return SERVER_TASKS.size();
+    }
+
+    /**
+     * 获取已在服务器线程中执行的任务数量
+     *
+     * @return 任务数量
+     */
+    static long getServerExecutedCount() {
+        return EXECUTED.sum();
+    }
+
+    /**
+     * 获取因超出单刻耗时预算而有任务顺延到下一刻的次数
+     *
+     * @return 次数
+     */
+    static long getServerDeferredCount() {
+        return DEFERRED.sum();
+    }
+
+    private static void drain(MinecraftServer server) {
+        long start = System.nanoTime();
+        long budget = Math.max(0, MineBotApi.config.serverExecutor.tickBudget) * 1000L;
+        Runnable task;
+        while ((task = SERVER_TASKS.poll()) != null) {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                LOGGER.error("在服务器线程中执行机器人任务时发生错误", e);
+            }
+            EXECUTED.increment();
+            if (System.nanoTime() - start >= budget) {
+                if (!SERVER_TASKS.isEmpty()) DEFERRED.increment();
+                return;
+            }
+        }
+    }
+
+    private static void discard(MinecraftServer instance) {
+        server = null;
+        int discarded = 0;
+        while (SERVER_TASKS.poll() != null) discarded++;
+        if (discarded > 0) LOGGER.warn("服务器已关闭，已丢弃 {} 个未在服务器线程中执行的机器人任务", discarded);
+    }
+}
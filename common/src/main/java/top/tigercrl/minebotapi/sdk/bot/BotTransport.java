@@ -0,0 +1,108 @@
+package top.tigercrl.minebotapi.sdk.bot;
+
+import org.java_websocket.handshake.ServerHandshake;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 正向WebSocket机器人的底层连接
+ * 回调的调用线程由实现决定，同一连接的回调不会并发调用（{@link SplitTransport} 的不同连接除外）
+ */
+interface BotTransport {
+    /**
+     * 开始连接，不等待连接完成
+     */
+    void connect();
+
+    /**
+     * 断开连接后重新连接，不等待连接完成
+     */
+    void reconnect();
+
+    /**
+     * 断开连接后重新连接，并等待握手完成
+     *
+     * @return 是否连接成功
+     * @throws InterruptedException 等待时被中断
+     */
+    boolean reconnectBlocking() throws InterruptedException;
+
+    /**
+     * 关闭连接
+     */
+    void close();
+
+    /**
+     * 连接是否已建立
+     *
+     * @return 是否已建立
+     */
+    boolean isOpen();
+
+    /**
+     * 连接是否已关闭（包括连接失败），尚未开始连接或正在连接时为 {@code false}
+     *
+     * @return 是否已关闭
+     */
+    boolean isClosed();
+
+    /**
+     * 发送文本帧
+     *
+     * @param text 文本
+     * @return 连接未建立时返回 {@code false}
+     */
+    boolean sendText(String text);
+
+    /**
+     * 发送API请求
+     * 默认直接发送，分散请求的实现在请求完成前将其计入所在连接等待响应的请求数
+     *
+     * @param text 请求文本
+     * @param call 请求，收到响应、超时或被取消后完成
+     * @return 连接未建立时返回 {@code false}
+     */
+    default boolean sendText(String text, CompletableFuture<?> call) {
+        return sendText(text);
+    }
+
+    /**
+     * 暂停读取连接，由 TCP 流量控制让服务器放慢发送
+     *
+     * @return 不支持暂停时返回 {@code false}
+     */
+    boolean pauseReading();
+
+    /**
+     * 恢复读取连接
+     */
+    void resumeReading();
+
+    /**
+     * 暂停读取只推送事件的连接，API响应仍能照常读取
+     *
+     * @return 事件与API响应在同一连接上或不支持暂停时返回 {@code false}，此时不能暂停，否则API响应也会停止读取
+     */
+    default boolean pauseEvents() {
+        return false;
+    }
+
+    /**
+     * 恢复读取 {@link #pauseEvents()} 暂停的连接
+     */
+    default void resumeEvents() {
+    }
+
+    /**
+     * 连接回调
+     */
+    interface Listener {
+        void onOpen(ServerHandshake handshakeData);
+
+        void onMessage(String message);
+
+        void onClose(int code, String reason, boolean remote);
+
+        void onError(Exception ex);
+    }
+}
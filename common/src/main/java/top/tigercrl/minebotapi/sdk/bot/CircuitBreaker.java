@@ -0,0 +1,203 @@
+package top.tigercrl.minebotapi.sdk.bot;
+
+import org.jetbrains.annotations.Nullable;
+import top.tigercrl.minebotapi.ModConfig;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * API熔断器
+ * 最近 {@link ModConfig.CircuitBreakerSettings#windowSize} 次调用中失败比例过高时进入 {@link State#OPEN} 状态，直接拒绝调用；
+ * 经过 {@link ModConfig.CircuitBreakerSettings#openDuration} 后进入 {@link State#HALF_OPEN} 状态，放行少量调用作为探测，
+ * 探测全部成功则恢复 {@link State#CLOSED} 状态，否则重新进入 {@link State#OPEN} 状态
+ */
+public class CircuitBreaker {
+    private final @Nullable String action;
+    private final Supplier<ModConfig.CircuitBreakerSettings> settings;
+    private final Listener listener;
+    private final AtomicLong opened = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    private State state = State.CLOSED;
+    private boolean[] outcomes = new boolean[0];
+    private int index;
+    private int calls;
+    private int failures;
+    private long openedAt;
+    private int probes;
+    private int probeSuccesses;
+
+    CircuitBreaker(@Nullable String action, Supplier<ModConfig.CircuitBreakerSettings> settings, Listener listener) {
+        this.action = action;
+        this.settings = settings;
+        this.listener = listener;
+    }
+
+    /**
+     * 获取熔断器对应的API
+     *
+     * @return API名称，为 {@code null} 表示整个机器人
+     */
+    public @Nullable String getAction() {
+        return action;
+    }
+
+    /**
+     * 获取熔断器状态
+     *
+     * @return 状态
+     */
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * 获取进入 {@link State#OPEN} 状态的次数
+     *
+     * @return 次数
+     */
+    public long getOpenedCount() {
+        return opened.get();
+    }
+
+    /**
+     * 获取被拒绝的调用次数
+     *
+     * @return 次数
+     */
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    /**
+     * 尝试放行一次调用，放行后必须调用 {@link #onSuccess()}、{@link #onFailure()} 或 {@link #onIgnored()} 之一
+     *
+     * @return 是否放行
+     */
+    boolean tryAcquire() {
+        State from;
+        boolean acquired;
+        synchronized (this) {
+            from = state;
+            if (state == State.OPEN && System.currentTimeMillis() - openedAt >= settings.get().openDuration) {
+                state = State.HALF_OPEN;
+                probes = 0;
+                probeSuccesses = 0;
+            }
+            acquired = switch (state) {
+                case CLOSED -> true;
+                case OPEN -> false;
+                case HALF_OPEN -> {
+                    if (probes >= settings.get().halfOpenProbes) yield false;
+                    probes++;
+                    yield true;
+                }
+            };
+        }
+        if (!acquired) rejected.incrementAndGet();
+        publish(from);
+        return acquired;
+    }
+
+    /**
+     * 记录一次成功的调用
+     */
+    void onSuccess() {
+        State from;
+        synchronized (this) {
+            from = state;
+            if (state == State.HALF_OPEN) {
+                if (probes > 0) probes--;
+                if (++probeSuccesses >= settings.get().halfOpenProbes) {
+                    state = State.CLOSED;
+                    reset();
+                }
+            } else if (state == State.CLOSED) {
+                record(false);
+            }
+        }
+        publish(from);
+    }
+
+    /**
+     * 记录一次失败的调用
+     */
+    void onFailure() {
+        State from;
+        synchronized (this) {
+            from = state;
+            if (state == State.HALF_OPEN) {
+                open();
+            } else if (state == State.CLOSED) {
+                record(true);
+                ModConfig.CircuitBreakerSettings config = settings.get();
+                if (calls >= config.minCalls && failures >= calls * config.failureRateThreshold) open();
+            }
+        }
+        publish(from);
+    }
+
+    /**
+     * 放弃一次已放行的调用（例如调用被取消），不计入统计
+     */
+    synchronized void onIgnored() {
+        if (state == State.HALF_OPEN && probes > 0) probes--;
+    }
+
+    private void record(boolean failure) {
+        int size = Math.max(1, settings.get().windowSize);
+        if (outcomes.length != size) {
+            outcomes = new boolean[size];
+            index = calls = failures = 0;
+        }
+        if (calls == size) {
+            if (outcomes[index]) failures--;
+        } else {
+            calls++;
+        }
+        outcomes[index] = failure;
+        if (failure) failures++;
+        index = (index + 1) % size;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = System.currentTimeMillis();
+        opened.incrementAndGet();
+        reset();
+    }
+
+    private void reset() {
+        index = calls = failures = 0;
+        probes = probeSuccesses = 0;
+        outcomes = new boolean[0];
+    }
+
+    private void publish(State from) {
+        State to = getState();
+        if (from != to) listener.stateChanged(this, from, to);
+    }
+
+    /**
+     * 熔断器状态
+     */
+    public enum State {
+        /**
+         * 正常放行调用
+         */
+        CLOSED,
+        /**
+         * 直接拒绝调用
+         */
+        OPEN,
+        /**
+         * 放行少量调用作为探测
+         */
+        HALF_OPEN
+    }
+
+    interface Listener {
+        void stateChanged(CircuitBreaker breaker, State from, State to);
+    }
+}
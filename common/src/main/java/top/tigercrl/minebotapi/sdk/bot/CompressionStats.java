@@ -0,0 +1,62 @@
+package top.tigercrl.minebotapi.sdk.bot;
+
+import top.tigercrl.minebotapi.sdk.metrics.BotMetrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * permessage-deflate 压缩统计
+ * <p>
+ * 统计所有数据帧（包括低于阈值未压缩的帧），压缩率为解压后大小与传输大小之比的百分数，
+ * 如 {@code 500} 表示传输的数据量为原来的五分之一
+ */
+class CompressionStats {
+    private final LongAdder inboundWireBytes = new LongAdder();
+    private final LongAdder inboundBytes = new LongAdder();
+    private final LongAdder inflateNanos = new LongAdder();
+    private final LongAdder outboundWireBytes = new LongAdder();
+    private final LongAdder outboundBytes = new LongAdder();
+    private final LongAdder deflateNanos = new LongAdder();
+
+    CompressionStats(BotMetrics metrics) {
+        metrics.gauge("compression_inbound_wire_bytes", inboundWireBytes::sum);
+        metrics.gauge("compression_inbound_bytes", inboundBytes::sum);
+        metrics.gauge("compression_inbound_ratio_percent", () -> ratio(inboundBytes, inboundWireBytes));
+        metrics.gauge("compression_inflate_nanos", inflateNanos::sum);
+        metrics.gauge("compression_outbound_wire_bytes", outboundWireBytes::sum);
+        metrics.gauge("compression_outbound_bytes", outboundBytes::sum);
+        metrics.gauge("compression_outbound_ratio_percent", () -> ratio(outboundBytes, outboundWireBytes));
+        metrics.gauge("compression_deflate_nanos", deflateNanos::sum);
+    }
+
+    private static long ratio(LongAdder bytes, LongAdder wireBytes) {
+        long wire = wireBytes.sum();
+        return wire == 0 ? 100 : bytes.sum() * 100 / wire;
+    }
+
+    /**
+     * 记录收到的数据帧
+     *
+     * @param wireBytes 传输大小
+     * @param bytes     解压后大小
+     * @param nanos     解压耗时
+     */
+    void inflated(long wireBytes, long bytes, long nanos) {
+        inboundWireBytes.add(wireBytes);
+        inboundBytes.add(bytes);
+        inflateNanos.add(nanos);
+    }
+
+    /**
+     * 记录发送的数据帧
+     *
+     * @param bytes     压缩前大小
+     * @param wireBytes 传输大小
+     * @param nanos     压缩耗时
+     */
+    void deflated(long bytes, long wireBytes, long nanos) {
+        outboundBytes.add(bytes);
+        outboundWireBytes.add(wireBytes);
+        deflateNanos.add(nanos);
+    }
+}
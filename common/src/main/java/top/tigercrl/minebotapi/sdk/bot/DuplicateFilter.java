@@ -0,0 +1,59 @@
+package top.tigercrl.minebotapi.sdk.bot;
+
+import org.json.JSONObject;
+import top.tigercrl.minebotapi.ModConfig;
+import top.tigercrl.minebotapi.sdk.metrics.BotMetrics;
+
+import java.util.function.Supplier;
+
+/**
+ * 单个机器人的重复事件过滤，丢弃同一连接在时间窗口内重复收到的用户事件，如部分 OneBot 实现在重新连接后重发的事件
+ * <p>
+ * 消息按消息 ID 判断，请求按 {@code flag} 判断，通知按类型、时间与其中的 QQ 号、群号、消息 ID 等字段判断
+ */
+class DuplicateFilter {
+    private final BotMetrics metrics;
+    private final RecentKeySet<Boolean> seen;
+
+    /**
+     * @param settings 配置，时间窗口每次记录时重新读取，容量只在创建时读取
+     * @param metrics  指标
+     */
+    DuplicateFilter(Supplier<ModConfig.DuplicateFilterSettings> settings, BotMetrics metrics) {
+        this.metrics = metrics;
+        seen = new RecentKeySet<>(() -> settings.get().window, settings.get().capacity);
+    }
+
+    /**
+     * 记录收到的事件
+     *
+     * @param json 事件
+     * @return 是否为重复的事件
+     */
+    boolean isDuplicate(JSONObject json) {
+        long key = key(json);
+        if (key == 0 || seen.add(key)) return false;
+        metrics.increment("duplicate_events_suppressed");
+        return true;
+    }
+
+    /**
+     * 获取用户事件的键
+     *
+     * @return 键，元事件等不参与过滤的事件为 {@code 0}
+     */
+    private static long key(JSONObject json) {
+        switch (json.optString("post_type")) {
+            case "message":
+                return RecentKeySet.hash(1, json.optString("message_type").hashCode(), json.optLong("message_id"));
+            case "notice":
+                return RecentKeySet.hash(2, json.optString("notice_type").hashCode(), json.optString("sub_type").hashCode(),
+                        json.optLong("time"), json.optLong("group_id"), json.optLong("user_id"), json.optLong("operator_id"),
+                        json.optLong("target_id"), json.optLong("message_id"), json.optLong("duration"));
+            case "request":
+                return RecentKeySet.hash(3, json.optString("flag").hashCode());
+            default:
+                return 0;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package top.tigercrl.minebotapi.sdk.bot;
+
+import org.jetbrains.annotations.Nullable;
+import org.json.JSONObject;
+import top.tigercrl.minebotapi.MineBotApi;
+import top.tigercrl.minebotapi.ModConfig;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 多个账号在同一群中时的跨机器人事件去重
+ * <p>
+ * 启用后（{@link ModConfig.EventDedupSettings}），所有机器人收到的群消息、群消息撤回与群成员增加事件，
+ * 在时间窗口内只有最先收到的一份会交给监听器，其余账号收到的相同事件被丢弃。
+ * 消息 ID 只在收到消息的账号中有效，因此群消息按群号、发送时间、发送者与消息内容的哈希判断是否相同，
+ * 撤回按群号、时间、发送者与操作者判断，成员增加按群号、时间、子类型与新成员判断
+ */
+public final class EventDedup {
+    private static final ThreadLocal<Set<Bot>> SEEN_BY = new ThreadLocal<>();
+    private static volatile @Nullable RecentKeySet<Set<Bot>> seen;
+
+    private EventDedup() {
+    }
+
+    /**
+     * 获取收到当前事件的所有账号，在群消息、群消息撤回与群成员增加事件的监听器中调用
+     * <p>
+     * 返回的集合是实时的，监听器执行期间或之后其他账号收到同一事件时会加入其中
+     *
+     * @return 机器人，未启用去重或不在上述监听器中时为空集合
+     */
+    public static Set<Bot> seenBy() {
+        Set<Bot> seenBy = SEEN_BY.get();
+        return seenBy != null ? Collections.unmodifiableSet(seenBy) : Set.of();
+    }
+
+    /**
+     * 获取事件的去重键
+     *
+     * @param json 事件
+     * @return 键，不参与去重的事件为 {@code 0}
+     */
+    static long key(JSONObject json) {
+        switch (json.optString("post_type")) {
+            case "message":
+                if (!"group".equals(json.optString("message_type"))) return 0;
+                Object content = json.has("raw_message") ? json.get("raw_message") : json.opt("message");
+                return RecentKeySet.hash(1, json.optLong("group_id"), json.optLong("time"), json.optLong("user_id"),
+                        content == null ? 0 : content.toString().hashCode());
+            case "notice":
+                switch (json.optString("notice_type")) {
+                    case "group_recall":
+                        return RecentKeySet.hash(2, json.optLong("group_id"), json.optLong("time"), json.optLong("user_id"), json.optLong("operator_id"));
+                    case "group_increase":
+                        return RecentKeySet.hash(3, json.optLong("group_id"), json.optLong("time"), json.optString("sub_type").hashCode(), json.optLong("user_id"));
+                }
+        }
+        return 0;
+    }
+
+    /**
+     * 记录机器人收到了事件
+     *
+     * @param bot 收到事件的机器人
+     * @param key {@link #key(JSONObject)}
+     * @return 收到该事件的账号，其他机器人已收到过该事件时为 {@code null}
+     */
+    static @Nullable Set<Bot> record(Bot bot, long key) {
+        ModConfig.EventDedupSettings settings = MineBotApi.config.eventDedup;
+        RecentKeySet<Set<Bot>> seen = EventDedup.seen;
+        if (seen == null) {
+            synchronized (EventDedup.class) {
+                if (EventDedup.seen == null)
+                    EventDedup.seen = new RecentKeySet<>(() -> MineBotApi.config.eventDedup.window, settings.capacity);
+                seen = EventDedup.seen;
+            }
+        }
+        // 同一账号再次收到相同的键时是另一条内容相同的事件（如同一秒内重复发送的消息），与其他账号收到的第 n 次对应
+        for (long occurrence = 0; ; occurrence++) {
+            Set<Bot> seenBy = ConcurrentHashMap.newKeySet();
+            seenBy.add(bot);
+            Set<Bot> existing = seen.putIfAbsent(occurrence == 0 ? key : RecentKeySet.hash(key, occurrence), seenBy);
+            if (existing == null) return seenBy;
+            if (existing.add(bot)) return null;
+        }
+    }
+
+    /**
+     * 在 {@link #seenBy()} 返回指定账号的情况下调用监听器
+     *
+     * @param seenBy    收到该事件的账号
+     * @param listeners 监听器
+     */
+    static void dispatch(Set<Bot> seenBy, Runnable listeners) {
+        SEEN_BY.set(seenBy);
+        try {
+            listeners.run();
+        } finally {
+            SEEN_BY.remove();
+        }
+    }
+}
@@ -0,0 +1,340 @@
+package top.tigercrl.minebotapi.sdk.bot;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.Nullable;
+import org.json.JSONObject;
+import top.tigercrl.minebotapi.MineBotApi;
+import top.tigercrl.minebotapi.ModConfig;
+import top.tigercrl.minebotapi.sdk.enums.ApiLane;
+import top.tigercrl.minebotapi.sdk.events.BotLifecycleEvent;
+import top.tigercrl.minebotapi.sdk.exceptions.ApiTimeoutException;
+import top.tigercrl.minebotapi.sdk.exceptions.BotClosedException;
+import top.tigercrl.minebotapi.sdk.exceptions.BotException;
+import top.tigercrl.minebotapi.sdk.exceptions.CircuitOpenException;
+import top.tigercrl.minebotapi.sdk.metrics.BotMetrics;
+import top.tigercrl.minebotapi.sdk.records.APIResponse;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * 在同一账号的多个 OneBot 端点之间故障转移的机器人
+ * <p>
+ * 所有端点同时保持连接，API调用发送到按列表顺序第一个健康的端点，只有该端点的用户事件会交给监听器，
+ * 事件中的机器人为该端点的 {@link WSBot}。每个端点定期检查连接、心跳与 {@code get_status}，
+ * 当前端点断开或连续检查失败时切换到下一个健康的端点，排在前面的端点连续检查成功后切换回去。
+ * <p>
+ * 因端点断开而失败的调用按 {@link RetryPolicy} 在新端点上重试一次：未发送的请求总是重试，已发送的请求只重试幂等的API
+ */
+public class FailoverBot extends ForwardingBot {
+    private static final Logger LOGGER = LogManager.getLogger();
+    private static final Set<FailoverBot> INSTANCES = ConcurrentHashMap.newKeySet();
+    private static final ScheduledThreadPoolExecutor SCHEDULER;
+
+    static {
+        SCHEDULER = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread thread = new Thread(r, "MineBotApi-Failover");
+            thread.setDaemon(true);
+            return thread;
+        });
+        BotLifecycleEvent.WEBSOCKET_DISCONNECT.register((bot, code, reason, remote) -> {
+            for (FailoverBot failover : INSTANCES) failover.disconnected(bot);
+        });
+    }
+
+    private final List<Endpoint> endpoints;
+    private final BotMetrics metrics;
+    private volatile Endpoint active;
+    private volatile boolean closed;
+    private long failedSince;
+    private volatile long lastFailoverTime = -1;
+
+    /**
+     * @param oneBotServerUrls 按优先级排列的OneBot服务器地址，已包含访问令牌
+     */
+    FailoverBot(List<String> oneBotServerUrls) {
+        metrics = new BotMetrics("failover:" + oneBotServerUrls.get(0).split("\\?")[0]);
+        endpoints = oneBotServerUrls.stream().map(Endpoint::new).toList();
+        active = endpoints.get(0);
+        for (Endpoint endpoint : endpoints) endpoint.bot.setEventsMuted(endpoint != active);
+        metrics.gauge("failover_active_index", () -> endpoints.indexOf(active));
+        metrics.gauge("failover_healthy_endpoints", () -> endpoints.stream().filter(endpoint -> endpoint.healthy).count());
+        metrics.register();
+        INSTANCES.add(this);
+        SCHEDULER.schedule(this::checkAll, checkInterval(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    protected Bot delegate() {
+        return active.bot;
+    }
+
+    @Override
+    protected <T> T forward(String action, Function<Bot, T> call) {
+        WSBot bot = active.bot;
+        T result;
+        try {
+            result = call.apply(bot);
+        } catch (BotException e) {
+            WSBot next = failoverFor(action, bot, e);
+            if (next == null) throw e;
+            return call.apply(next);
+        }
+        if (result instanceof CompletableFuture<?> future) {
+            @SuppressWarnings("unchecked")
+            T retrying = (T) retryAsync(action, call, bot, future);
+            return retrying;
+        }
+        return result;
+    }
+
+    private <T> CompletableFuture<Object> retryAsync(String action, Function<Bot, T> call, WSBot bot, CompletableFuture<?> future) {
+        CompletableFuture<Object> result = new CompletableFuture<>();
+        result.whenComplete((value, ex) -> future.cancel(false));
+        future.whenComplete((value, ex) -> {
+            if (ex == null) {
+                result.complete(value);
+                return;
+            }
+            Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+            WSBot next = cause instanceof BotException botException ? failoverFor(action, bot, botException) : null;
+            if (next == null) {
+                result.completeExceptionally(cause);
+                return;
+            }
+            try {
+                ((CompletableFuture<?>) call.apply(next)).whenComplete((retried, retryEx) -> {
+                    if (retryEx == null) result.complete(retried);
+                    else result.completeExceptionally(retryEx);
+                });
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * 判断失败的调用能否在其他端点上重试
+     *
+     * @return 重试使用的端点，不能重试时为 {@code null}
+     */
+    private @Nullable WSBot failoverFor(String action, WSBot bot, BotException failure) {
+        boolean sent;
+        if (failure instanceof BotClosedException closedException) sent = closedException.isRequestSent();
+        else if (failure instanceof CircuitOpenException) sent = false;
+        else if (failure instanceof ApiTimeoutException) sent = true;
+        else return null;
+        if (sent && !RetryPolicy.isIdempotent(action)) return null;
+        // 端点断开时不等下一次检查，立即切换
+        if (!bot.isOpen()) disconnected(bot);
+        WSBot next = active.bot;
+        if (next == bot) return null;
+        metrics.increment("failover_retries");
+        return next;
+    }
+
+    private void disconnected(Bot bot) {
+        for (Endpoint endpoint : endpoints) {
+            if (endpoint.bot == bot) {
+                synchronized (this) {
+                    if (endpoint.healthy) markFailed(endpoint);
+                }
+            }
+        }
+    }
+
+    private void checkAll() {
+        if (closed) return;
+        try {
+            for (Endpoint endpoint : endpoints) check(endpoint);
+        } catch (RuntimeException e) {
+            LOGGER.error("检查机器人端点时发生错误", e);
+        } finally {
+            SCHEDULER.schedule(this::checkAll, checkInterval(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private static long checkInterval() {
+        return Math.max(10, MineBotApi.config.failover.checkInterval);
+    }
+
+    private void check(Endpoint endpoint) {
+        WSBot bot = endpoint.bot;
+        if (bot.isClosed()) bot.reconnect();
+        // 正在连接时不计入检查结果，连接失败会触发断开事件
+        else if (!bot.isOpen()) return;
+        if (!bot.isOpen() || bot.isHeartbeatOverdue()) {
+            checked(endpoint, false);
+            return;
+        }
+        bot.withTimeout(MineBotApi.config.failover.checkTimeout).customApiAsync("get_status", new JSONObject(), null).whenComplete((response, ex) -> {
+            JSONObject data = ex == null ? response.data() : null;
+            checked(endpoint, response != null && response.status() == APIResponse.Status.SUCCESS
+                    && (data == null || data.optBoolean("online", true) && data.optBoolean("good", true)));
+        });
+    }
+
+    private synchronized void checked(Endpoint endpoint, boolean ok) {
+        if (closed) return;
+        ModConfig.FailoverSettings settings = MineBotApi.config.failover;
+        if (ok) {
+            endpoint.failures = 0;
+            endpoint.successes++;
+            if (!endpoint.healthy && endpoint.successes >= settings.recoveryThreshold) {
+                endpoint.healthy = true;
+                LOGGER.info("机器人端点已恢复，服务器URL：{}", endpoint.url);
+                evaluate();
+            }
+        } else {
+            endpoint.successes = 0;
+            endpoint.failures++;
+            if (endpoint.healthy && endpoint.failures >= settings.failureThreshold) markFailed(endpoint);
+        }
+    }
+
+    private void markFailed(Endpoint endpoint) {
+        endpoint.healthy = false;
+        endpoint.successes = 0;
+        LOGGER.warn("机器人端点不可用，服务器URL：{}", endpoint.url);
+        if (endpoint == active && failedSince == 0) {
+            // 从最后一次收到该端点的消息开始计算
+            long lastReceived = endpoint.bot.getLastReceived();
+            failedSince = lastReceived != 0 ? lastReceived : System.nanoTime();
+        }
+        evaluate();
+    }
+
+    /**
+     * 切换到按顺序第一个健康的端点，没有健康的端点时保持不变
+     */
+    private void evaluate() {
+        Endpoint target = endpoints.stream().filter(endpoint -> endpoint.healthy).findFirst().orElse(null);
+        Endpoint from = active;
+        if (target == null || target == from) return;
+        target.bot.setEventsMuted(false);
+        active = target;
+        from.bot.setEventsMuted(true);
+        long duration = 0;
+        if (failedSince != 0) {
+            duration = (System.nanoTime() - failedSince) / 1000;
+            failedSince = 0;
+            lastFailoverTime = duration / 1000;
+            metrics.increment("failovers");
+            metrics.record("failover_time", duration);
+            LOGGER.warn("机器人已切换到备用端点，耗时 {}ms，服务器URL：{} -> {}", duration / 1000, from.url, target.url);
+        } else {
+            metrics.increment("failbacks");
+            LOGGER.info("机器人已切换回优先的端点，服务器URL：{} -> {}", from.url, target.url);
+        }
+        BotLifecycleEvent.FAILOVER.invoker().failover(this, from.bot, target.bot, duration / 1000);
+    }
+
+    /**
+     * 获取当前使用的端点
+     *
+     * @return 机器人
+     */
+    public WSBot getActive() {
+        return active.bot;
+    }
+
+    /**
+     * 获取所有端点，按优先级排列
+     *
+     * @return 机器人
+     */
+    public List<WSBot> getEndpoints() {
+        return endpoints.stream().map(endpoint -> endpoint.bot).toList();
+    }
+
+    /**
+     * 获取最近一次故障转移的耗时，即从最后一次收到原端点的消息到切换到健康端点的时间
+     *
+     * @return 耗时，单位毫秒，尚未发生故障转移时为 {@code -1}
+     */
+    public long getLastFailoverTime() {
+        return lastFailoverTime;
+    }
+
+    /**
+     * 关闭所有端点并停止检查
+     */
+    public void close() {
+        closed = true;
+        INSTANCES.remove(this);
+        metrics.unregister();
+        for (Endpoint endpoint : endpoints) endpoint.bot.close();
+    }
+
+    @Override
+    public Bot withTimeout(long timeout) {
+        return new OptionsView(bot -> bot.withTimeout(timeout));
+    }
+
+    @Override
+    public Bot nonThrowing() {
+        return new OptionsView(Bot::nonThrowing);
+    }
+
+    @Override
+    public Bot withLane(ApiLane lane) {
+        return new OptionsView(bot -> bot.withLane(lane));
+    }
+
+    /**
+     * 以指定选项调用API的机器人视图，每次调用时使用当前的端点
+     */
+    private class OptionsView extends ForwardingBot {
+        private final Function<Bot, Bot> options;
+
+        OptionsView(Function<Bot, Bot> options) {
+            this.options = options;
+        }
+
+        @Override
+        protected Bot delegate() {
+            return options.apply(FailoverBot.this.delegate());
+        }
+
+        @Override
+        protected <T> T forward(String action, Function<Bot, T> call) {
+            return FailoverBot.this.forward(action, bot -> call.apply(options.apply(bot)));
+        }
+
+        @Override
+        public Bot withTimeout(long timeout) {
+            return new OptionsView(options.andThen(bot -> bot.withTimeout(timeout)));
+        }
+
+        @Override
+        public Bot nonThrowing() {
+            return new OptionsView(options.andThen(Bot::nonThrowing));
+        }
+
+        @Override
+        public Bot withLane(ApiLane lane) {
+            return new OptionsView(options.andThen(bot -> bot.withLane(lane)));
+        }
+    }
+
+    private static final class Endpoint {
+        final String url;
+        final WSBot bot;
+        volatile boolean healthy = true;
+        int failures;
+        int successes;
+
+        Endpoint(String url) {
+            this.url = url.split("\\?")[0];
+            bot = new WSBot(url);
+        }
+    }
+}
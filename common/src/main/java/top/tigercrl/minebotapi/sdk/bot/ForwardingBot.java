@@ -0,0 +1,277 @@
+package top.tigercrl.minebotapi.sdk.bot;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.json.JSONObject;
+import top.tigercrl.minebotapi.sdk.enums.APIRequestType;
+import top.tigercrl.minebotapi.sdk.enums.ApiLane;
+import top.tigercrl.minebotapi.sdk.enums.GroupRequestSubType;
+import top.tigercrl.minebotapi.sdk.enums.HonorType;
+import top.tigercrl.minebotapi.sdk.enums.MessageType;
+import top.tigercrl.minebotapi.sdk.message.ArrayMessage;
+import top.tigercrl.minebotapi.sdk.message.Message;
+import top.tigercrl.minebotapi.sdk.metrics.BotMetrics;
+import top.tigercrl.minebotapi.sdk.records.APIResponse;
+import top.tigercrl.minebotapi.sdk.records.BotStatus;
+import top.tigercrl.minebotapi.sdk.records.MessageInfo;
+import top.tigercrl.minebotapi.sdk.records.MessageSenderAnonymous;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * 将所有API调用转发给另一个机器人的机器人
+ * 子类可以重写 {@link #forward(Function)} 在调用前后做额外处理，或在每次调用时选择不同的机器人
+ */
+public abstract class ForwardingBot implements Bot {
+    /**
+     * 获取接收转发调用的机器人
+     *
+     * @return 机器人
+     */
+    protected abstract Bot delegate();
+
+    /**
+     * 转发一次调用
+     *
+     * @param call 调用
+     * @param <T>  返回值类型
+     * @return 调用结果
+     */
+    protected <T> T forward(Function<Bot, T> call) {
+        return call.apply(delegate());
+    }
+
+    /**
+     * 转发一次API调用
+     * 默认与 {@link #forward(Function)} 相同，子类可以按API区别处理，如只重试幂等的API
+     *
+     * @param action API名称（不含请求类型后缀）
+     * @param call   调用
+     * @param <T>    返回值类型
+     * @return 调用结果
+     */
+    protected <T> T forward(String action, Function<Bot, T> call) {
+        return forward(call);
+    }
+
+    @Override
+    public APIResponse<Integer> sendPrivateMsg(long userId, @NotNull Message message, boolean autoEscape, @Nullable APIRequestType requestType) {
+        return forward("send_private_msg", bot -> bot.sendPrivateMsg(userId, message, autoEscape, requestType));
+    }
+
+    @Override
+    public APIResponse<Integer> sendGroupMsg(long groupId, @NotNull Message message, boolean autoEscape, @Nullable APIRequestType requestType) {
+        return forward("send_group_msg", bot -> bot.sendGroupMsg(groupId, message, autoEscape, requestType));
+    }
+
+    @Override
+    public APIResponse<Integer> sendMsg(@Nullable MessageType messageType, long userId, long groupId, @NotNull Message message, boolean autoEscape, @Nullable APIRequestType requestType) {
+        return forward("send_msg", bot -> bot.sendMsg(messageType, userId, groupId, message, autoEscape, requestType));
+    }
+
+    @Override
+    public APIResponse<Void> recallMsg(int messageId, @Nullable APIRequestType requestType) {
+        return forward("delete_msg", bot -> bot.recallMsg(messageId, requestType));
+    }
+
+    @Override
+    public APIResponse<MessageInfo> getMsg(int messageId, @Nullable APIRequestType requestType) {
+        return forward("get_msg", bot -> bot.getMsg(messageId, requestType));
+    }
+
+    @Override
+    public APIResponse<ArrayMessage> getForwardMsg(@NotNull String id, @Nullable APIRequestType requestType) {
+        return forward("get_forward_msg", bot -> bot.getForwardMsg(id, requestType));
+    }
+
+    @Override
+    public APIResponse<Void> sendLike(long userId, int times, @Nullable APIRequestType requestType) {
+        return forward("send_like", bot -> bot.sendLike(userId, times, requestType));
+    }
+
+    @Override
+    public APIResponse<Void> setGroupKick(long groupId, long userId, boolean rejectAddRequest, @Nullable APIRequestType requestType) {
+        return forward("set_group_kick", bot -> bot.setGroupKick(groupId, userId, rejectAddRequest, requestType));
+    }
+
+    @Override
+    public APIResponse<Void> setGroupMute(long groupId, long userId, long duration, @Nullable APIRequestType requestType) {
+        return forward("set_group_ban", bot -> bot.setGroupMute(groupId, userId, duration, requestType));
+    }
+
+    @Override
+    public APIResponse<Void> setGroupAnonymousMute(long groupId, @Nullable MessageSenderAnonymous anonymous, @Nullable String flag, long duration, @Nullable APIRequestType requestType) {
+        return forward("set_group_anonymous_ban", bot -> bot.setGroupAnonymousMute(groupId, anonymous, flag, duration, requestType));
+    }
+
+    @Override
+    public APIResponse<Void> setGroupWholeMute(long groupId, boolean enable, @Nullable APIRequestType requestType) {
+        return forward("set_group_whole_ban", bot -> bot.setGroupWholeMute(groupId, enable, requestType));
+    }
+
+    @Override
+    public APIResponse<Void> setGroupAdmin(long groupId, long userId, boolean enable, @Nullable APIRequestType requestType) {
+        return forward("set_group_admin", bot -> bot.setGroupAdmin(groupId, userId, enable, requestType));
+    }
+
+    @Override
+    public APIResponse<Void> setGroupAnonymous(long groupId, boolean enable, @Nullable APIRequestType requestType) {
+        return forward("set_group_anonymous", bot -> bot.setGroupAnonymous(groupId, enable, requestType));
+    }
+
+    @Override
+    public APIResponse<Void> setGroupCard(long groupId, long userId, @Nullable String card, @Nullable APIRequestType requestType) {
+        return forward("set_group_card", bot -> bot.setGroupCard(groupId, userId, card, requestType));
+    }
+
+    @Override
+    public APIResponse<Void> setGroupName(long groupId, @NotNull String groupName, @Nullable APIRequestType requestType) {
+        return forward("set_group_name", bot -> bot.setGroupName(groupId, groupName, requestType));
+    }
+
+    @Override
+    public APIResponse<Void> setGroupLeave(long groupId, boolean isDismiss, @Nullable APIRequestType requestType) {
+        return forward("set_group_leave", bot -> bot.setGroupLeave(groupId, isDismiss, requestType));
+    }
+
+    @Override
+    public APIResponse<Void> setGroupSpecialTitle(long groupId, long userId, @Nullable String specialTitle, long duration, @Nullable APIRequestType requestType) {
+        return forward("set_group_special_title", bot -> bot.setGroupSpecialTitle(groupId, userId, specialTitle, duration, requestType));
+    }
+
+    @Override
+    public APIResponse<Void> setFriendAddRequest(String flag, boolean approve, @Nullable String remark, @Nullable APIRequestType requestType) {
+        return forward("set_friend_add_request", bot -> bot.setFriendAddRequest(flag, approve, remark, requestType));
+    }
+
+    @Override
+    public APIResponse<Void> setGroupAddRequest(String flag, GroupRequestSubType subType, boolean approve, @Nullable String reason, @Nullable APIRequestType requestType) {
+        return forward("set_group_add_request", bot -> bot.setGroupAddRequest(flag, subType, approve, reason, requestType));
+    }
+
+    @Override
+    public APIResponse<LoginInfo> getLoginInfo(@Nullable APIRequestType requestType) {
+        return forward("get_login_info", bot -> bot.getLoginInfo(requestType));
+    }
+
+    @Override
+    public APIResponse<StrangerInfo> getStrangerInfo(long userId, boolean noCache, @Nullable APIRequestType requestType) {
+        return forward("get_stranger_info", bot -> bot.getStrangerInfo(userId, noCache, requestType));
+    }
+
+    @Override
+    public APIResponse<FriendInfo[]> getFriendList(@Nullable APIRequestType requestType) {
+        return forward("get_friend_list", bot -> bot.getFriendList(requestType));
+    }
+
+    @Override
+    public APIResponse<GroupInfo> getGroupInfo(long groupId, boolean noCache, @Nullable APIRequestType requestType) {
+        return forward("get_group_info", bot -> bot.getGroupInfo(groupId, noCache, requestType));
+    }
+
+    @Override
+    public APIResponse<GroupInfo[]> getGroupList(@Nullable APIRequestType requestType) {
+        return forward("get_group_list", bot -> bot.getGroupList(requestType));
+    }
+
+    @Override
+    public APIResponse<GroupMemberInfo> getGroupMemberInfo(long groupId, long userId, boolean noCache, @Nullable APIRequestType requestType) {
+        return forward("get_group_member_info", bot -> bot.getGroupMemberInfo(groupId, userId, noCache, requestType));
+    }
+
+    @Override
+    public APIResponse<GroupMemberInfo[]> getGroupMemberList(long groupId, @Nullable APIRequestType requestType) {
+        return forward("get_group_member_list", bot -> bot.getGroupMemberList(groupId, requestType));
+    }
+
+    @Override
+    public APIResponse<GroupHonorInfo> getGroupHonorInfo(long groupId, HonorType type, @Nullable APIRequestType requestType) {
+        return forward("get_group_honor_info", bot -> bot.getGroupHonorInfo(groupId, type, requestType));
+    }
+
+    @Override
+    public APIResponse<String> getCookies(String domain, @Nullable APIRequestType requestType) {
+        return forward("get_cookies", bot -> bot.getCookies(domain, requestType));
+    }
+
+    @Override
+    public APIResponse<Integer> getCsrfToken(@Nullable APIRequestType requestType) {
+        return forward("get_csrf_token", bot -> bot.getCsrfToken(requestType));
+    }
+
+    @Override
+    public APIResponse<Credentials> getCredentials(String domain, @Nullable APIRequestType requestType) {
+        return forward("get_credentials", bot -> bot.getCredentials(domain, requestType));
+    }
+
+    @Override
+    public APIResponse<String> getRecord(String file, RecordOutFormat outFormat, @Nullable APIRequestType requestType) {
+        return forward("get_record", bot -> bot.getRecord(file, outFormat, requestType));
+    }
+
+    @Override
+    public APIResponse<String> getImage(String file, @Nullable APIRequestType requestType) {
+        return forward("get_image", bot -> bot.getImage(file, requestType));
+    }
+
+    @Override
+    public APIResponse<Boolean> canSendImage(@Nullable APIRequestType requestType) {
+        return forward("can_send_image", bot -> bot.canSendImage(requestType));
+    }
+
+    @Override
+    public APIResponse<Boolean> canSendRecord(@Nullable APIRequestType requestType) {
+        return forward("can_send_record", bot -> bot.canSendRecord(requestType));
+    }
+
+    @Override
+    public APIResponse<BotStatus> getStatus(@Nullable APIRequestType requestType) {
+        return forward("get_status", bot -> bot.getStatus(requestType));
+    }
+
+    @Override
+    public APIResponse<VersionInfo> getVersionInfo(@Nullable APIRequestType requestType) {
+        return forward("get_version_info", bot -> bot.getVersionInfo(requestType));
+    }
+
+    @Override
+    public APIResponse<Void> restart(int delay, @Nullable APIRequestType requestType) {
+        return forward("set_restart", bot -> bot.restart(delay, requestType));
+    }
+
+    @Override
+    public APIResponse<Void> cleanCache(@Nullable APIRequestType requestType) {
+        return forward("clean_cache", bot -> bot.cleanCache(requestType));
+    }
+
+    @Override
+    public APIResponse<JSONObject> customApi(String action, JSONObject params, @Nullable APIRequestType requestType) {
+        return forward(action, bot -> bot.customApi(action, params, requestType));
+    }
+
+    @Override
+    public CompletableFuture<APIResponse<JSONObject>> customApiAsync(String action, JSONObject params, @Nullable APIRequestType requestType) {
+        return forward(action, bot -> bot.customApiAsync(action, params, requestType));
+    }
+
+    @Override
+    public Bot withTimeout(long timeout) {
+        return forward(bot -> bot.withTimeout(timeout));
+    }
+
+    @Override
+    public Bot nonThrowing() {
+        return forward(Bot::nonThrowing);
+    }
+
+    @Override
+    public Bot withLane(ApiLane lane) {
+        return forward(bot -> bot.withLane(lane));
+    }
+
+    @Override
+    public BotMetrics.Snapshot metrics() {
+        return forward(Bot::metrics);
+    }
+}
@@ -0,0 +1,80 @@
+package top.tigercrl.minebotapi.sdk.bot;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * 不解析 JSON，直接从收到的文本中判断帧的类型，供读取连接的线程分流
+ * <p>
+ * JSON 字符串中的引号总会被转义，因此 {@code "key":} 的字面形式只会出现在键上，聊天内容无法伪造。
+ * 判断结果只决定帧在哪个线程中处理，解析后仍按实际内容处理
+ */
+final class FrameClassifier {
+    private static final String ECHO = "\"echo\"";
+    private static final String POST_TYPE = "\"post_type\"";
+    private static final String MESSAGE_TYPE = "\"message_type\"";
+    private static final String GROUP_ID = "\"group_id\"";
+    private static final String USER_ID = "\"user_id\"";
+
+    private FrameClassifier() {
+    }
+
+    /**
+     * 是否为用户事件（消息、通知、请求）
+     * 带有 {@code echo} 的帧一律视为API响应，即使响应的数据中含有 {@code post_type}（如 get_msg）
+     *
+     * @param frame 收到的文本
+     * @return 是否为用户事件
+     */
+    static boolean isUserEvent(String frame) {
+        if (valueStart(frame, ECHO) >= 0) return false;
+        String postType = stringValue(frame, POST_TYPE);
+        return "message".equals(postType) || "notice".equals(postType) || "request".equals(postType);
+    }
+
+    /**
+     * 获取聊天消息所在的会话
+     *
+     * @param frame 收到的文本
+     * @return 如 {@code group:736152904}，不是聊天消息时为 {@code null}
+     */
+    static @Nullable String conversation(String frame) {
+        if (!"message".equals(stringValue(frame, POST_TYPE))) return null;
+        String type = stringValue(frame, MESSAGE_TYPE);
+        int start = valueStart(frame, "group".equals(type) ? GROUP_ID : USER_ID);
+        if (start < 0) return type;
+        int end = start;
+        while (end < frame.length() && (Character.isDigit(frame.charAt(end)) || frame.charAt(end) == '-')) end++;
+        return type + ":" + frame.substring(start, end);
+    }
+
+    private static @Nullable String stringValue(String frame, String quotedKey) {
+        int start = valueStart(frame, quotedKey);
+        if (start < 0 || frame.charAt(start) != '"') return null;
+        int end = frame.indexOf('"', start + 1);
+        return end < 0 ? null : frame.substring(start + 1, end);
+    }
+
+    /**
+     * 查找键对应的值的起始位置
+     *
+     * @return 值的第一个字符的位置，找不到时为 {@code -1}
+     */
+    private static int valueStart(String frame, String quotedKey) {
+        int from = 0;
+        int index;
+        while ((index = frame.indexOf(quotedKey, from)) >= 0) {
+            int colon = skipWhitespace(frame, index + quotedKey.length());
+            if (colon < frame.length() && frame.charAt(colon) == ':') {
+                int start = skipWhitespace(frame, colon + 1);
+                return start < frame.length() ? start : -1;
+            }
+            from = index + 1;
+        }
+        return -1;
+    }
+
+    private static int skipWhitespace(String frame, int index) {
+        while (index < frame.length() && Character.isWhitespace(frame.charAt(index))) index++;
+        return index;
+    }
+}
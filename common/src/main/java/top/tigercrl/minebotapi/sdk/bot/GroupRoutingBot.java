@@ -0,0 +1,279 @@
+package top.tigercrl.minebotapi.sdk.bot;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.json.JSONObject;
+import top.tigercrl.minebotapi.MineBotApi;
+import top.tigercrl.minebotapi.ModConfig;
+import top.tigercrl.minebotapi.sdk.enums.APIRequestType;
+import top.tigercrl.minebotapi.sdk.enums.ApiLane;
+import top.tigercrl.minebotapi.sdk.enums.MessageType;
+import top.tigercrl.minebotapi.sdk.events.NoticeEvent;
+import top.tigercrl.minebotapi.sdk.exceptions.BotClosedException;
+import top.tigercrl.minebotapi.sdk.exceptions.CircuitOpenException;
+import top.tigercrl.minebotapi.sdk.message.Message;
+import top.tigercrl.minebotapi.sdk.metrics.BotMetrics;
+import top.tigercrl.minebotapi.sdk.records.APIResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * 将群消息分散到多个账号发送的机器人
+ * <p>
+ * 根据各账号的群列表与入群、退群、禁言通知维护每个账号所在且未被禁言的群，
+ * 发送群消息时在这些账号中随机选择一个，权重为账号剩余的发送额度（{@link ModConfig.GroupRoutingSettings}）除以等待响应的请求数加一。
+ * 选中的账号未能发送请求（连接断开或熔断）时换一个账号重试。
+ * 不知道哪些账号在该群中时，以及其他所有API，都使用第一个账号
+ */
+public class GroupRoutingBot extends ForwardingBot {
+    private static final Logger LOGGER = LogManager.getLogger();
+    private static final Set<GroupRoutingBot> INSTANCES = ConcurrentHashMap.newKeySet();
+
+    static {
+        // 按 userId 匹配账号，启用跨机器人事件去重时事件可能由同一群中的其他账号收到
+        NoticeEvent.GROUP_INCREASE.register((bot, time, selfId, subType, groupId, operatorId, userId) ->
+                forEachAccount(userId, account -> account.groups.add(groupId)));
+        NoticeEvent.GROUP_DECREASE.register((bot, time, selfId, subType, groupId, operatorId, userId) ->
+                forEachAccount(userId, account -> account.groups.remove(groupId)));
+        NoticeEvent.GROUP_MUTE.register((bot, time, selfId, subType, groupId, operatorId, userId, duration) -> {
+            if (subType == NoticeEvent.GroupMute.SubType.MUTE && duration > 0)
+                forEachAccount(userId, account -> account.mutedUntil.put(groupId, System.currentTimeMillis() + duration * 1000));
+            else forEachAccount(userId, account -> account.mutedUntil.remove(groupId));
+        });
+    }
+
+    private final List<Account> accounts;
+    private final BotMetrics metrics;
+    private final Function<Bot, Bot> options;
+    private final @Nullable GroupRoutingBot root;
+    private volatile boolean closed;
+
+    /**
+     * @param bots 各账号的机器人
+     */
+    GroupRoutingBot(List<? extends Bot> bots) {
+        accounts = bots.stream().map(Account::new).toList();
+        metrics = new BotMetrics("group-routing");
+        options = Function.identity();
+        root = null;
+        metrics.register();
+        INSTANCES.add(this);
+        refresh();
+    }
+
+    private GroupRoutingBot(GroupRoutingBot root, Function<Bot, Bot> options) {
+        accounts = root.accounts;
+        metrics = root.metrics;
+        this.options = options;
+        this.root = root;
+    }
+
+    private static void forEachAccount(long userId, Consumer<Account> action) {
+        for (GroupRoutingBot routing : INSTANCES) {
+            for (Account account : routing.accounts) {
+                if (account.selfId == userId) action.accept(account);
+            }
+        }
+    }
+
+    @Override
+    protected Bot delegate() {
+        return options.apply(accounts.get(0).bot);
+    }
+
+    /**
+     * 重新获取各账号的QQ号与群列表，之后按 {@link ModConfig.GroupRoutingSettings#refreshInterval} 定期更新
+     */
+    public void refresh() {
+        if (root != null) {
+            root.refresh();
+            return;
+        }
+        List<CompletableFuture<Void>> refreshes = new ArrayList<>();
+        for (Account account : accounts) refreshes.add(CompletableFuture.runAsync(account::refresh, BotExecutors.blocking()));
+        CompletableFuture.allOf(refreshes.toArray(CompletableFuture[]::new)).whenComplete((ignored, ex) -> {
+            long interval = MineBotApi.config.groupRouting.refreshInterval;
+            if (!closed && interval > 0)
+                CompletableFuture.delayedExecutor(interval, TimeUnit.MILLISECONDS, BotExecutors.blocking()).execute(this::refresh);
+        });
+    }
+
+    /**
+     * 停止维护群列表，不会关闭各账号的机器人
+     */
+    public void close() {
+        GroupRoutingBot root = this.root != null ? this.root : this;
+        root.closed = true;
+        INSTANCES.remove(root);
+        metrics.unregister();
+    }
+
+    /**
+     * 获取当前可以向群发送消息的账号
+     *
+     * @param groupId 群号
+     * @return 机器人
+     */
+    public List<Bot> getAccounts(long groupId) {
+        long now = System.currentTimeMillis();
+        return accounts.stream().filter(account -> account.canSend(groupId, now)).map(account -> account.bot).toList();
+    }
+
+    @Override
+    public APIResponse<Integer> sendGroupMsg(long groupId, @NotNull Message message, boolean autoEscape, @Nullable APIRequestType requestType) {
+        return route(groupId, bot -> bot.sendGroupMsg(groupId, message, autoEscape, requestType));
+    }
+
+    @Override
+    public APIResponse<Integer> sendMsg(@Nullable MessageType messageType, long userId, long groupId, @NotNull Message message, boolean autoEscape, @Nullable APIRequestType requestType) {
+        if (messageType == MessageType.PRIVATE || messageType == null && groupId == 0)
+            return super.sendMsg(messageType, userId, groupId, message, autoEscape, requestType);
+        return route(groupId, bot -> bot.sendMsg(messageType, userId, groupId, message, autoEscape, requestType));
+    }
+
+    @Override
+    public APIResponse<JSONObject> customApi(String action, JSONObject params, @Nullable APIRequestType requestType) {
+        long groupId = groupOf(action, params);
+        if (groupId == 0) return super.customApi(action, params, requestType);
+        return route(groupId, bot -> bot.customApi(action, params, requestType));
+    }
+
+    @Override
+    public CompletableFuture<APIResponse<JSONObject>> customApiAsync(String action, JSONObject params, @Nullable APIRequestType requestType) {
+        long groupId = groupOf(action, params);
+        if (groupId == 0) return super.customApiAsync(action, params, requestType);
+        return route(groupId, bot -> bot.customApiAsync(action, params, requestType));
+    }
+
+    /**
+     * 获取自定义API调用要发送到的群
+     *
+     * @return 群号，不是群消息时为 {@code 0}
+     */
+    private static long groupOf(String action, JSONObject params) {
+        if (action.equals("send_group_msg") || action.equals("send_msg") && !"private".equals(params.optString("message_type")))
+            return params.optLong("group_id");
+        return 0;
+    }
+
+    private <T> T route(long groupId, Function<Bot, T> call) {
+        List<Account> tried = new ArrayList<>();
+        while (true) {
+            Account account = select(groupId, tried);
+            if (account == null) {
+                if (tried.isEmpty()) metrics.increment("group_routing_fallback");
+                return forward(call);
+            }
+            tried.add(account);
+            account.budget.take();
+            account.inFlight.incrementAndGet();
+            metrics.increment("group_routing_routed");
+            T result;
+            try {
+                result = call.apply(options.apply(account.bot));
+            } catch (BotClosedException | CircuitOpenException e) {
+                account.inFlight.decrementAndGet();
+                // 请求已发送时不能换账号重复发送
+                if (e instanceof BotClosedException closedException && closedException.isRequestSent()) throw e;
+                metrics.increment("group_routing_rerouted");
+                continue;
+            } catch (RuntimeException e) {
+                account.inFlight.decrementAndGet();
+                throw e;
+            }
+            if (result instanceof CompletableFuture<?> future) future.whenComplete((response, ex) -> account.inFlight.decrementAndGet());
+            else account.inFlight.decrementAndGet();
+            return result;
+        }
+    }
+
+    /**
+     * 按剩余发送额度与等待响应的请求数加权随机选择账号
+     *
+     * @return 账号，没有可用的账号时为 {@code null}
+     */
+    private @Nullable Account select(long groupId, List<Account> excluded) {
+        long now = System.currentTimeMillis();
+        List<Account> candidates = new ArrayList<>();
+        double[] weights = new double[accounts.size()];
+        double total = 0;
+        for (Account account : accounts) {
+            if (excluded.contains(account) || !account.canSend(groupId, now)) continue;
+            double weight = account.budget.available() / (1 + account.inFlight.get());
+            weights[candidates.size()] = weight;
+            candidates.add(account);
+            total += weight;
+        }
+        if (candidates.isEmpty()) return null;
+        if (total <= 0) { // 都没有剩余额度时选择等待响应的请求最少的账号
+            Account best = candidates.get(0);
+            for (Account account : candidates) if (account.inFlight.get() < best.inFlight.get()) best = account;
+            return best;
+        }
+        double target = ThreadLocalRandom.current().nextDouble(total);
+        for (int i = 0; i < candidates.size(); i++) {
+            target -= weights[i];
+            if (target < 0) return candidates.get(i);
+        }
+        return candidates.get(candidates.size() - 1);
+    }
+
+    @Override
+    public Bot withTimeout(long timeout) {
+        return new GroupRoutingBot(root != null ? root : this, options.andThen(bot -> bot.withTimeout(timeout)));
+    }
+
+    @Override
+    public Bot nonThrowing() {
+        return new GroupRoutingBot(root != null ? root : this, options.andThen(Bot::nonThrowing));
+    }
+
+    @Override
+    public Bot withLane(ApiLane lane) {
+        return new GroupRoutingBot(root != null ? root : this, options.andThen(bot -> bot.withLane(lane)));
+    }
+
+    private static final class Account {
+        final Bot bot;
+        final Set<Long> groups = ConcurrentHashMap.newKeySet();
+        final Map<Long, Long> mutedUntil = new ConcurrentHashMap<>();
+        final TokenBucket budget = new TokenBucket(() -> MineBotApi.config.groupRouting.sendRate, () -> MineBotApi.config.groupRouting.sendBurst);
+        final AtomicInteger inFlight = new AtomicInteger();
+        volatile long selfId;
+
+        Account(Bot bot) {
+            this.bot = bot;
+        }
+
+        boolean canSend(long groupId, long now) {
+            if (!groups.contains(groupId)) return false;
+            Long until = mutedUntil.get(groupId);
+            return until == null || until <= now;
+        }
+
+        void refresh() {
+            try {
+                selfId = bot.getLoginInfo(null).data().userId();
+                Bot.GroupInfo[] groupList = bot.getGroupList(null).data();
+                Set<Long> groupIds = ConcurrentHashMap.newKeySet();
+                for (Bot.GroupInfo group : groupList) groupIds.add(group.groupId());
+                groups.retainAll(groupIds);
+                groups.addAll(groupIds);
+            } catch (RuntimeException e) {
+                LOGGER.warn("无法获取账号的群列表，将在下次更新时重试，QQ号：{}", selfId, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package top.tigercrl.minebotapi.sdk.bot;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import top.tigercrl.minebotapi.MineBotApi;
+import top.tigercrl.minebotapi.ModConfig;
+import top.tigercrl.minebotapi.sdk.enums.HeartbeatTimeoutAction;
+import top.tigercrl.minebotapi.sdk.jfr.HeartbeatGapEvent;
+import top.tigercrl.minebotapi.sdk.metrics.BotMetrics;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 心跳监视器
+ * 所有机器人共用一个 MineBotApi-Watchdog 线程定期检查距上次心跳的时间，不依赖服务器刻，服务器卡顿或尚未启动时同样有效。
+ * 收到心跳时记录心跳间隔与抖动（实际间隔与上报间隔之差的绝对值）
+ */
+class HeartbeatWatchdog {
+    private static final Logger LOGGER = LogManager.getLogger();
+    private static final Set<HeartbeatWatchdog> WATCHED = ConcurrentHashMap.newKeySet();
+    private static final ScheduledThreadPoolExecutor SCHEDULER;
+
+    static {
+        SCHEDULER = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread thread = new Thread(r, "MineBotApi-Watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        SCHEDULER.schedule(HeartbeatWatchdog::checkAll, 0, TimeUnit.MILLISECONDS);
+    }
+
+    private final WSBot bot;
+    private final BotMetrics metrics;
+    private volatile long lastHeartbeat;
+    private volatile long interval;
+    private long overdueSince;
+    private long lastWarning;
+
+    HeartbeatWatchdog(WSBot bot, BotMetrics metrics) {
+        this.bot = bot;
+        this.metrics = metrics;
+    }
+
+    private static void checkAll() {
+        try {
+            long now = System.nanoTime();
+            for (HeartbeatWatchdog watchdog : WATCHED) {
+                try {
+                    watchdog.check(now);
+                } catch (RuntimeException e) {
+                    LOGGER.error("检查机器人心跳时发生错误", e);
+                }
+            }
+        } finally {
+            SCHEDULER.schedule(HeartbeatWatchdog::checkAll, Math.max(10, MineBotApi.config.heartbeatWatchdog.checkInterval), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * 连接建立后开始监视，已知心跳间隔时从此刻开始计时，否则从收到第一次心跳开始
+     */
+    void start() {
+        lastHeartbeat = interval != 0 ? System.nanoTime() : 0;
+        overdueSince = 0;
+        WATCHED.add(this);
+    }
+
+    /**
+     * 连接断开后停止监视
+     */
+    void stop() {
+        WATCHED.remove(this);
+    }
+
+    /**
+     * 收到心跳
+     *
+     * @param interval 上报的心跳间隔，单位毫秒
+     */
+    void heartbeat(long interval) {
+        long now = System.nanoTime();
+        long last = lastHeartbeat;
+        if (last != 0) {
+            long gap = (now - last) / 1000;
+            metrics.record("heartbeat_gap", gap);
+            if (this.interval != 0) metrics.record("heartbeat_jitter", Math.abs(gap - this.interval * 1000));
+            HeartbeatGapEvent gapEvent = new HeartbeatGapEvent();
+            if (gapEvent.shouldCommit()) {
+                gapEvent.gap = gap / 1000;
+                gapEvent.interval = this.interval;
+                gapEvent.commit();
+            }
+        }
+        this.interval = interval;
+        lastHeartbeat = now;
+    }
+
+    /**
+     * 是否已超过心跳超时时间未收到心跳
+     *
+     * @return 尚未收到心跳或不知道心跳间隔时为 {@code false}
+     */
+    boolean isOverdue() {
+        long last = lastHeartbeat;
+        long interval = this.interval;
+        return last != 0 && interval != 0 && TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - last) > interval + MineBotApi.config.heartbeatTimeout;
+    }
+
+    private void check(long now) {
+        long last = lastHeartbeat;
+        long interval = this.interval;
+        if (last == 0 || interval == 0) return;
+        long gap = TimeUnit.NANOSECONDS.toMillis(now - last);
+        if (gap <= interval + MineBotApi.config.heartbeatTimeout) {
+            overdueSince = 0;
+            return;
+        }
+        ModConfig.HeartbeatWatchdogSettings settings = MineBotApi.config.heartbeatWatchdog;
+        boolean first = overdueSince != last;
+        if (first) {
+            overdueSince = last;
+            metrics.increment("heartbeat_timeouts");
+            HeartbeatGapEvent gapEvent = new HeartbeatGapEvent();
+            if (gapEvent.shouldCommit()) {
+                gapEvent.gap = gap;
+                gapEvent.interval = interval;
+                gapEvent.overdue = true;
+                gapEvent.commit();
+            }
+        }
+        if (settings.actions.contains(HeartbeatTimeoutAction.WARN) && (first || now - lastWarning >= TimeUnit.MILLISECONDS.toNanos(settings.warnInterval))) {
+            lastWarning = now;
+            LOGGER.warn("机器人心跳超时！机器人是否发生了异常？已有 {}ms 未收到心跳，机器人UUID：{}", gap, Bot.uuid);
+        }
+        if (!first) return;
+        if (settings.actions.contains(HeartbeatTimeoutAction.FAIL_PENDING)) bot.failPendingCalls();
+        if (settings.actions.contains(HeartbeatTimeoutAction.RECONNECT)) {
+            LOGGER.warn("机器人心跳超时，正在重新连接，机器人UUID：{}", Bot.uuid);
+            stop();
+            // 重新连接可能需要等待旧连接关闭，不阻塞监视线程
+            BotExecutors.blocking().execute(bot::reconnect);
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package top.tigercrl.minebotapi.sdk.bot;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.Nullable;
+import top.tigercrl.minebotapi.ModConfig;
+import top.tigercrl.minebotapi.sdk.enums.InboundOverflowPolicy;
+import top.tigercrl.minebotapi.sdk.events.BotLifecycleEvent;
+import top.tigercrl.minebotapi.sdk.metrics.BotMetrics;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * 机器人的有界入站事件队列
+ * 读取连接的线程只负责将原始文本入队，事件在共享的 MineBotApi-Dispatch 线程池中按收到的顺序依次解析并交给监听器，
+ * 同一机器人同时只占用一个线程。队列已满时按 {@link InboundOverflowPolicy} 处理
+ * <p>
+ * 队列长度不超过容量，只有暂停读取事件连接后（{@link InboundOverflowPolicy#BLOCK}）已从连接中读取的帧仍会入队，
+ * 此时最多为容量的两倍。无法按策略腾出空位时丢弃新的事件并触发 {@link BotLifecycleEvent#INBOUND_DROP}
+ */
+class InboundQueue {
+    private static final Logger LOGGER = LogManager.getLogger();
+    private static final ExecutorService DISPATCHER = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r, "MineBotApi-Dispatch");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Bot bot;
+    private final Supplier<ModConfig.InboundQueueSettings> settings;
+    private final BotMetrics metrics;
+    private final BotTransport transport;
+    private final Consumer<String> handler;
+    private final ArrayDeque<Entry> queue = new ArrayDeque<>();
+    private boolean draining;
+    private boolean readPaused;
+    private boolean overflowWarned;
+
+    InboundQueue(Bot bot, Supplier<ModConfig.InboundQueueSettings> settings, BotMetrics metrics, BotTransport transport, Consumer<String> handler) {
+        this.bot = bot;
+        this.settings = settings;
+        this.metrics = metrics;
+        this.transport = transport;
+        this.handler = handler;
+        metrics.gauge("inbound_queue_size", () -> {
+            synchronized (this) {
+                return queue.size();
+            }
+        });
+    }
+
+    /**
+     * 将事件加入队列，在读取连接的线程中调用
+     *
+     * @param frame 收到的文本，不能是元事件或API响应
+     */
+    void offer(String frame) {
+        ModConfig.InboundQueueSettings settings = this.settings.get();
+        int capacity = Math.max(1, settings.capacity);
+        Entry entry = new Entry(frame, System.nanoTime());
+        Entry dropped = null;
+        InboundOverflowPolicy policy = settings.policy;
+        synchronized (this) {
+            if (readPaused) {
+                if (queue.size() >= capacity * 2) dropped = entry;
+            } else if (queue.size() >= capacity) {
+                String conversation = entry.conversation();
+                if (policy == InboundOverflowPolicy.COALESCE && conversation != null) {
+                    dropped = removeFirst(e -> conversation.equals(e.conversation()));
+                    if (dropped != null) metrics.increment("inbound_coalesced");
+                    else policy = InboundOverflowPolicy.DROP_OLDEST;
+                }
+                if (dropped == null && policy == InboundOverflowPolicy.DROP_OLDEST) {
+                    dropped = removeFirst(e -> e.conversation() != null);
+                    if (dropped == null && conversation != null) dropped = entry;
+                }
+                if (dropped == null && !pauseEvents()) dropped = entry;
+            }
+            if (dropped != null) metrics.increment("inbound_dropped");
+            if (dropped != entry) queue.add(entry);
+            if (!draining && !queue.isEmpty()) {
+                draining = true;
+                DISPATCHER.execute(this::drain);
+            }
+        }
+        if (dropped != null) BotLifecycleEvent.INBOUND_DROP.invoker().drop(bot, dropped.frame, policy);
+    }
+
+    private Entry removeFirst(Predicate<Entry> predicate) {
+        for (Iterator<Entry> iterator = queue.iterator(); iterator.hasNext(); ) {
+            Entry e = iterator.next();
+            if (predicate.test(e)) {
+                iterator.remove();
+                return e;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 队列已满且无法按策略丢弃时暂停读取只推送事件的连接。
+     * 事件与API响应在同一连接上时不能暂停，否则排在事件后的API响应也无法读取，也不能阻塞读取连接的线程
+     *
+     * @return 是否已暂停，未暂停时调用方丢弃新的事件
+     */
+    private boolean pauseEvents() {
+        metrics.increment("inbound_blocked");
+        if (transport.pauseEvents()) {
+            // 已读取的帧仍会入队，队列消化到一半后恢复读取
+            readPaused = true;
+            return true;
+        }
+        if (!overflowWarned) {
+            overflowWarned = true;
+            LOGGER.warn("入站事件队列已满且无法暂停读取事件连接，新的事件将被丢弃，BLOCK 只在事件与API响应使用不同连接时生效！机器人UUID：{}", Bot.uuid);
+        }
+        return false;
+    }
+
+    private void drain() {
+        while (true) {
+            Entry entry;
+            boolean resume = false;
+            synchronized (this) {
+                entry = queue.poll();
+                if (entry == null) {
+                    draining = false;
+                    return;
+                }
+                if (queue.size() <= settings.get().capacity / 2) {
+                    overflowWarned = false;
+                    if (readPaused) {
+                        readPaused = false;
+                        resume = true;
+                    }
+                }
+            }
+            if (resume) transport.resumeEvents();
+            metrics.record("inbound_queue_wait", (System.nanoTime() - entry.enqueuedAt) / 1000);
+            try {
+                handler.accept(entry.frame);
+            } catch (RuntimeException e) {
+                LOGGER.error("处理事件时发生错误，机器人UUID：" + Bot.uuid + "，事件信息：" + entry.frame, e);
+            }
+        }
+    }
+
+    private static final class Entry {
+        final String frame;
+        final long enqueuedAt;
+        private boolean classified;
+        private @Nullable String conversation;
+
+        Entry(String frame, long enqueuedAt) {
+            this.frame = frame;
+            this.enqueuedAt = enqueuedAt;
+        }
+
+        /**
+         * 获取聊天消息所在的会话，只在队列已满时用到，持有队列的锁时调用
+         *
+         * @return 会话，其他事件为 {@code null}
+         */
+        @Nullable String conversation() {
+            if (!classified) {
+                conversation = FrameClassifier.conversation(frame);
+                classified = true;
+            }
+            return conversation;
+        }
+    }
+}
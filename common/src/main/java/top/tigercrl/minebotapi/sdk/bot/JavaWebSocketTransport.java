@@ -0,0 +1,147 @@
+package top.tigercrl.minebotapi.sdk.bot;
+
+import org.java_websocket.client.WebSocketClient;
+import org.java_websocket.drafts.Draft_6455;
+import org.java_websocket.exceptions.InvalidDataException;
+import org.java_websocket.exceptions.WebsocketNotConnectedException;
+import org.java_websocket.extensions.ExtensionRequestData;
+import org.java_websocket.extensions.IExtension;
+import org.java_websocket.extensions.permessage_deflate.PerMessageDeflateExtension;
+import org.java_websocket.framing.DataFrame;
+import org.java_websocket.framing.Framedata;
+import org.java_websocket.handshake.ServerHandshake;
+import org.jetbrains.annotations.Nullable;
+import top.tigercrl.minebotapi.MineBotApi;
+import top.tigercrl.minebotapi.ModConfig;
+
+import java.net.URI;
+import java.util.Map;
+
+/**
+ * 基于 Java-WebSocket 的连接，每个连接使用独立的读写线程
+ */
+class JavaWebSocketTransport extends WebSocketClient implements BotTransport {
+    private final Listener listener;
+
+    /**
+     * @param compression 压缩统计，为 {@code null} 时不协商压缩
+     */
+    JavaWebSocketTransport(URI uri, Listener listener, @Nullable CompressionStats compression) {
+        super(uri, compression == null ? new Draft_6455() : new Draft_6455(new DeflateExtension(MineBotApi.config.transport, compression)));
+        this.listener = listener;
+        setTcpNoDelay(true);
+    }
+
+    @Override
+    public boolean sendText(String text) {
+        try {
+            send(text);
+            return true;
+        } catch (WebsocketNotConnectedException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public boolean pauseReading() {
+        return false;
+    }
+
+    @Override
+    public void resumeReading() {
+    }
+
+    @Override
+    public void onOpen(ServerHandshake handshakeData) {
+        listener.onOpen(handshakeData);
+    }
+
+    @Override
+    public void onMessage(String message) {
+        listener.onMessage(message);
+    }
+
+    @Override
+    public void onClose(int code, String reason, boolean remote) {
+        listener.onClose(code, reason, remote);
+    }
+
+    @Override
+    public void onError(Exception ex) {
+        listener.onError(ex);
+    }
+
+    /**
+     * 客户端的 permessage-deflate 扩展
+     * <p>
+     * {@link PerMessageDeflateExtension} 按服务端的角色实现：{@code clientNoContextTakeover} 控制解压，
+     * {@code serverNoContextTakeover} 控制压缩，且作为客户端时总是要求双方不保留上下文。
+     * 这里按配置发出请求，并根据服务器的响应设置这两个标志
+     */
+    private static class DeflateExtension extends PerMessageDeflateExtension {
+        private static final String SERVER_NO_CONTEXT_TAKEOVER = "server_no_context_takeover";
+        private static final String CLIENT_NO_CONTEXT_TAKEOVER = "client_no_context_takeover";
+        private static final String CLIENT_MAX_WINDOW_BITS = "client_max_window_bits";
+
+        private final ModConfig.TransportSettings settings;
+        private final CompressionStats stats;
+
+        DeflateExtension(ModConfig.TransportSettings settings, CompressionStats stats) {
+            this.settings = settings;
+            this.stats = stats;
+            setThreshold(settings.compressionThreshold);
+        }
+
+        @Override
+        public String getProvidedExtensionAsClient() {
+            StringBuilder header = new StringBuilder("permessage-deflate");
+            if (!settings.serverContextTakeover) header.append("; ").append(SERVER_NO_CONTEXT_TAKEOVER);
+            if (!settings.clientContextTakeover) header.append("; ").append(CLIENT_NO_CONTEXT_TAKEOVER);
+            return header.toString();
+        }
+
+        @Override
+        public boolean acceptProvidedExtensionAsClient(String inputExtension) {
+            for (String extension : inputExtension.split(",")) {
+                ExtensionRequestData data = ExtensionRequestData.parseExtensionRequest(extension);
+                if (!"permessage-deflate".equalsIgnoreCase(data.getExtensionName())) continue;
+                Map<String, String> parameters = data.getExtensionParameters();
+                // 未请求 client_max_window_bits，Deflater 也无法调整窗口大小
+                if (parameters.containsKey(CLIENT_MAX_WINDOW_BITS)) return false;
+                setClientNoContextTakeover(parameters.containsKey(SERVER_NO_CONTEXT_TAKEOVER));
+                setServerNoContextTakeover(!settings.clientContextTakeover || parameters.containsKey(CLIENT_NO_CONTEXT_TAKEOVER));
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public void decodeFrame(Framedata inputFrame) throws InvalidDataException {
+            if (!(inputFrame instanceof DataFrame)) {
+                super.decodeFrame(inputFrame);
+                return;
+            }
+            long wireBytes = inputFrame.getPayloadData().remaining();
+            long start = System.nanoTime();
+            super.decodeFrame(inputFrame);
+            stats.inflated(wireBytes, inputFrame.getPayloadData().remaining(), System.nanoTime() - start);
+        }
+
+        @Override
+        public void encodeFrame(Framedata inputFrame) {
+            if (!(inputFrame instanceof DataFrame)) {
+                super.encodeFrame(inputFrame);
+                return;
+            }
+            long bytes = inputFrame.getPayloadData().remaining();
+            long start = System.nanoTime();
+            super.encodeFrame(inputFrame);
+            stats.deflated(bytes, inputFrame.getPayloadData().remaining(), System.nanoTime() - start);
+        }
+
+        @Override
+        public IExtension copyInstance() {
+            return new DeflateExtension(settings, stats);
+        }
+    }
+}
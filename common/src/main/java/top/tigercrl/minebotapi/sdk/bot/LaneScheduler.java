@@ -0,0 +1,159 @@
+package top.tigercrl.minebotapi.sdk.bot;
+
+import top.tigercrl.minebotapi.ModConfig;
+import top.tigercrl.minebotapi.sdk.enums.ApiLane;
+import top.tigercrl.minebotapi.sdk.metrics.BotMetrics;
+
+import java.util.ArrayDeque;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * 在发送API请求前按优先级通道排队
+ * 同时进行中的请求数未达到上限时直接发送，否则在通道中排队，有请求完成后按平滑加权轮询选择下一个通道
+ */
+class LaneScheduler {
+    private static final ApiLane[] LANES = ApiLane.values();
+
+    private final Supplier<ModConfig.LaneSettings> settings;
+    private final BotMetrics metrics;
+    private final ArrayDeque<Queued>[] queues;
+    private final String[] waitMetrics = new String[LANES.length];
+    private final int[] currentWeights = new int[LANES.length];
+    private final Queue<Queued> ready = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean sending = new AtomicBoolean();
+    private int inFlight;
+
+    @SuppressWarnings("unchecked")
+    LaneScheduler(Supplier<ModConfig.LaneSettings> settings, BotMetrics metrics) {
+        this.settings = settings;
+        this.metrics = metrics;
+        queues = (ArrayDeque<Queued>[]) new ArrayDeque<?>[LANES.length];
+        for (ApiLane lane : LANES) {
+            ArrayDeque<Queued> queue = new ArrayDeque<>();
+            queues[lane.ordinal()] = queue;
+            String name = lane.name().toLowerCase(Locale.ROOT);
+            waitMetrics[lane.ordinal()] = "lane_wait_" + name;
+            metrics.gauge("lane_queued_" + name, () -> {
+                synchronized (this) {
+                    return queue.size();
+                }
+            });
+        }
+        metrics.gauge("lane_in_flight", () -> {
+            synchronized (this) {
+                return inFlight;
+            }
+        });
+    }
+
+    /**
+     * 获取API默认所在的通道
+     *
+     * @param action   API名称（不含请求类型后缀）
+     * @param settings 配置
+     * @return 通道
+     */
+    static ApiLane classify(String action, ModConfig.LaneSettings settings) {
+        ApiLane lane = settings.actionLanes.get(action);
+        if (lane != null) return lane;
+        return action.startsWith("get_") || action.startsWith("can_") ? ApiLane.BACKGROUND : ApiLane.INTERACTIVE;
+    }
+
+    /**
+     * 提交一个请求，有空位时立即在当前线程中发送
+     *
+     * @param lane 通道
+     * @param call 请求，完成（包括在排队时超时或被取消）后释放空位
+     * @param send 发送请求
+     */
+    void submit(ApiLane lane, CompletableFuture<?> call, Runnable send) {
+        if (!settings.get().enabled) {
+            send.run();
+            return;
+        }
+        synchronized (this) {
+            queues[lane.ordinal()].add(new Queued(lane, call, send, System.nanoTime()));
+            pump();
+        }
+        sendReady();
+    }
+
+    private void release() {
+        synchronized (this) {
+            inFlight--;
+            pump();
+        }
+        sendReady();
+    }
+
+    /**
+     * 将可以发送的请求移到待发送队列，持有锁时调用
+     */
+    private void pump() {
+        Queued queued;
+        while ((queued = next()) != null) {
+            if (queued.call().isDone()) continue;
+            inFlight++;
+            metrics.record(waitMetrics[queued.lane().ordinal()], (System.nanoTime() - queued.enqueuedAt()) / 1000);
+            ready.add(queued);
+        }
+    }
+
+    /**
+     * 在锁外发送待发送的请求，发送与完成回调（包括用户的回调）不会阻塞读取连接的线程释放空位
+     * 发送失败时请求会在当前线程中完成并调用 release，此时由外层循环继续发送
+     */
+    private void sendReady() {
+        while (!ready.isEmpty()) {
+            if (!sending.compareAndSet(false, true)) return;
+            try {
+                Queued queued;
+                while ((queued = ready.poll()) != null) {
+                    queued.call().whenComplete((response, ex) -> release());
+                    queued.send().run();
+                }
+            } finally {
+                sending.set(false);
+            }
+        }
+    }
+
+    /**
+     * 平滑加权轮询，只在有空位的通道中选择
+     */
+    private Queued next() {
+        ModConfig.LaneSettings settings = this.settings.get();
+        int max = Math.max(1, settings.maxInFlight);
+        int sharedMax = Math.max(1, max - settings.moderationReserve);
+        int total = 0;
+        int selected = -1;
+        for (ApiLane lane : LANES) {
+            int i = lane.ordinal();
+            if (queues[i].isEmpty() || inFlight >= (lane == ApiLane.MODERATION ? max : sharedMax)) continue;
+            int weight = Math.max(1, weight(lane, settings));
+            currentWeights[i] += weight;
+            total += weight;
+            if (selected < 0 || currentWeights[i] > currentWeights[selected]) selected = i;
+        }
+        if (selected < 0) return null;
+        currentWeights[selected] -= total;
+        return queues[selected].poll();
+    }
+
+    private static int weight(ApiLane lane, ModConfig.LaneSettings settings) {
+        return switch (lane) {
+            case MODERATION -> settings.moderationWeight;
+            case INTERACTIVE -> settings.interactiveWeight;
+            case BULK -> settings.bulkWeight;
+            case BACKGROUND -> settings.backgroundWeight;
+        };
+    }
+
+    private record Queued(ApiLane lane, CompletableFuture<?> call, Runnable send, long enqueuedAt) {
+    }
+}
@@ -0,0 +1,446 @@
+package top.tigercrl.minebotapi.sdk.bot;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.*;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollSocketChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.handler.codec.http.DefaultHttpHeaders;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpClientCodec;
+import io.netty.handler.codec.http.HttpObjectAggregator;
+import io.netty.handler.codec.http.websocketx.*;
+import io.netty.handler.codec.http.websocketx.extensions.WebSocketClientExtensionHandler;
+import io.netty.handler.codec.http.websocketx.extensions.WebSocketExtensionFilter;
+import io.netty.handler.codec.http.websocketx.extensions.WebSocketExtensionFilterProvider;
+import io.netty.handler.codec.http.websocketx.extensions.compression.PerMessageDeflateClientExtensionHandshaker;
+import io.netty.handler.ssl.SslContext;
+import io.netty.handler.ssl.SslContextBuilder;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.network.ServerConnectionListener;
+import org.java_websocket.framing.CloseFrame;
+import org.java_websocket.handshake.HandshakeImpl1Server;
+import org.jetbrains.annotations.Nullable;
+import top.tigercrl.minebotapi.MineBotApi;
+import top.tigercrl.minebotapi.ModConfig;
+
+import javax.net.ssl.SSLException;
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基于 Netty 的连接
+ * 所有机器人共用同一个 {@link EventLoopGroup}（Minecraft 服务器的网络线程或 MineBot API 自己的共享线程），
+ * 文本帧直接从池化的 {@link io.netty.buffer.ByteBuf} 解码为字符串。
+ * 回调在事件循环线程中调用，监听器中不应执行耗时操作
+ */
+class NettyTransport implements BotTransport {
+    private static volatile EventLoopGroup sharedGroup;
+
+    private final URI uri;
+    private final Listener listener;
+    private final @Nullable CompressionStats compression;
+    private final RuntimeException writeFailedException;
+    private volatile @Nullable ChannelFuture connecting;
+    private volatile Channel channel;
+    private volatile Handler current;
+    private volatile State state = State.NOT_YET_CONNECTED;
+    /**
+     * 每次调用 {@link #close()} 时加一，使之前的 {@link #reconnect()} 不再发起连接
+     */
+    private int closeCount;
+
+    /**
+     * @param compression         压缩统计，为 {@code null} 时不协商压缩
+     * @param writeFailedException 请求写入连接失败时让其失败的异常
+     */
+    NettyTransport(URI uri, Listener listener, @Nullable CompressionStats compression, RuntimeException writeFailedException) {
+        this.uri = uri;
+        this.listener = listener;
+        this.compression = compression;
+        this.writeFailedException = writeFailedException;
+    }
+
+    /**
+     * 获取配置中指定的事件循环与对应的连接类型
+     */
+    private static Loop eventLoop(ModConfig.TransportSettings settings) {
+        if (settings.eventLoop == ModConfig.TransportSettings.EventLoop.MINECRAFT) {
+            // 与服务器监听端口时的判断相同，独立服务器启用 use-native-transport 时使用 epoll 线程，
+            // 服务器启动前建立的连接使用 NIO 线程
+            MinecraftServer server = BotExecutors.getServer();
+            if (server != null && Epoll.isAvailable() && server.isEpollEnabled())
+                return new Loop(ServerConnectionListener.SERVER_EPOLL_EVENT_GROUP.get(), EpollSocketChannel.class);
+            return new Loop(ServerConnectionListener.SERVER_EVENT_GROUP.get(), NioSocketChannel.class);
+        }
+        EventLoopGroup group = sharedGroup;
+        if (group == null) {
+            synchronized (NettyTransport.class) {
+                group = sharedGroup;
+                if (group == null) {
+                    group = new NioEventLoopGroup(Math.max(1, settings.sharedThreads), new DefaultThreadFactory("MineBotApi-Netty", true));
+                    sharedGroup = group;
+                }
+            }
+        }
+        return new Loop(group, NioSocketChannel.class);
+    }
+
+    @Override
+    public synchronized void connect() {
+        if (state == State.CONNECTING || state == State.OPEN) return;
+        state = State.CONNECTING;
+        channel = null;
+        ModConfig.TransportSettings settings = MineBotApi.config.transport;
+        boolean secure = "wss".equalsIgnoreCase(uri.getScheme());
+        int port = uri.getPort() != -1 ? uri.getPort() : secure ? 443 : 80;
+        SslContext sslContext;
+        try {
+            sslContext = secure ? SslContextBuilder.forClient().build() : null;
+        } catch (SSLException e) {
+            failConnect(new Handler(null, 0), e);
+            return;
+        }
+        WebSocketClientHandshaker handshaker = WebSocketClientHandshakerFactory.newHandshaker(uri, WebSocketVersion.V13,
+                null, true, new DefaultHttpHeaders(), settings.maxFrameSize);
+        Handler handler = new Handler(handshaker, settings.connectTimeout);
+        current = handler;
+        Loop loop = eventLoop(settings);
+        connecting = new Bootstrap()
+                .group(loop.group())
+                .channel(loop.channel())
+                .option(ChannelOption.TCP_NODELAY, true)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, settings.connectTimeout)
+                .handler(new ChannelInitializer<SocketChannel>() {
+                    @Override
+                    protected void initChannel(SocketChannel ch) {
+                        ChannelPipeline pipeline = ch.pipeline();
+                        if (sslContext != null) pipeline.addLast(sslContext.newHandler(ch.alloc(), uri.getHost(), port));
+                        pipeline.addLast(new HttpClientCodec(), new HttpObjectAggregator(65536));
+                        if (compression != null) addCompression(pipeline, settings, compression);
+                        pipeline.addLast(new WebSocketFrameAggregator(settings.maxFrameSize), handler);
+                    }
+                })
+                .connect(uri.getHost(), port)
+                .addListener((ChannelFutureListener) future -> {
+                    synchronized (this) {
+                        connecting = null;
+                        if (future.isSuccess()) {
+                            channel = future.channel();
+                            // 建立 TCP 连接期间已被关闭
+                            if (state == State.CLOSING) future.channel().close();
+                            return;
+                        }
+                    }
+                    failConnect(handler, future.cause() instanceof Exception e ? e : new Exception(future.cause()));
+                });
+    }
+
+    /**
+     * 添加 permessage-deflate 扩展，握手后压缩编解码器会插入到扩展处理器之后，
+     * 两侧的 {@link CompressionMeter} 分别看到传输的帧与解压后的帧
+     */
+    private static void addCompression(ChannelPipeline pipeline, ModConfig.TransportSettings settings, CompressionStats stats) {
+        int threshold = settings.compressionThreshold;
+        WebSocketExtensionFilter skipSmall = frame -> frame.content().readableBytes() < threshold;
+        WebSocketExtensionFilterProvider filters = new WebSocketExtensionFilterProvider() {
+            @Override
+            public WebSocketExtensionFilter encoderFilter() {
+                return skipSmall;
+            }
+
+            @Override
+            public WebSocketExtensionFilter decoderFilter() {
+                return WebSocketExtensionFilter.NEVER_SKIP;
+            }
+        };
+        CompressionMeter meter = new CompressionMeter(stats);
+        pipeline.addLast(meter.wire,
+                new WebSocketClientExtensionHandler(new PerMessageDeflateClientExtensionHandshaker(6, false, 15,
+                        !settings.clientContextTakeover, !settings.serverContextTakeover, filters)),
+                meter.payload);
+    }
+
+    private void failConnect(Handler handler, Exception cause) {
+        current = handler;
+        state = State.CLOSED;
+        handler.handshake.complete(false);
+        listener.onError(cause);
+        listener.onClose(CloseFrame.NEVER_CONNECTED, cause.getMessage(), false);
+        handler.closed.complete(null);
+    }
+
+    @Override
+    public void reconnect() {
+        Handler handler;
+        int closeCount;
+        synchronized (this) {
+            handler = current;
+            closeCount = closeConnection();
+        }
+        // 等待旧连接的 onClose 回调完成后再连接，保证回调顺序
+        if (handler == null) connectUnlessClosed(closeCount);
+        else handler.closed.thenRun(() -> connectUnlessClosed(closeCount));
+    }
+
+    @Override
+    public boolean reconnectBlocking() throws InterruptedException {
+        Handler handler;
+        int closeCount;
+        synchronized (this) {
+            handler = current;
+            closeCount = closeConnection();
+        }
+        try {
+            if (handler != null) handler.closed.get();
+            synchronized (this) {
+                if (!connectUnlessClosed(closeCount)) return false;
+                handler = current;
+            }
+            return handler.handshake.get();
+        } catch (ExecutionException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 等待旧连接关闭期间没有再调用 {@link #close()} 时发起连接
+     *
+     * @return 是否发起了连接
+     */
+    private synchronized boolean connectUnlessClosed(int closeCount) {
+        if (closeCount != this.closeCount) return false;
+        connect();
+        return true;
+    }
+
+    @Override
+    public synchronized void close() {
+        closeConnection();
+    }
+
+    /**
+     * 关闭当前连接
+     *
+     * @return 关闭次数
+     */
+    private synchronized int closeConnection() {
+        closeCount++;
+        Channel channel = this.channel;
+        if (state == State.CONNECTING) {
+            // 仍在建立 TCP 连接时取消连接，取消后按连接失败处理；握手期间直接关闭连接
+            state = State.CLOSING;
+            ChannelFuture connecting = this.connecting;
+            if (connecting != null) connecting.cancel(false);
+            else if (channel != null) channel.close();
+        } else if (state == State.OPEN && channel != null) {
+            state = State.CLOSING;
+            channel.writeAndFlush(new CloseWebSocketFrame(CloseFrame.NORMAL, "")).addListener(ChannelFutureListener.CLOSE);
+        }
+        return closeCount;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return state == State.OPEN;
+    }
+
+    @Override
+    public boolean isClosed() {
+        return state == State.CLOSED;
+    }
+
+    @Override
+    public boolean sendText(String text) {
+        Channel channel = this.channel;
+        if (state != State.OPEN || channel == null) return false;
+        channel.writeAndFlush(new TextWebSocketFrame(text), channel.voidPromise());
+        return true;
+    }
+
+    @Override
+    public boolean sendText(String text, CompletableFuture<?> call) {
+        Channel channel = this.channel;
+        if (state != State.OPEN || channel == null) return false;
+        // 写入失败时立即让请求失败，不必等到超时
+        channel.writeAndFlush(new TextWebSocketFrame(text)).addListener((ChannelFutureListener) future -> {
+            if (!future.isSuccess()) call.completeExceptionally(writeFailedException);
+        });
+        return true;
+    }
+
+    /**
+     * 测量压缩编解码器两侧的帧大小与耗时，帧在同一事件循环线程中同步穿过编解码器
+     */
+    private static class CompressionMeter {
+        private final CompressionStats stats;
+        private long inboundWireBytes;
+        private long inboundStart;
+        private long outboundBytes;
+        private long outboundStart;
+        final ChannelDuplexHandler wire = new ChannelDuplexHandler() {
+            @Override
+            public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+                if (isData(msg)) {
+                    inboundWireBytes = ((WebSocketFrame) msg).content().readableBytes();
+                    inboundStart = System.nanoTime();
+                }
+                super.channelRead(ctx, msg);
+            }
+
+            @Override
+            public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+                if (outboundStart != 0 && isData(msg)) {
+                    stats.deflated(outboundBytes, ((WebSocketFrame) msg).content().readableBytes(), System.nanoTime() - outboundStart);
+                    outboundStart = 0;
+                }
+                super.write(ctx, msg, promise);
+            }
+        };
+        final ChannelDuplexHandler payload = new ChannelDuplexHandler() {
+            @Override
+            public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+                if (inboundStart != 0 && isData(msg)) {
+                    stats.inflated(inboundWireBytes, ((WebSocketFrame) msg).content().readableBytes(), System.nanoTime() - inboundStart);
+                    inboundStart = 0;
+                }
+                super.channelRead(ctx, msg);
+            }
+
+            @Override
+            public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+                if (isData(msg)) {
+                    outboundBytes = ((WebSocketFrame) msg).content().readableBytes();
+                    outboundStart = System.nanoTime();
+                }
+                super.write(ctx, msg, promise);
+            }
+        };
+
+        CompressionMeter(CompressionStats stats) {
+            this.stats = stats;
+        }
+
+        private static boolean isData(Object msg) {
+            return msg instanceof TextWebSocketFrame || msg instanceof BinaryWebSocketFrame || msg instanceof ContinuationWebSocketFrame;
+        }
+    }
+
+    @Override
+    public boolean pauseReading() {
+        Channel channel = this.channel;
+        if (channel != null) channel.config().setAutoRead(false);
+        return true;
+    }
+
+    @Override
+    public void resumeReading() {
+        Channel channel = this.channel;
+        if (channel != null) channel.config().setAutoRead(true);
+    }
+
+    private enum State {
+        NOT_YET_CONNECTED, CONNECTING, OPEN, CLOSING, CLOSED
+    }
+
+    private record Loop(EventLoopGroup group, Class<? extends SocketChannel> channel) {
+    }
+
+    /**
+     * 完成握手并处理收到的帧
+     */
+    private class Handler extends SimpleChannelInboundHandler<Object> {
+        private final WebSocketClientHandshaker handshaker;
+        private final CompletableFuture<Boolean> handshake = new CompletableFuture<>();
+        private final CompletableFuture<Void> closed = new CompletableFuture<>();
+        private final int handshakeTimeout;
+        private int closeCode = CloseFrame.ABNORMAL_CLOSE;
+        private String closeReason = "";
+        private boolean remote = true;
+
+        /**
+         * @param handshakeTimeout 握手超时时间，单位毫秒
+         */
+        Handler(WebSocketClientHandshaker handshaker, int handshakeTimeout) {
+            this.handshaker = handshaker;
+            this.handshakeTimeout = handshakeTimeout;
+        }
+
+        @Override
+        public void channelActive(ChannelHandlerContext ctx) {
+            handshaker.handshake(ctx.channel());
+            ctx.executor().schedule(() -> {
+                if (handshake.isDone()) return;
+                listener.onError(new WebSocketClientHandshakeException("WebSocket 握手超时"));
+                ctx.close();
+            }, Math.max(1, handshakeTimeout), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        protected void channelRead0(ChannelHandlerContext ctx, Object msg) {
+            if (!handshaker.isHandshakeComplete()) {
+                FullHttpResponse response = (FullHttpResponse) msg;
+                handshaker.finishHandshake(ctx.channel(), response);
+                HandshakeImpl1Server handshakeData = new HandshakeImpl1Server();
+                handshakeData.setHttpStatus((short) response.status().code());
+                handshakeData.setHttpStatusMessage(response.status().reasonPhrase());
+                for (Map.Entry<String, String> header : response.headers()) handshakeData.put(header.getKey(), header.getValue());
+                synchronized (NettyTransport.this) {
+                    // 握手期间已被关闭
+                    if (state == State.CLOSING) {
+                        remote = false;
+                        ctx.close();
+                        return;
+                    }
+                    state = State.OPEN;
+                }
+                listener.onOpen(handshakeData);
+                handshake.complete(true);
+            } else if (msg instanceof TextWebSocketFrame frame) {
+                listener.onMessage(frame.text());
+            } else if (msg instanceof PingWebSocketFrame ping) {
+                ctx.writeAndFlush(new PongWebSocketFrame(ping.content().retain()));
+            } else if (msg instanceof CloseWebSocketFrame close) {
+                closeCode = close.statusCode() == -1 ? CloseFrame.NOCODE : close.statusCode();
+                closeReason = close.reasonText();
+                if (state == State.OPEN) {
+                    state = State.CLOSING;
+                    ctx.writeAndFlush(close.retainedDuplicate()).addListener(ChannelFutureListener.CLOSE);
+                } else {
+                    remote = false;
+                    ctx.close();
+                }
+            }
+        }
+
+        @Override
+        public void channelInactive(ChannelHandlerContext ctx) {
+            synchronized (NettyTransport.this) {
+                if (state == State.CLOSING && closeCode == CloseFrame.ABNORMAL_CLOSE) {
+                    closeCode = CloseFrame.NORMAL;
+                    remote = false;
+                }
+                state = State.CLOSED;
+                if (channel == ctx.channel()) channel = null;
+            }
+            handshake.complete(false);
+            try {
+                listener.onClose(closeCode, closeReason, remote);
+            } finally {
+                closed.complete(null);
+            }
+        }
+
+        @Override
+        public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+            listener.onError(cause instanceof Exception e ? e : new Exception(cause));
+            ctx.close();
+        }
+    }
+}
@@ -0,0 +1,415 @@
+package top.tigercrl.minebotapi.sdk.bot;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.Nullable;
+import org.json.JSONException;
+import org.json.JSONObject;
+import top.tigercrl.minebotapi.ModConfig;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+
+/**
+ * 持久化发送队列
+ * <p>
+ * 机器人不可用时，发送消息的请求被追加写入本地磁盘上的分段日志，连接恢复后按顺序限速重新发送。
+ * 每条记录为 {@code int 长度，int CRC32，UTF-8 JSON}，写满 {@link ModConfig.OutboxSettings#segmentSize} 后切换到新的分段文件。
+ * 写入后不立即刷盘，而是每 {@link ModConfig.OutboxSettings#fsyncInterval} 毫秒或每
+ * {@link ModConfig.OutboxSettings#fsyncBatchSize} 条记录批量刷盘一次。
+ * 已发送的最大序号记录在检查点文件中，检查点之前的分段文件会被删除。
+ * 检查点同样批量写入，因此进程崩溃后可能重复发送少量消息（至少一次）。
+ * 刷盘在独立的 MineBotApi-Outbox 线程中进行，磁盘缓慢时不会推迟其他机器人的超时与重试
+ */
+public class PersistentOutbox {
+    private static final Logger LOGGER = LogManager.getLogger();
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String CHECKPOINT = "checkpoint";
+    private static final int RECORD_HEADER_SIZE = 8;
+    private static final ScheduledThreadPoolExecutor EXECUTOR;
+    private static final Set<PersistentOutbox> OPEN = ConcurrentHashMap.newKeySet();
+
+    static {
+        EXECUTOR = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread thread = new Thread(r, "MineBotApi-Outbox");
+            thread.setDaemon(true);
+            return thread;
+        });
+        EXECUTOR.setRemoveOnCancelPolicy(true);
+        // 进程退出时将仍打开的队列刷盘，已关闭的队列不在其中
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> OPEN.forEach(PersistentOutbox::close), "MineBotApi-Outbox-Shutdown"));
+    }
+
+    private final Path directory;
+    private final Supplier<ModConfig.OutboxSettings> settings;
+    private final FileChannel lockChannel;
+    private final FileLock lock;
+    private final ArrayDeque<Entry> pending = new ArrayDeque<>();
+    private final TreeMap<Long, Path> segments = new TreeMap<>();
+    private final ScheduledFuture<?> syncTask;
+    private FileChannel segment;
+    private long segmentSize;
+    private long nextSeq;
+    private long checkpoint;
+    private long pendingBytes;
+    private int unsynced;
+    private boolean checkpointDirty;
+    private long expired;
+    private long rejected;
+    private boolean closed;
+
+    private PersistentOutbox(Path directory, Supplier<ModConfig.OutboxSettings> settings) throws IOException {
+        this.directory = directory;
+        this.settings = settings;
+        Files.createDirectories(directory);
+        lockChannel = FileChannel.open(directory.resolve("lock"), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        FileLock lock;
+        try {
+            lock = lockChannel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            lock = null;
+        }
+        this.lock = lock;
+        if (lock == null) {
+            lockChannel.close();
+            throw new IOException("发送队列目录正被其他机器人使用：" + directory);
+        }
+        try {
+            recover();
+        } catch (IOException e) {
+            lock.release();
+            lockChannel.close();
+            throw e;
+        }
+        long interval = Math.max(1, settings.get().fsyncInterval);
+        syncTask = EXECUTOR.scheduleWithFixedDelay(this::syncQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 打开发送队列，恢复上次未发送完的记录
+     *
+     * @param directory 队列目录，同一时间只能被一个机器人使用
+     * @param settings  配置
+     * @return 发送队列
+     * @throws IOException 无法读写目录，或目录正被使用
+     */
+    static PersistentOutbox open(Path directory, Supplier<ModConfig.OutboxSettings> settings) throws IOException {
+        PersistentOutbox outbox = new PersistentOutbox(directory, settings);
+        OPEN.add(outbox);
+        return outbox;
+    }
+
+    /**
+     * 获取执行刷盘的线程池，读写队列的操作可能等待刷盘，也应在其中执行
+     *
+     * @return 线程池
+     */
+    static ScheduledExecutorService executor() {
+        return EXECUTOR;
+    }
+
+    private void recover() throws IOException {
+        Path checkpointFile = directory.resolve(CHECKPOINT);
+        if (Files.exists(checkpointFile))
+            checkpoint = Long.parseLong(Files.readString(checkpointFile, StandardCharsets.UTF_8).trim());
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path path : stream) {
+                String name = path.getFileName().toString();
+                segments.put(Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())), path);
+            }
+        }
+        long maxSeq = checkpoint;
+        for (Map.Entry<Long, Path> entry : segments.entrySet()) {
+            maxSeq = Math.max(maxSeq, readSegment(entry.getValue(), entry.getKey().equals(segments.lastKey())));
+        }
+        nextSeq = maxSeq + 1;
+        long now = System.currentTimeMillis();
+        pending.removeIf(entry -> {
+            if (!isExpired(entry, now)) return false;
+            expired++;
+            pendingBytes -= entry.size();
+            return true;
+        });
+        if (!pending.isEmpty())
+            LOGGER.info("恢复了 {} 条未发送的消息，目录：{}", pending.size(), directory);
+        if (!segments.isEmpty() && Files.size(segments.lastEntry().getValue()) < segmentLimit()) {
+            segment = FileChannel.open(segments.lastEntry().getValue(), StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            segmentSize = segment.size();
+        }
+    }
+
+    /**
+     * 读取分段文件中检查点之后的记录，最后一个分段中不完整或校验失败的尾部会被截断
+     *
+     * @return 读到的最大序号
+     */
+    private long readSegment(Path path, boolean last) throws IOException {
+        long maxSeq = 0;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer data = ByteBuffer.allocate((int) channel.size());
+            while (data.hasRemaining() && channel.read(data) >= 0) ;
+            data.flip();
+            long valid = 0;
+            while (data.remaining() >= RECORD_HEADER_SIZE) {
+                int length = data.getInt();
+                int crc = data.getInt();
+                if (length <= 0 || length > data.remaining()) break;
+                byte[] bytes = new byte[length];
+                data.get(bytes);
+                CRC32 crc32 = new CRC32();
+                crc32.update(bytes);
+                if ((int) crc32.getValue() != crc) break;
+                Entry entry;
+                try {
+                    entry = Entry.fromJSON(new JSONObject(new String(bytes, StandardCharsets.UTF_8)), RECORD_HEADER_SIZE + length);
+                } catch (JSONException e) {
+                    break;
+                }
+                valid = data.position();
+                maxSeq = Math.max(maxSeq, entry.seq());
+                if (entry.seq() > checkpoint) {
+                    pending.add(entry);
+                    pendingBytes += entry.size();
+                }
+            }
+            if (valid < channel.size()) {
+                LOGGER.warn("发送队列文件末尾有 {} 字节损坏的数据，已{}，文件：{}", channel.size() - valid, last ? "截断" : "忽略", path);
+                if (last) channel.truncate(valid);
+            }
+        }
+        return maxSeq;
+    }
+
+    /**
+     * 追加一条请求
+     *
+     * @param action      API名称
+     * @param params      参数
+     * @param requestType 请求类型
+     * @return 是否成功加入，队列已满或已关闭时返回 {@code false}
+     */
+    synchronized boolean offer(String action, JSONObject params, @Nullable String requestType) {
+        if (closed) return false;
+        ModConfig.OutboxSettings settings = this.settings.get();
+        Entry entry = new Entry(nextSeq, action, params, requestType, System.currentTimeMillis(), 0);
+        byte[] bytes = entry.toJSON().toString().getBytes(StandardCharsets.UTF_8);
+        int size = RECORD_HEADER_SIZE + bytes.length;
+        if (pendingBytes + size > settings.maxSize * 1024L * 1024L) {
+            rejected++;
+            return false;
+        }
+        CRC32 crc32 = new CRC32();
+        crc32.update(bytes);
+        ByteBuffer record = ByteBuffer.allocate(size).putInt(bytes.length).putInt((int) crc32.getValue()).put(bytes).flip();
+        try {
+            if (segment == null || segmentSize + size > segmentLimit()) rollSegment();
+            while (record.hasRemaining()) segment.write(record);
+        } catch (IOException e) {
+            LOGGER.error("无法写入发送队列，目录：" + directory, e);
+            rejected++;
+            return false;
+        }
+        segmentSize += size;
+        nextSeq++;
+        pending.add(new Entry(entry.seq(), action, params, requestType, entry.enqueuedAt(), size));
+        pendingBytes += size;
+        if (++unsynced >= settings.fsyncBatchSize) syncQuietly();
+        return true;
+    }
+
+    /**
+     * 获取下一条待发送的请求，过期的请求会被丢弃
+     *
+     * @return 请求，队列为空时为 {@code null}
+     */
+    synchronized @Nullable Entry peek() {
+        long now = System.currentTimeMillis();
+        Entry entry;
+        while ((entry = pending.peek()) != null && isExpired(entry, now)) {
+            pending.poll();
+            pendingBytes -= entry.size();
+            expired++;
+            checkpoint = entry.seq();
+            checkpointDirty = true;
+        }
+        return entry;
+    }
+
+    /**
+     * 确认请求已被服务器处理，从队列中移除
+     *
+     * @param entry 请求，必须是 {@link #peek()} 返回的请求
+     */
+    synchronized void ack(Entry entry) {
+        if (pending.peek() != entry) return;
+        pending.poll();
+        pendingBytes -= entry.size();
+        checkpoint = entry.seq();
+        checkpointDirty = true;
+    }
+
+    private boolean isExpired(Entry entry, long now) {
+        long ttl = settings.get().ttl;
+        return ttl > 0 && now - entry.enqueuedAt() > ttl;
+    }
+
+    private long segmentLimit() {
+        return settings.get().segmentSize * 1024L * 1024L;
+    }
+
+    private void rollSegment() throws IOException {
+        if (segment != null) {
+            segment.force(false);
+            segment.close();
+            unsynced = 0;
+        }
+        Path path = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, nextSeq, SEGMENT_SUFFIX));
+        segment = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        segmentSize = segment.size();
+        segments.put(nextSeq, path);
+    }
+
+    /**
+     * 将已写入的记录与检查点刷入磁盘，并删除已全部发送的分段文件
+     *
+     * @throws IOException 写入失败
+     */
+    synchronized void sync() throws IOException {
+        if (segment != null && unsynced > 0) {
+            segment.force(false);
+            unsynced = 0;
+        }
+        if (!checkpointDirty) return;
+        Path temp = directory.resolve(CHECKPOINT + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(ByteBuffer.wrap(Long.toString(checkpoint).getBytes(StandardCharsets.UTF_8)));
+            channel.force(false);
+        }
+        Files.move(temp, directory.resolve(CHECKPOINT), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        checkpointDirty = false;
+        // 下一个分段的起始序号不大于检查点 + 1 时，当前分段中的记录都已发送
+        Iterator<Map.Entry<Long, Path>> iterator = segments.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Long, Path> current = iterator.next();
+            Long next = segments.higherKey(current.getKey());
+            if (next == null || next > checkpoint + 1) break;
+            Files.deleteIfExists(current.getValue());
+            iterator.remove();
+        }
+    }
+
+    private void syncQuietly() {
+        try {
+            sync();
+        } catch (IOException e) {
+            LOGGER.error("无法将发送队列写入磁盘，目录：" + directory, e);
+        }
+    }
+
+    /**
+     * 刷盘并关闭队列，释放目录锁，之后的请求不会再进入队列
+     */
+    synchronized void close() {
+        if (closed) return;
+        syncQuietly();
+        closed = true;
+        OPEN.remove(this);
+        syncTask.cancel(false);
+        try {
+            if (segment != null) segment.close();
+            lock.release();
+            lockChannel.close();
+        } catch (IOException e) {
+            LOGGER.error("无法关闭发送队列，目录：" + directory, e);
+        }
+    }
+
+    /**
+     * 获取等待发送的请求数
+     *
+     * @return 请求数
+     */
+    public synchronized int size() {
+        return pending.size();
+    }
+
+    /**
+     * 队列是否为空
+     *
+     * @return 是否为空
+     */
+    public synchronized boolean isEmpty() {
+        return pending.isEmpty();
+    }
+
+    /**
+     * 获取等待发送的请求占用的磁盘空间
+     *
+     * @return 字节数
+     */
+    public synchronized long getPendingBytes() {
+        return pendingBytes;
+    }
+
+    /**
+     * 获取因超过有效期而被丢弃的请求数
+     *
+     * @return 请求数
+     */
+    public synchronized long getExpiredCount() {
+        return expired;
+    }
+
+    /**
+     * 获取因队列已满或写入失败而未能加入的请求数
+     *
+     * @return 请求数
+     */
+    public synchronized long getRejectedCount() {
+        return rejected;
+    }
+
+    /**
+     * 队列中的请求
+     *
+     * @param seq         序号
+     * @param action      API名称
+     * @param params      参数
+     * @param requestType 请求类型
+     * @param enqueuedAt  加入队列的时间戳（毫秒）
+     * @param size        在磁盘上占用的字节数
+     */
+    record Entry(long seq, String action, JSONObject params, @Nullable String requestType, long enqueuedAt, int size) {
+        JSONObject toJSON() {
+            return new JSONObject()
+                    .put("seq", seq)
+                    .put("action", action)
+                    .put("params", params)
+                    .put("request_type", requestType)
+                    .put("enqueued_at", enqueuedAt);
+        }
+
+        static Entry fromJSON(JSONObject json, int size) {
+            return new Entry(json.getLong("seq"),
+                    json.getString("action"),
+                    json.getJSONObject("params"),
+                    json.has("request_type") ? json.getString("request_type") : null,
+                    json.getLong("enqueued_at"),
+                    size);
+        }
+    }
+}
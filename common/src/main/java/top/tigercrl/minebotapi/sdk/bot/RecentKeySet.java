@@ -0,0 +1,127 @@
+package top.tigercrl.minebotapi.sdk.bot;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.function.LongSupplier;
+
+/**
+ * 最近出现过的键，用于事件去重，内存占用固定
+ * <p>
+ * 键为 64 位哈希，分为当前与上一代两张开放寻址表。当前一代存在超过时间窗口或已满时整体轮换，丢弃上一代，
+ * 因此键在出现后至少保留一个时间窗口（未因已满提前轮换时），最多保留两个时间窗口
+ *
+ * @param <V> 与键关联的值
+ */
+final class RecentKeySet<V> {
+    private final LongSupplier window;
+    private final int capacity;
+    private final int mask;
+    private Generation<V> current;
+    private Generation<V> previous;
+    private long rotatedAt = System.nanoTime();
+
+    /**
+     * @param window   时间窗口，单位毫秒
+     * @param capacity 每一代最多保存的键数量
+     */
+    RecentKeySet(LongSupplier window, int capacity) {
+        this.window = window;
+        this.capacity = Math.max(1, capacity);
+        // 装载率不超过一半
+        int tableSize = Integer.highestOneBit(this.capacity * 2 - 1) << 1;
+        mask = tableSize - 1;
+        current = new Generation<>(tableSize);
+        previous = new Generation<>(tableSize);
+    }
+
+    /**
+     * 键不存在时保存键与值
+     *
+     * @param key   键
+     * @param value 值
+     * @return 已保存的值，键不存在时为 {@code null}
+     */
+    synchronized @Nullable V putIfAbsent(long key, V value) {
+        if (key == 0) key = 1; // 0 表示空位
+        long now = System.nanoTime();
+        if (now - rotatedAt >= window.getAsLong() * 1_000_000) rotate(now);
+        V existing = current.get(key, mask);
+        if (existing == null) existing = previous.get(key, mask);
+        if (existing != null) return existing;
+        if (current.size >= capacity) rotate(now);
+        current.put(key, value, mask);
+        return null;
+    }
+
+    /**
+     * 键不存在时保存键
+     *
+     * @param key 键
+     * @return 键是否不存在
+     */
+    @SuppressWarnings("unchecked")
+    boolean add(long key) {
+        return putIfAbsent(key, (V) Boolean.TRUE) == null;
+    }
+
+    private void rotate(long now) {
+        Generation<V> discarded = previous;
+        previous = current;
+        discarded.clear();
+        current = discarded;
+        rotatedAt = now;
+    }
+
+    /**
+     * 将多个值合并为一个键
+     *
+     * @param parts 值
+     * @return 键
+     */
+    static long hash(long... parts) {
+        long hash = 0x9E3779B97F4A7C15L;
+        for (long part : parts) hash = mix(hash ^ mix(part));
+        return hash;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static final class Generation<V> {
+        final long[] keys;
+        final Object[] values;
+        int size;
+
+        Generation(int tableSize) {
+            keys = new long[tableSize];
+            values = new Object[tableSize];
+        }
+
+        @SuppressWarnings("unchecked")
+        @Nullable V get(long key, int mask) {
+            for (int i = (int) key & mask; keys[i] != 0; i = (i + 1) & mask) {
+                if (keys[i] == key) return (V) values[i];
+            }
+            return null;
+        }
+
+        void put(long key, V value, int mask) {
+            int i = (int) key & mask;
+            while (keys[i] != 0) i = (i + 1) & mask;
+            keys[i] = key;
+            values[i] = value;
+            size++;
+        }
+
+        void clear() {
+            if (size == 0) return;
+            Arrays.fill(keys, 0);
+            Arrays.fill(values, null);
+            size = 0;
+        }
+    }
+}
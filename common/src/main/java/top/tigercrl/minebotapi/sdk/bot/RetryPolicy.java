@@ -0,0 +1,69 @@
+package top.tigercrl.minebotapi.sdk.bot;
+
+import top.tigercrl.minebotapi.MineBotApi;
+import top.tigercrl.minebotapi.ModConfig;
+import top.tigercrl.minebotapi.sdk.exceptions.BotClosedException;
+
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * API调用的重试策略
+ * 幂等的API（所有 {@code get_*}、{@code can_*} 以及 {@link #IDEMPOTENT_ACTIONS}）在连接断开或返回可重试的 retcode 时自动重试；
+ * 非幂等的API（如 {@code send_*}）只在可以确定请求没有被发送时重试，避免重复执行
+ */
+public final class RetryPolicy {
+    /**
+     * 除 {@code get_*} 与 {@code can_*} 外的幂等API
+     */
+    public static final Set<String> IDEMPOTENT_ACTIONS = Set.of("set_group_card", "set_group_admin");
+
+    private RetryPolicy() {
+    }
+
+    /**
+     * 判断API是否幂等
+     *
+     * @param action API名称（不含请求类型后缀）
+     * @return 是否幂等
+     */
+    public static boolean isIdempotent(String action) {
+        return action.startsWith("get_") || action.startsWith("can_") || IDEMPOTENT_ACTIONS.contains(action)
+                || MineBotApi.config.retry.idempotentActions.contains(action);
+    }
+
+    /**
+     * 判断失败的调用是否可以重试
+     *
+     * @param action  API名称（不含请求类型后缀）
+     * @param failure 失败原因
+     * @return 是否可以重试
+     */
+    static boolean shouldRetry(String action, Throwable failure) {
+        if (!(failure instanceof BotClosedException closed)) return false;
+        return !closed.isRequestSent() || isIdempotent(action);
+    }
+
+    /**
+     * 判断返回非 {@code 0} retcode 的调用是否可以重试
+     *
+     * @param action  API名称（不含请求类型后缀）
+     * @param retcode retcode
+     * @return 是否可以重试
+     */
+    static boolean shouldRetry(String action, int retcode) {
+        return isIdempotent(action) && MineBotApi.config.retry.retryRetcodes.contains(retcode);
+    }
+
+    /**
+     * 获取第 {@code attempt} 次尝试失败后的退避时间
+     *
+     * @param attempt 已尝试的次数
+     * @return 退避时间，单位毫秒
+     */
+    static long backoff(int attempt) {
+        ModConfig.RetrySettings settings = MineBotApi.config.retry;
+        long backoff = Math.min(settings.maxBackoff, (long) settings.initialBackoff << Math.min(attempt - 1, 20));
+        return backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+    }
+}
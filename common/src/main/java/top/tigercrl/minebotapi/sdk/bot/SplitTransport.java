@@ -0,0 +1,209 @@
+package top.tigercrl.minebotapi.sdk.bot;
+
+import org.java_websocket.handshake.ServerHandshake;
+import org.jetbrains.annotations.Nullable;
+import top.tigercrl.minebotapi.sdk.metrics.BotMetrics;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+
+/**
+ * 分离的 /event 与 /api 连接
+ * <p>
+ * 事件从一个 /event 连接接收，API请求分散到多个 /api 连接，每次选择等待响应的请求最少的连接，
+ * 大的响应（如 get_group_member_list）只占用其中一个连接，不会挡住其他请求的响应。
+ * /event 连接与至少一个 /api 连接都已建立时视为已连接，/event 连接或全部 /api 连接断开时视为断开；
+ * 仍连接时断开的 /api 连接上等待响应的请求会立即失败，其余请求由剩下的连接承担，直到重新连接。
+ * 不同连接的 {@link Listener#onMessage(String)} 可能并发调用
+ */
+class SplitTransport implements BotTransport {
+    private final Listener listener;
+    private final RuntimeException lostException;
+    private final Connection event;
+    private final List<Connection> api = new ArrayList<>();
+    private final AtomicInteger next = new AtomicInteger();
+    private volatile boolean open;
+
+    /**
+     * @param eventUri       /event 连接地址
+     * @param apiUri         /api 连接地址
+     * @param apiConnections /api 连接数量
+     * @param listener       连接回调
+     * @param factory        创建单个连接
+     * @param lostException  /api 连接断开时让其上等待响应的请求失败的异常
+     * @param metrics        机器人指标
+     */
+    SplitTransport(URI eventUri, URI apiUri, int apiConnections, Listener listener, BiFunction<URI, Listener, BotTransport> factory,
+                   RuntimeException lostException, BotMetrics metrics) {
+        this.listener = listener;
+        this.lostException = lostException;
+        event = new Connection(eventUri, factory);
+        for (int i = 0; i < apiConnections; i++) api.add(new Connection(apiUri, factory));
+        metrics.gauge("api_connections_open", () -> api.stream().filter(connection -> connection.open).count());
+    }
+
+    @Override
+    public void connect() {
+        event.transport.connect();
+        api.forEach(connection -> connection.transport.connect());
+    }
+
+    @Override
+    public void reconnect() {
+        event.transport.reconnect();
+        api.forEach(connection -> connection.transport.reconnect());
+    }
+
+    @Override
+    public boolean reconnectBlocking() throws InterruptedException {
+        // 同时重新连接，避免逐个重连时整体反复断开与连接
+        List<CompletableFuture<Boolean>> results = new ArrayList<>();
+        results.add(reconnectAsync(event));
+        api.forEach(connection -> results.add(reconnectAsync(connection)));
+        try {
+            CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).get();
+        } catch (ExecutionException e) {
+            throw new CompletionException(e.getCause());
+        }
+        return isOpen();
+    }
+
+    private static CompletableFuture<Boolean> reconnectAsync(Connection connection) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return connection.transport.reconnectBlocking();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }, BotExecutors.blocking());
+    }
+
+    @Override
+    public void close() {
+        event.transport.close();
+        api.forEach(connection -> connection.transport.close());
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public boolean isClosed() {
+        return event.transport.isClosed() || api.stream().allMatch(connection -> connection.transport.isClosed());
+    }
+
+    @Override
+    public boolean sendText(String text) {
+        Connection connection = leastInFlight();
+        return connection != null && connection.transport.sendText(text);
+    }
+
+    @Override
+    public boolean sendText(String text, CompletableFuture<?> call) {
+        Connection connection = leastInFlight();
+        if (connection == null) return false;
+        connection.inFlight.add(call);
+        call.whenComplete((response, ex) -> connection.inFlight.remove(call));
+        if (connection.transport.sendText(text, call)) return true;
+        connection.inFlight.remove(call);
+        return false;
+    }
+
+    /**
+     * 选择等待响应的请求最少的 /api 连接，数量相同时轮流选择
+     *
+     * @return 连接，没有已建立的连接时为 {@code null}
+     */
+    private @Nullable Connection leastInFlight() {
+        int size = api.size();
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        Connection best = null;
+        int bestInFlight = Integer.MAX_VALUE;
+        for (int i = 0; i < size; i++) {
+            Connection connection = api.get((start + i) % size);
+            if (!connection.open) continue;
+            int inFlight = connection.inFlight.size();
+            if (inFlight < bestInFlight) {
+                best = connection;
+                bestInFlight = inFlight;
+            }
+        }
+        return best;
+    }
+
+    @Override
+    public boolean pauseReading() {
+        return event.transport.pauseReading();
+    }
+
+    @Override
+    public void resumeReading() {
+        event.transport.resumeReading();
+    }
+
+    @Override
+    public boolean pauseEvents() {
+        return event.transport.pauseReading();
+    }
+
+    @Override
+    public void resumeEvents() {
+        event.transport.resumeReading();
+    }
+
+    private synchronized void stateChanged(@Nullable ServerHandshake handshakeData, int code, String reason, boolean remote) {
+        boolean open = event.open && api.stream().anyMatch(connection -> connection.open);
+        if (open == this.open) return;
+        this.open = open;
+        if (open) listener.onOpen(handshakeData);
+        else listener.onClose(code, reason, remote);
+    }
+
+    private final class Connection implements Listener {
+        final BotTransport transport;
+        final Set<CompletableFuture<?>> inFlight = ConcurrentHashMap.newKeySet();
+        volatile boolean open;
+
+        Connection(URI uri, BiFunction<URI, Listener, BotTransport> factory) {
+            transport = factory.apply(uri, this);
+        }
+
+        @Override
+        public void onOpen(ServerHandshake handshakeData) {
+            open = true;
+            stateChanged(handshakeData, 0, null, false);
+        }
+
+        @Override
+        public void onMessage(String message) {
+            listener.onMessage(message);
+        }
+
+        @Override
+        public void onClose(int code, String reason, boolean remote) {
+            open = false;
+            // 响应不会从其他连接返回
+            inFlight.removeIf(call -> {
+                call.completeExceptionally(lostException);
+                return true;
+            });
+            stateChanged(null, code, reason, remote);
+        }
+
+        @Override
+        public void onError(Exception ex) {
+            listener.onError(ex);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package top.tigercrl.minebotapi.sdk.bot;
+
+import java.util.function.DoubleSupplier;
+
+/**
+ * 令牌桶，按固定速率补充令牌，最多积累到容量
+ * 速率与容量在每次使用时读取，修改配置后立即生效
+ */
+final class TokenBucket {
+    private final DoubleSupplier rate;
+    private final DoubleSupplier capacity;
+    private double tokens;
+    private long refilledAt = System.nanoTime();
+
+    /**
+     * @param rate     每秒补充的令牌数
+     * @param capacity 容量
+     */
+    TokenBucket(DoubleSupplier rate, DoubleSupplier capacity) {
+        this.rate = rate;
+        this.capacity = capacity;
+        tokens = capacity.getAsDouble();
+    }
+
+    /**
+     * 获取当前剩余的令牌数
+     *
+     * @return 令牌数
+     */
+    synchronized double available() {
+        refill();
+        return tokens;
+    }
+
+    /**
+     * 取走一个令牌，没有令牌时不等待
+     *
+     * @return 是否有令牌
+     */
+    synchronized boolean take() {
+        refill();
+        if (tokens < 1) return false;
+        tokens--;
+        return true;
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity.getAsDouble(), tokens + (now - refilledAt) / 1e9 * rate.getAsDouble());
+        refilledAt = now;
+    }
+}
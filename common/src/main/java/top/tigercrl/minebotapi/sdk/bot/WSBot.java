@@ -1,186 +1,433 @@
 package top.tigercrl.minebotapi.sdk.bot;
 
-import dev.architectury.event.events.common.TickEvent;
-import net.minecraft.server.MinecraftServer;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.java_websocket.client.WebSocketClient;
+import org.java_websocket.exceptions.WebsocketNotConnectedException;
 import org.java_websocket.handshake.ServerHandshake;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.json.JSONArray;
 import org.json.JSONObject;
 import top.tigercrl.minebotapi.MineBotApi;
+import top.tigercrl.minebotapi.ModConfig;
 import top.tigercrl.minebotapi.sdk.enums.APIRequestType;
+import top.tigercrl.minebotapi.sdk.enums.ApiLane;
+import top.tigercrl.minebotapi.sdk.enums.BlockingCallPolicy;
 import top.tigercrl.minebotapi.sdk.enums.GroupRequestSubType;
 import top.tigercrl.minebotapi.sdk.enums.HonorType;
 import top.tigercrl.minebotapi.sdk.enums.MessageType;
 import top.tigercrl.minebotapi.sdk.events.*;
-import top.tigercrl.minebotapi.sdk.exceptions.ApiTimeoutException;
-import top.tigercrl.minebotapi.sdk.exceptions.BotClosedException;
-import top.tigercrl.minebotapi.sdk.exceptions.BotRequestException;
-import top.tigercrl.minebotapi.sdk.exceptions.UnknownMessageException;
+import top.tigercrl.minebotapi.sdk.exceptions.*;
+import top.tigercrl.minebotapi.sdk.jfr.ApiCallEvent;
+import top.tigercrl.minebotapi.sdk.jfr.FrameDecodeEvent;
+import top.tigercrl.minebotapi.sdk.jfr.ListenerDispatchEvent;
 import top.tigercrl.minebotapi.sdk.message.ArrayMessage;
 import top.tigercrl.minebotapi.sdk.message.Message;
+import top.tigercrl.minebotapi.sdk.metrics.BotMetrics;
 import top.tigercrl.minebotapi.sdk.records.APIResponse;
 import top.tigercrl.minebotapi.sdk.records.BotStatus;
 import top.tigercrl.minebotapi.sdk.records.MessageInfo;
 import top.tigercrl.minebotapi.sdk.records.MessageSenderAnonymous;
+import top.tigercrl.minebotapi.utils.BotLogger;
 
+import java.io.IOException;
 import java.net.URI;
-import java.util.HashMap;
+import java.nio.file.Path;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 
-public class WSBot extends WebSocketClient implements Bot {
+/**
+ * 正向WebSocket机器人
+ * <p>
+ * 连接由 {@link ModConfig.TransportSettings} 选择的实现（Java-WebSocket 或 Netty，可拆分为事件连接与API连接）负责，
+ * 因此本类不再继承 {@link org.java_websocket.client.WebSocketClient}，以下方法已移除或改为：
+ * <ul>
+ *     <li>{@code send(String)}、{@code getURI()}：保留为已弃用的方法，请改用 {@link #customApi} 等API方法</li>
+ *     <li>{@code connect()}、{@code connectBlocking()}：机器人创建时已开始连接，重新连接使用 {@link #reconnect()}、{@link #reconnectBlocking()}</li>
+ *     <li>{@code closeBlocking()}：使用 {@link #close()}，连接断开时触发 {@link BotLifecycleEvent#WEBSOCKET_DISCONNECT}</li>
+ *     <li>{@code setConnectionLostTimeout(int)}、{@code sendPing()}：由 {@link ModConfig.HeartbeatWatchdogSettings} 按 OneBot 心跳检测连接</li>
+ *     <li>{@code getConnection()}：不再提供底层连接，连接状态使用 {@link #isOpen()}、{@link #isClosed()}</li>
+ * </ul>
+ */
+public class WSBot implements Bot, BotTransport.Listener {
     private static final Logger LOGGER = LogManager.getLogger();
-    private final Map<UUID, JSONObject> messages = new HashMap<>();
-    private long lastHeartbeat = 0;
-    private long heartbeatInterval = 0;
+    private static final ThreadLocal<CallOptions> CALL_OPTIONS = ThreadLocal.withInitial(() -> CallOptions.DEFAULT);
+    private static final ScheduledThreadPoolExecutor TIMEOUT_SCHEDULER;
+
+    static {
+        TIMEOUT_SCHEDULER = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread thread = new Thread(r, "MineBotApi-Timeout");
+            thread.setDaemon(true);
+            return thread;
+        });
+        TIMEOUT_SCHEDULER.setRemoveOnCancelPolicy(true);
+        // 进程级的指标只注册一次，不随每个机器人重复导出
+        BotMetrics process = new BotMetrics("process");
+        process.gauge("log_queue_size", BotLogger::getQueueSize);
+        process.gauge("log_dropped", BotLogger::getDroppedCount);
+        process.gauge("server_tasks_queued", BotExecutors::getServerQueueSize);
+        process.gauge("server_tasks_executed", BotExecutors::getServerExecutedCount);
+        process.gauge("server_tasks_deferred", BotExecutors::getServerDeferredCount);
+        process.register();
+    }
+
+    private final Map<UUID, PendingCall> pendingCalls = new ConcurrentHashMap<>();
+    private final ApiLatencyTracker latency = new ApiLatencyTracker();
+    private final CircuitBreaker circuitBreaker = new CircuitBreaker(null, () -> MineBotApi.config.circuitBreaker, this::circuitStateChanged);
+    private final Map<String, CircuitBreaker> actionCircuitBreakers = new ConcurrentHashMap<>();
+    private final BotMetrics metrics;
+    // 预先创建的无调用栈异常，避免在失败频繁时重复创建
+    private final ApiTimeoutException timeoutException = new ApiTimeoutException(this);
+    private final BotClosedException closedException = new BotClosedException(this);
+    private final BotClosedException closedAfterSendException = new BotClosedException(this, true);
+    private final CircuitOpenException circuitOpenException = new CircuitOpenException(this, null);
+    private final Map<String, CircuitOpenException> actionCircuitOpenExceptions = new ConcurrentHashMap<>();
+    private volatile CompletableFuture<Void> opened = new CompletableFuture<>();
+    private final @Nullable PersistentOutbox outbox;
+    private final LaneScheduler lanes;
+    private final BotTransport transport;
+    private final @Nullable InboundQueue inbound;
+    private final @Nullable DuplicateFilter duplicateFilter;
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final HeartbeatWatchdog watchdog;
+    private final BlockingCallGuard blockingCallGuard;
+    private volatile boolean eventsMuted;
+    private volatile long lastReceived;
+    private final URI uri;
 
     WSBot(String oneBotServerUrl) {
-        super(URI.create(oneBotServerUrl));
+        metrics = new BotMetrics(oneBotServerUrl.split("\\?")[0]);
+        uri = URI.create(oneBotServerUrl);
+        ModConfig.TransportSettings transportSettings = MineBotApi.config.transport;
+        CompressionStats compression = transportSettings.compression ? new CompressionStats(metrics) : null;
+        BiFunction<URI, BotTransport.Listener, BotTransport> factory = transportSettings.type == ModConfig.TransportSettings.Type.NETTY
+                ? (target, listener) -> new NettyTransport(target, listener, compression, closedException)
+                : (target, listener) -> new JavaWebSocketTransport(target, listener, compression);
+        transport = transportSettings.apiConnections > 0
+                ? new SplitTransport(endpoint(oneBotServerUrl, "event"), endpoint(oneBotServerUrl, "api"), transportSettings.apiConnections,
+                this, factory, closedAfterSendException, metrics)
+                : factory.apply(uri, this);
+        inbound = MineBotApi.config.inboundQueue.enabled
+                ? new InboundQueue(this, () -> MineBotApi.config.inboundQueue, metrics, transport, this::handleFrame)
+                : null;
+        duplicateFilter = MineBotApi.config.duplicateFilter.enabled ? new DuplicateFilter(() -> MineBotApi.config.duplicateFilter, metrics) : null;
+        watchdog = new HeartbeatWatchdog(this, metrics);
+        blockingCallGuard = new BlockingCallGuard(metrics);
+        metrics.gauge("api_in_flight", pendingCalls::size);
+        metrics.gauge("circuit_breaker_opened", () -> circuitBreaker.getOpenedCount() + actionCircuitBreakers.values().stream().mapToLong(CircuitBreaker::getOpenedCount).sum());
+        metrics.gauge("circuit_breaker_rejected", () -> circuitBreaker.getRejectedCount() + actionCircuitBreakers.values().stream().mapToLong(CircuitBreaker::getRejectedCount).sum());
+        lanes = new LaneScheduler(() -> MineBotApi.config.lanes, metrics);
+        outbox = openOutbox(metrics.getEndpoint());
+        if (outbox != null) {
+            metrics.gauge("outbox_pending", outbox::size);
+            metrics.gauge("outbox_bytes", outbox::getPendingBytes);
+            metrics.gauge("outbox_expired", outbox::getExpiredCount);
+            metrics.gauge("outbox_rejected", outbox::getRejectedCount);
+        }
+        metrics.register();
         BotLifecycleEvent.WEBSOCKET_START.invoker().start(this);
-        this.connect();
-        if (MineBotApi.config.logSettings.botConnection)
-            LOGGER.info("正向WebSocket机器人已被创建，服务器URL：{}，机器人UUID：{}", oneBotServerUrl, uuid);
+        transport.connect();
+        if (BotLogger.shouldLog(BotLogger.Category.BOT_CONNECTION))
+            BotLogger.info(LOGGER, "正向WebSocket机器人已被创建，服务器URL：{}，机器人UUID：{}", oneBotServerUrl, uuid);
+    }
+
+    /**
+     * 在服务器地址后追加路径，保留访问令牌等查询参数
+     *
+     * @param oneBotServerUrl OneBot服务器地址，以 / 结尾
+     * @param path            路径
+     * @return 地址
+     */
+    private static URI endpoint(String oneBotServerUrl, String path) {
+        int query = oneBotServerUrl.indexOf('?');
+        return URI.create(query < 0 ? oneBotServerUrl + path : oneBotServerUrl.substring(0, query) + path + oneBotServerUrl.substring(query));
+    }
+
+    /**
+     * 连接是否已建立
+     *
+     * @return 是否已建立
+     */
+    public boolean isOpen() {
+        return transport.isOpen();
+    }
+
+    /**
+     * 连接是否已关闭
+     *
+     * @return 是否已关闭
+     */
+    public boolean isClosed() {
+        return transport.isClosed();
+    }
+
+    /**
+     * 关闭连接，并关闭持久化发送队列、释放其目录，之后可以为同一服务器创建新的机器人
+     * 机器人的指标不再导出
+     */
+    public void close() {
+        transport.close();
+        if (outbox != null) outbox.close();
+        metrics.unregister();
+    }
+
+    /**
+     * 断开并重新连接
+     */
+    public void reconnect() {
+        transport.reconnect();
+    }
+
+    /**
+     * 断开并重新连接，等待连接建立
+     *
+     * @return 是否连接成功
+     * @throws InterruptedException 等待时被中断
+     */
+    public boolean reconnectBlocking() throws InterruptedException {
+        return transport.reconnectBlocking();
+    }
+
+    /**
+     * 直接发送一帧文本，不等待响应
+     *
+     * @param text 文本
+     * @throws WebsocketNotConnectedException 连接未建立
+     * @deprecated 本类不再继承 {@link org.java_websocket.client.WebSocketClient}，请改用 {@link #customApi} 等API方法
+     */
+    @Deprecated
+    public void send(String text) {
+        if (!transport.sendText(text)) throw new WebsocketNotConnectedException();
+    }
+
+    /**
+     * 获取服务器地址
+     *
+     * @return 服务器地址，包括访问令牌
+     * @deprecated 本类不再继承 {@link org.java_websocket.client.WebSocketClient}，仅为兼容保留
+     */
+    @Deprecated
+    public URI getURI() {
+        return uri;
     }
 
     @Override
     public void onOpen(ServerHandshake handshakeData) {
+        opened.complete(null);
         BotLifecycleEvent.WEBSOCKET_CONNECT.invoker().connect(this, handshakeData);
-        if (MineBotApi.config.logSettings.botConnection) LOGGER.info("机器人已连接到服务器，机器人UUID：{}", uuid);
-        TickEvent.SERVER_POST.register(this::tick);
+        if (BotLogger.shouldLog(BotLogger.Category.BOT_CONNECTION)) BotLogger.info(LOGGER, "机器人已连接到服务器，机器人UUID：{}", uuid);
+        watchdog.start();
+        drainOutbox();
     }
 
     @Override
     public void onMessage(String message) {
+        lastReceived = System.nanoTime();
+        if (eventsMuted && FrameClassifier.isUserEvent(message)) return;
+        // 用户事件直接交给入站队列，在分发线程中解析，API响应与元事件在当前线程中处理，不会排在大量聊天消息之后
+        if (inbound == null) {
+            handleFrame(message);
+        } else if (FrameClassifier.isUserEvent(message)) {
+            inbound.offer(message);
+        } else {
+            long start = System.nanoTime();
+            handleFrame(message);
+            metrics.record("control_lane", (System.nanoTime() - start) / 1000);
+        }
+    }
+
+    private void handleFrame(String message) {
+        BotLifecycleEvent.BOT_FRAME.invoker().frame(this, message);
+        FrameDecodeEvent decodeEvent = new FrameDecodeEvent();
+        decodeEvent.begin();
         JSONObject json = new JSONObject(message);
+        boolean isEcho = json.has("echo") && json.get("echo") != JSONObject.NULL;
+        String postType = isEcho ? "echo" : json.optString("post_type", "unknown");
+        decodeEvent.end();
+        if (decodeEvent.shouldCommit()) {
+            decodeEvent.postType = postType;
+            decodeEvent.bytes = message.length();
+            decodeEvent.commit();
+        }
+        metrics.recordInboundFrame(postType);
+        // 重发的事件在调用任何监听器之前丢弃
+        if (!isEcho && duplicateFilter != null && duplicateFilter.isDuplicate(json)) {
+            if (BotLogger.shouldLog(BotLogger.Category.EVENT))
+                BotLogger.info(LOGGER, "机器人收到重复的事件，已丢弃，机器人UUID：{}，事件信息：{}", uuid, json);
+            return;
+        }
         // 机器人消息事件
         BotLifecycleEvent.BOT_MESSAGE.invoker().message(this, json);
-        if (MineBotApi.config.logSettings.message) LOGGER.info("收到服务器消息，机器人UUID：{}，消息内容：{}", uuid, json);
+        if (BotLogger.shouldLog(BotLogger.Category.MESSAGE)) BotLogger.info(LOGGER, "收到服务器消息，机器人UUID：{}，消息内容：{}", uuid, json);
 
-        if (json.has("echo") && json.get("echo") != JSONObject.NULL) { // API调用
-            messages.put(UUID.fromString(json.getString("echo")), json);
+        if (isEcho) { // API调用
+            PendingCall call = pendingCalls.remove(UUID.fromString(json.getString("echo")));
+            if (call != null) {
+                call.complete(json);
+            } else { // 请求已超时或被取消
+                metrics.increment("late_echoes");
+                if (BotLogger.shouldLog(BotLogger.Category.API))
+                    BotLogger.info(LOGGER, "机器人收到已失效请求的响应，已丢弃，机器人UUID：{}，请求UUID：{}", uuid, json.getString("echo"));
+            }
         } else if (json.has("post_type")) { // 机器人事件
-            switch (json.getString("post_type")) {
-                case "message": // 消息事件
-                    switch (json.getString("message_type")) {
-                        case "private":
-                            MessageEvent.PRIVATE_CHAT.invoker().privateChat(this, MessageInfo.fromJSON(json));
-                            if (MineBotApi.config.logSettings.event)
-                                LOGGER.info("机器人触发私聊消息事件，机器人UUID：{}，事件信息：{}", uuid, json);
-                            break;
-                        case "group":
-                            MessageEvent.GROUP_CHAT.invoker().groupChat(this, MessageInfo.fromJSON(json));
-                            if (MineBotApi.config.logSettings.event)
-                                LOGGER.info("机器人触发群聊消息事件，机器人UUID：{}，事件信息：{}", uuid, json);
-                            break;
-                    }
-                    break;
-                case "meta_event": // 元事件
-                    switch (json.getString("meta_event_type")) {
-                        case "lifecycle":
-                            MetaEvent.LIFECYCLE.invoker().lifecycle(this, json.getLong("time"), json.getLong("self_id"), MetaEvent.Lifecycle.SubType.getSubType(json.getString("sub_type")));
-                            if (MineBotApi.config.logSettings.event)
-                                LOGGER.info("机器人触发生命周期事件，机器人UUID：{}，事件信息：{}", uuid, json);
-                            break;
-                        case "heartbeat":
-                            lastHeartbeat = System.currentTimeMillis();
-                            heartbeatInterval = json.getLong("interval");
-                            if (MineBotApi.config.logSettings.heartbeat)
-                                LOGGER.info("机器人收到心跳，机器人UUID：{}，事件信息：{}", uuid, json);
-                            MetaEvent.HEARTBEAT.invoker().heartbeat(this, json.getLong("time"), json.getLong("self_id"), BotStatus.fromJson(json.getJSONObject("status")), json.getLong("interval"));
-                            break;
-                    }
-                    break;
-                case "notice": // 通知事件
-                    switch (json.getString("notice_type")) {
-                        case "group_upload":
-                            NoticeEvent.GROUP_UPLOAD.invoker().groupUpload(this, json.getLong("time"), json.getLong("self_id"), json.getLong("group_id"), json.getLong("user_id"), NoticeEvent.GroupUpload.FileInfo.fromJson(json.getJSONObject("file")));
-                            if (MineBotApi.config.logSettings.event)
-                                LOGGER.info("机器人触发群文件上传事件，机器人UUID：{}，事件信息：{}", uuid, json);
-                            break;
-                        case "group_admin":
-                            NoticeEvent.GROUP_ADMIN.invoker().groupAdmin(this, json.getLong("time"), json.getLong("self_id"), NoticeEvent.GroupAdmin.SubType.getSubType(json.getString("sub_type")), json.getLong("group_id"), json.getLong("user_id"));
-                            if (MineBotApi.config.logSettings.event)
-                                LOGGER.info("机器人触发群管理员变动事件，机器人UUID：{}，事件信息：{}", uuid, json);
-                            break;
-                        case "group_decrease":
-                            NoticeEvent.GROUP_DECREASE.invoker().groupDecrease(this, json.getLong("time"), json.getLong("self_id"), NoticeEvent.GroupDecrease.SubType.getSubType(json.getString("sub_type")), json.getLong("group_id"), json.getLong("operator_id"), json.getLong("user_id"));
-                            if (MineBotApi.config.logSettings.event)
-                                LOGGER.info("机器人触发群成员减少事件，机器人UUID：{}，事件信息：{}", uuid, json);
-                            break;
-                        case "group_increase":
-                            NoticeEvent.GROUP_INCREASE.invoker().groupIncrease(this, json.getLong("time"), json.getLong("self_id"), NoticeEvent.GroupIncrease.SubType.getSubType(json.getString("sub_type")), json.getLong("group_id"), json.getLong("operator_id"), json.getLong("user_id"));
-                            if (MineBotApi.config.logSettings.event)
-                                LOGGER.info("机器人触发群成员增加事件，机器人UUID：{}，事件信息：{}", uuid, json);
-                            break;
-                        case "group_ban":
-                            NoticeEvent.GROUP_MUTE.invoker().groupMute(this, json.getLong("time"), json.getLong("self_id"), NoticeEvent.GroupMute.SubType.getSubType(json.getString("sub_type")), json.getLong("group_id"), json.getLong("operator_id"), json.getLong("user_id"), json.getLong("duration"));
-                            if (MineBotApi.config.logSettings.event)
-                                LOGGER.info("机器人触发群禁言事件，机器人UUID：{}，事件信息：{}", uuid, json);
-                            break;
-                        case "friend_add":
-                            NoticeEvent.FRIEND_ADD.invoker().friendAdd(this, json.getLong("time"), json.getLong("self_id"), json.getLong("user_id"));
-                            if (MineBotApi.config.logSettings.event)
-                                LOGGER.info("机器人触发好友添加事件，机器人UUID：{}，事件信息：{}", uuid, json);
-                            break;
-                        case "group_recall":
-                            NoticeEvent.GROUP_RECALL.invoker().groupRecall(this, json.getLong("time"), json.getLong("self_id"), json.getLong("group_id"), json.getLong("user_id"), json.getLong("operator_id"), json.getLong("message_id"));
-                            if (MineBotApi.config.logSettings.event)
-                                LOGGER.info("机器人触发群消息撤回事件，机器人UUID：{}，事件信息：{}", uuid, json);
-                            break;
-                        case "friend_recall":
-                            NoticeEvent.FRIEND_RECALL.invoker().friendRecall(this, json.getLong("time"), json.getLong("self_id"), json.getLong("user_id"), json.getLong("message_id"));
-                            if (MineBotApi.config.logSettings.event)
-                                LOGGER.info("机器人触发好友消息撤回事件，机器人UUID：{}，事件信息：{}", uuid, json);
-                            break;
-                        case "notify":
-                            switch (json.getString("sub_type")) {
-                                case "poke":
-                                    NoticeEvent.SHAKE.invoker().shake(this, json.getLong("time"), json.getLong("self_id"), json.getLong("group_id"), json.getLong("user_id"), json.getLong("target_id"));
-                                    if (MineBotApi.config.logSettings.event)
-                                        LOGGER.info("机器人触发戳一戳事件，机器人UUID：{}，事件信息：{}", uuid, json);
-                                    break;
-                                case "lucky_king":
-                                    NoticeEvent.LUCKY_KING.invoker().luckyKing(this, json.getLong("time"), json.getLong("self_id"), json.getLong("group_id"), json.getLong("user_id"), json.getLong("target_id"));
-                                    if (MineBotApi.config.logSettings.event)
-                                        LOGGER.info("机器人触发群红包运气王事件，机器人UUID：{}，事件信息：{}", uuid, json);
-                                    break;
-                                case "honor":
-                                    NoticeEvent.HONOR.invoker().honor(this, json.getLong("time"), json.getLong("self_id"), json.getLong("group_id"), HonorType.getHonorType(json.getString("honor_type")), json.getLong("user_id"));
-                                    if (MineBotApi.config.logSettings.event)
-                                        LOGGER.info("机器人触发群荣誉事件，机器人UUID：{}，事件信息：{}", uuid, json);
-                                    break;
-                            }
-                            break;
-                    }
-                    break;
-                case "request":
-                    switch (json.getString("request_type")) {
-                        case "friend":
-                            RequestEvent.FRIEND.invoker().friend(this, json.getLong("time"), json.getLong("self_id"), json.getLong("user_id"), json.getString("comment"), json.getString("flag"));
-                            if (MineBotApi.config.logSettings.event)
-                                LOGGER.info("机器人触发加好友请求事件，机器人UUID：{}，事件信息：{}", uuid, json);
-                            break;
-                        case "group":
-                            RequestEvent.GROUP.invoker().group(this, json.getLong("time"), json.getLong("self_id"), GroupRequestSubType.getSubType(json.getString("sub_type")), json.getLong("group_id"), json.getLong("user_id"), json.getString("comment"), json.getString("flag"));
-                            if (MineBotApi.config.logSettings.event)
-                                LOGGER.info("机器人触发加群请求事件，机器人UUID：{}，事件信息：{}", uuid, json);
-                            break;
-                    }
+            long dedupKey = MineBotApi.config.eventDedup.enabled ? EventDedup.key(json) : 0;
+            if (dedupKey == 0) {
+                handleEvent(json);
+            } else {
+                Set<Bot> seenBy = EventDedup.record(this, dedupKey);
+                if (seenBy != null) EventDedup.dispatch(seenBy, () -> handleEvent(json));
+                else metrics.increment("events_deduplicated");
             }
         } else {
             throw new UnknownMessageException(this, message);
         }
     }
 
+    /**
+     * 调用事件对应的监听器
+     *
+     * @param json 事件
+     */
+    private void handleEvent(JSONObject json) {
+        switch (json.getString("post_type")) {
+            case "message": // 消息事件
+                switch (json.getString("message_type")) {
+                    case "private":
+                        dispatch("MessageEvent.PRIVATE_CHAT", () -> MessageEvent.PRIVATE_CHAT.invoker().privateChat(this, MessageInfo.fromJSON(json)));
+                        if (BotLogger.shouldLog(BotLogger.Category.EVENT))
+                            BotLogger.info(LOGGER, "机器人触发私聊消息事件，机器人UUID：{}，事件信息：{}", uuid, json);
+                        break;
+                    case "group":
+                        dispatch("MessageEvent.GROUP_CHAT", () -> MessageEvent.GROUP_CHAT.invoker().groupChat(this, MessageInfo.fromJSON(json)));
+                        if (BotLogger.shouldLog(BotLogger.Category.EVENT))
+                            BotLogger.info(LOGGER, "机器人触发群聊消息事件，机器人UUID：{}，事件信息：{}", uuid, json);
+                        break;
+                }
+                break;
+            case "meta_event": // 元事件
+                switch (json.getString("meta_event_type")) {
+                    case "lifecycle":
+                        dispatch("MetaEvent.LIFECYCLE", () -> MetaEvent.LIFECYCLE.invoker().lifecycle(this, json.getLong("time"), json.getLong("self_id"), MetaEvent.Lifecycle.SubType.getSubType(json.getString("sub_type"))));
+                        if (BotLogger.shouldLog(BotLogger.Category.EVENT))
+                            BotLogger.info(LOGGER, "机器人触发生命周期事件，机器人UUID：{}，事件信息：{}", uuid, json);
+                        break;
+                    case "heartbeat":
+                        watchdog.heartbeat(json.getLong("interval"));
+                        if (BotLogger.shouldLog(BotLogger.Category.HEARTBEAT))
+                            BotLogger.info(LOGGER, "机器人收到心跳，机器人UUID：{}，事件信息：{}", uuid, json);
+                        dispatch("MetaEvent.HEARTBEAT", () -> MetaEvent.HEARTBEAT.invoker().heartbeat(this, json.getLong("time"), json.getLong("self_id"), BotStatus.fromJson(json.getJSONObject("status")), json.getLong("interval")));
+                        break;
+                }
+                break;
+            case "notice": // 通知事件
+                switch (json.getString("notice_type")) {
+                    case "group_upload":
+                        dispatch("NoticeEvent.GROUP_UPLOAD", () -> NoticeEvent.GROUP_UPLOAD.invoker().groupUpload(this, json.getLong("time"), json.getLong("self_id"), json.getLong("group_id"), json.getLong("user_id"), NoticeEvent.GroupUpload.FileInfo.fromJson(json.getJSONObject("file"))));
+                        if (BotLogger.shouldLog(BotLogger.Category.EVENT))
+                            BotLogger.info(LOGGER, "机器人触发群文件上传事件，机器人UUID：{}，事件信息：{}", uuid, json);
+                        break;
+                    case "group_admin":
+                        dispatch("NoticeEvent.GROUP_ADMIN", () -> NoticeEvent.GROUP_ADMIN.invoker().groupAdmin(this, json.getLong("time"), json.getLong("self_id"), NoticeEvent.GroupAdmin.SubType.getSubType(json.getString("sub_type")), json.getLong("group_id"), json.getLong("user_id")));
+                        if (BotLogger.shouldLog(BotLogger.Category.EVENT))
+                            BotLogger.info(LOGGER, "机器人触发群管理员变动事件，机器人UUID：{}，事件信息：{}", uuid, json);
+                        break;
+                    case "group_decrease":
+                        dispatch("NoticeEvent.GROUP_DECREASE", () -> NoticeEvent.GROUP_DECREASE.invoker().groupDecrease(this, json.getLong("time"), json.getLong("self_id"), NoticeEvent.GroupDecrease.SubType.getSubType(json.getString("sub_type")), json.getLong("group_id"), json.getLong("operator_id"), json.getLong("user_id")));
+                        if (BotLogger.shouldLog(BotLogger.Category.EVENT))
+                            BotLogger.info(LOGGER, "机器人触发群成员减少事件，机器人UUID：{}，事件信息：{}", uuid, json);
+                        break;
+                    case "group_increase":
+                        dispatch("NoticeEvent.GROUP_INCREASE", () -> NoticeEvent.GROUP_INCREASE.invoker().groupIncrease(this, json.getLong("time"), json.getLong("self_id"), NoticeEvent.GroupIncrease.SubType.getSubType(json.getString("sub_type")), json.getLong("group_id"), json.getLong("operator_id"), json.getLong("user_id")));
+                        if (BotLogger.shouldLog(BotLogger.Category.EVENT))
+                            BotLogger.info(LOGGER, "机器人触发群成员增加事件，机器人UUID：{}，事件信息：{}", uuid, json);
+                        break;
+                    case "group_ban":
+                        dispatch("NoticeEvent.GROUP_MUTE", () -> NoticeEvent.GROUP_MUTE.invoker().groupMute(this, json.getLong("time"), json.getLong("self_id"), NoticeEvent.GroupMute.SubType.getSubType(json.getString("sub_type")), json.getLong("group_id"), json.getLong("operator_id"), json.getLong("user_id"), json.getLong("duration")));
+                        if (BotLogger.shouldLog(BotLogger.Category.EVENT))
+                            BotLogger.info(LOGGER, "机器人触发群禁言事件，机器人UUID：{}，事件信息：{}", uuid, json);
+                        break;
+                    case "friend_add":
+                        dispatch("NoticeEvent.FRIEND_ADD", () -> NoticeEvent.FRIEND_ADD.invoker().friendAdd(this, json.getLong("time"), json.getLong("self_id"), json.getLong("user_id")));
+                        if (BotLogger.shouldLog(BotLogger.Category.EVENT))
+                            BotLogger.info(LOGGER, "机器人触发好友添加事件，机器人UUID：{}，事件信息：{}", uuid, json);
+                        break;
+                    case "group_recall":
+                        dispatch("NoticeEvent.GROUP_RECALL", () -> NoticeEvent.GROUP_RECALL.invoker().groupRecall(this, json.getLong("time"), json.getLong("self_id"), json.getLong("group_id"), json.getLong("user_id"), json.getLong("operator_id"), json.getLong("message_id")));
+                        if (BotLogger.shouldLog(BotLogger.Category.EVENT))
+                            BotLogger.info(LOGGER, "机器人触发群消息撤回事件，机器人UUID：{}，事件信息：{}", uuid, json);
+                        break;
+                    case "friend_recall":
+                        dispatch("NoticeEvent.FRIEND_RECALL", () -> NoticeEvent.FRIEND_RECALL.invoker().friendRecall(this, json.getLong("time"), json.getLong("self_id"), json.getLong("user_id"), json.getLong("message_id")));
+                        if (BotLogger.shouldLog(BotLogger.Category.EVENT))
+                            BotLogger.info(LOGGER, "机器人触发好友消息撤回事件，机器人UUID：{}，事件信息：{}", uuid, json);
+                        break;
+                    case "notify":
+                        switch (json.getString("sub_type")) {
+                            case "poke":
+                                dispatch("NoticeEvent.SHAKE", () -> NoticeEvent.SHAKE.invoker().shake(this, json.getLong("time"), json.getLong("self_id"), json.getLong("group_id"), json.getLong("user_id"), json.getLong("target_id")));
+                                if (BotLogger.shouldLog(BotLogger.Category.EVENT))
+                                    BotLogger.info(LOGGER, "机器人触发戳一戳事件，机器人UUID：{}，事件信息：{}", uuid, json);
+                                break;
+                            case "lucky_king":
+                                dispatch("NoticeEvent.LUCKY_KING", () -> NoticeEvent.LUCKY_KING.invoker().luckyKing(this, json.getLong("time"), json.getLong("self_id"), json.getLong("group_id"), json.getLong("user_id"), json.getLong("target_id")));
+                                if (BotLogger.shouldLog(BotLogger.Category.EVENT))
+                                    BotLogger.info(LOGGER, "机器人触发群红包运气王事件，机器人UUID：{}，事件信息：{}", uuid, json);
+                                break;
+                            case "honor":
+                                dispatch("NoticeEvent.HONOR", () -> NoticeEvent.HONOR.invoker().honor(this, json.getLong("time"), json.getLong("self_id"), json.getLong("group_id"), HonorType.getHonorType(json.getString("honor_type")), json.getLong("user_id")));
+                                if (BotLogger.shouldLog(BotLogger.Category.EVENT))
+                                    BotLogger.info(LOGGER, "机器人触发群荣誉事件，机器人UUID：{}，事件信息：{}", uuid, json);
+                                break;
+                        }
+                        break;
+                }
+                break;
+            case "request":
+                switch (json.getString("request_type")) {
+                    case "friend":
+                        dispatch("RequestEvent.FRIEND", () -> RequestEvent.FRIEND.invoker().friend(this, json.getLong("time"), json.getLong("self_id"), json.getLong("user_id"), json.getString("comment"), json.getString("flag")));
+                        if (BotLogger.shouldLog(BotLogger.Category.EVENT))
+                            BotLogger.info(LOGGER, "机器人触发加好友请求事件，机器人UUID：{}，事件信息：{}", uuid, json);
+                        break;
+                    case "group":
+                        dispatch("RequestEvent.GROUP", () -> RequestEvent.GROUP.invoker().group(this, json.getLong("time"), json.getLong("self_id"), GroupRequestSubType.getSubType(json.getString("sub_type")), json.getLong("group_id"), json.getLong("user_id"), json.getString("comment"), json.getString("flag")));
+                        if (BotLogger.shouldLog(BotLogger.Category.EVENT))
+                            BotLogger.info(LOGGER, "机器人触发加群请求事件，机器人UUID：{}，事件信息：{}", uuid, json);
+                        break;
+                }
+        }
+    }
+
+    private void dispatch(String channel, Runnable listeners) {
+        ListenerDispatchEvent event = new ListenerDispatchEvent();
+        event.begin();
+        long start = System.nanoTime();
+        try {
+            listeners.run();
+        } finally {
+            metrics.recordListener(channel, (System.nanoTime() - start) / 1000);
+            event.end();
+            if (event.shouldCommit()) {
+                event.channel = channel;
+                event.commit();
+            }
+        }
+    }
+
     @Override
     public void onClose(int code, String reason, boolean remote) {
+        // 连接已断开，所有等待中的请求都不会再收到响应
+        opened.completeExceptionally(closedException);
+        opened = new CompletableFuture<>();
+        watchdog.stop();
+        failPendingCalls();
         BotLifecycleEvent.WEBSOCKET_DISCONNECT.invoker().disconnect(this, code, reason, remote);
-        TickEvent.SERVER_POST.unregister(this::tick);
-        if (MineBotApi.config.logSettings.botConnection) LOGGER.info("机器人已断开服务器，机器人UUID：{}", uuid);
+        if (BotLogger.shouldLog(BotLogger.Category.BOT_CONNECTION)) BotLogger.info(LOGGER, "机器人已断开服务器，机器人UUID：{}", uuid);
     }
 
     @Override
@@ -189,302 +436,686 @@ public class WSBot extends WebSocketClient implements Bot {
         ex.printStackTrace();
     }
 
-    private void tick(MinecraftServer server) {
-        if (heartbeatInterval != 0 && lastHeartbeat != 0) {
-            long timeout = heartbeatInterval + MineBotApi.config.heartbeatTimeout;
-            long interval = System.currentTimeMillis() - lastHeartbeat;
-            if (interval - timeout > 0 && (interval - timeout) % 5000 < 50) {
-                LOGGER.warn("机器人心跳超时！机器人是否发生了异常？机器人UUID：{}", uuid);
-            }
+    /**
+     * 让所有等待响应的API请求立即失败
+     */
+    void failPendingCalls() {
+        pendingCalls.values().removeIf(call -> {
+            // 仍在优先级通道中排队的请求没有写入连接，可以安全地重试或改由其他机器人发送
+            call.completeExceptionally(call.sent ? closedAfterSendException : closedException);
+            return true;
+        });
+    }
+
+    /**
+     * 设置是否忽略用户事件（消息、通知、请求），API响应与元事件照常处理
+     * 用于 {@link FailoverBot} 的备用端点，避免同一事件从多个端点重复触发
+     *
+     * @param eventsMuted 是否忽略
+     */
+    void setEventsMuted(boolean eventsMuted) {
+        this.eventsMuted = eventsMuted;
+    }
+
+    /**
+     * 获取最后一次收到服务器消息的时间
+     *
+     * @return {@link System#nanoTime()}，尚未收到消息时为 {@code 0}
+     */
+    long getLastReceived() {
+        return lastReceived;
+    }
+
+    /**
+     * 是否已超过心跳超时时间未收到心跳
+     *
+     * @return 是否超时
+     */
+    boolean isHeartbeatOverdue() {
+        return watchdog.isOverdue();
+    }
+
+    /**
+     * 获取等待响应中的API请求数量
+     *
+     * @return 请求数量
+     */
+    public int getPendingCallCount() {
+        return pendingCalls.size();
+    }
+
+    /**
+     * 获取API当前的默认超时时间
+     * 启用自适应超时时根据该API近期的往返时间推算，否则为配置中的值
+     *
+     * @param action API名称（不含请求类型后缀）
+     * @return 超时时间，单位毫秒
+     */
+    public long getApiTimeout(String action) {
+        long configured = MineBotApi.config.getApiTimeout(action);
+        ModConfig.AdaptiveTimeoutSettings settings = MineBotApi.config.adaptiveTimeout;
+        return settings.enabled ? latency.get(action).getTimeout(settings, configured) : configured;
+    }
+
+    /**
+     * 当前是否有API处于延迟异常状态
+     *
+     * @return 是否延迟异常
+     */
+    public boolean isDegraded() {
+        return latency.isDegraded();
+    }
+
+    /**
+     * 获取机器人整体的熔断器
+     *
+     * @return 熔断器
+     */
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    /**
+     * 获取API的熔断器
+     *
+     * @param action API名称（不含请求类型后缀）
+     * @return 熔断器
+     */
+    public CircuitBreaker getCircuitBreaker(String action) {
+        return actionCircuitBreakers.computeIfAbsent(action, ignored -> new CircuitBreaker(action, () -> MineBotApi.config.circuitBreaker, this::circuitStateChanged));
+    }
+
+    private void circuitStateChanged(CircuitBreaker breaker, CircuitBreaker.State from, CircuitBreaker.State to) {
+        if (to == CircuitBreaker.State.OPEN)
+            LOGGER.warn("机器人熔断器已打开，请求将被直接拒绝！机器人UUID：{}，API：{}", uuid, breaker.getAction() == null ? "全部" : breaker.getAction());
+        else if (BotLogger.shouldLog(BotLogger.Category.BOT_CONNECTION))
+            BotLogger.info(LOGGER, "机器人熔断器状态变化，机器人UUID：{}，API：{}，状态：{} -> {}", uuid, breaker.getAction() == null ? "全部" : breaker.getAction(), from, to);
+        BotLifecycleEvent.CIRCUIT_STATE_CHANGE.invoker().stateChange(this, breaker.getAction(), from, to);
+    }
+
+    private CompletableFuture<JSONObject> sendToApiAsync(String action, JSONObject params, @Nullable APIRequestType requestType) {
+        CallOptions options = CALL_OPTIONS.get();
+        return sendToApiAsync(action, params, requestType, options.timeout(), options.lane() != null ? options.lane() : LaneScheduler.classify(action, MineBotApi.config.lanes));
+    }
+
+    private CompletableFuture<JSONObject> sendToApiAsync(String action, JSONObject params, @Nullable APIRequestType requestType, long timeout, ApiLane lane) {
+        if (timeout <= 0) timeout = getApiTimeout(action);
+        if (!MineBotApi.config.retry.enabled || MineBotApi.config.retry.maxAttempts <= 1)
+            return attempt(action, params, requestType, lane, timeout);
+        CompletableFuture<JSONObject> result = new CompletableFuture<>();
+        attemptWithRetry(result, action, params, requestType, lane, System.nanoTime() + timeout * 1000000, 1);
+        return result;
+    }
+
+    private void attemptWithRetry(CompletableFuture<JSONObject> result, String action, JSONObject params, @Nullable APIRequestType requestType, ApiLane lane, long deadline, int attempt) {
+        long remaining = (deadline - System.nanoTime()) / 1000000;
+        if (result.isDone()) return;
+        if (remaining <= 0) {
+            result.completeExceptionally(timeoutException);
+            return;
         }
+        CompletableFuture<JSONObject> call = attempt(action, params, requestType, lane, remaining);
+        result.whenComplete((response, ex) -> call.cancel(false));
+        call.whenComplete((response, ex) -> {
+            boolean retryable = ex == null
+                    ? response.getInt("retcode") != 0 && RetryPolicy.shouldRetry(action, response.getInt("retcode"))
+                    : RetryPolicy.shouldRetry(action, ex);
+            long backoff = RetryPolicy.backoff(attempt);
+            if (retryable && attempt < MineBotApi.config.retry.maxAttempts && System.nanoTime() + backoff * 1000000 < deadline) {
+                metrics.recordApiRetry(action);
+                if (BotLogger.shouldLog(BotLogger.Category.API))
+                    BotLogger.info(LOGGER, "机器人API请求失败，将在{}ms后重试，机器人UUID：{}，API：{}，第{}次尝试", backoff, uuid, action, attempt + 1);
+                TIMEOUT_SCHEDULER.schedule(() -> attemptWithRetry(result, action, params, requestType, lane, deadline, attempt + 1), backoff, TimeUnit.MILLISECONDS);
+            } else if (ex == null) {
+                result.complete(response);
+            } else {
+                result.completeExceptionally(ex);
+            }
+        });
     }
 
-    private JSONObject sendToApi(String action, JSONObject params, @Nullable APIRequestType requestType) {
+    private CompletableFuture<JSONObject> attempt(String action, JSONObject params, @Nullable APIRequestType requestType, ApiLane lane, long timeout) {
+        ApiLatencyTracker.ActionStats stats = latency.get(action);
         UUID messageUUID = UUID.randomUUID();
-        action += requestType == null ? "" : requestType.getSuffix();
-        if (MineBotApi.config.logSettings.api)
-            LOGGER.info("机器人发送API请求，机器人UUID：{}，API：{}，参数：{}，请求UUID：{}", uuid, action, params, messageUUID);
-        while (true) {
-            if (this.isClosed()) throw new BotClosedException(this);
-            else if (this.isOpen()) break;
-            try {
-                Thread.sleep(100);
-            } catch (InterruptedException ignored) {
+        String fullAction = action + (requestType == null ? "" : requestType.getSuffix());
+        if (BotLogger.shouldLog(BotLogger.Category.API))
+            BotLogger.info(LOGGER, "机器人发送API请求，机器人UUID：{}，API：{}，参数：{}，请求UUID：{}，超时时间：{}ms", uuid, fullAction, params, messageUUID, timeout);
+        PendingCall call = new PendingCall();
+        if (this.isClosed()) {
+            call.completeExceptionally(closedException);
+            return call;
+        }
+        if (MineBotApi.config.circuitBreaker.enabled) {
+            CircuitBreaker actionBreaker = getCircuitBreaker(action);
+            if (!circuitBreaker.tryAcquire()) {
+                call.completeExceptionally(circuitOpenException);
+                return call;
             }
+            if (!actionBreaker.tryAcquire()) {
+                circuitBreaker.onIgnored();
+                call.completeExceptionally(actionCircuitOpenExceptions.computeIfAbsent(action, ignored -> new CircuitOpenException(this, action)));
+                return call;
+            }
+            call.whenComplete((response, ex) -> {
+                recordBotOutcome(circuitBreaker, response, ex);
+                recordActionOutcome(actionBreaker, response, ex);
+            });
         }
-        send(new JSONObject().put("action", action).put("params", params).put("echo", messageUUID.toString()).toString());
-        long requestTime = System.currentTimeMillis();
-        while (System.currentTimeMillis() - requestTime < MineBotApi.config.apiRequestTimeout) {
-            if (messages.containsKey(messageUUID)) {
-                JSONObject message = messages.get(messageUUID);
-                int retcode = message.getInt("retcode");
-                if (retcode == 0) {
-                    return messages.get(messageUUID);
-                } else {
-                    throw new BotRequestException(this, message.getString("message"), message.getString("wording"), retcode);
-                }
+        pendingCalls.put(messageUUID, call);
+        // 请求完成、超时或被取消后立即释放
+        ScheduledFuture<?> timeoutTask = TIMEOUT_SCHEDULER.schedule(() -> {
+            if (call.completeExceptionally(timeoutException)) {
+                metrics.recordApiTimeout(action);
+                commitApiCallEvent(call, fullAction, messageUUID, timeout * 1000, -1, true);
+                recordLatency(action, stats, timeout * 1000);
             }
-            try {
-                Thread.sleep(100);
-            } catch (InterruptedException ignored) {
+        }, timeout, TimeUnit.MILLISECONDS);
+        call.whenComplete((response, ex) -> {
+            pendingCalls.remove(messageUUID, call);
+            timeoutTask.cancel(false);
+            if (response != null) {
+                long rtt = (System.nanoTime() - call.sentAt) / 1000;
+                metrics.recordApiCall(action, rtt, response.optInt("retcode", -1));
+                commitApiCallEvent(call, fullAction, messageUUID, rtt, response.optInt("retcode", -1), false);
+                recordLatency(action, stats, rtt);
             }
+        });
+        String frame = new JSONObject().put("action", fullAction).put("params", params).put("echo", messageUUID.toString()).toString();
+        if (this.isOpen()) {
+            lanes.submit(lane, call, () -> sendFrame(frame, call));
+        } else { // 等待连接建立
+            opened.whenComplete((ignored, ex) -> {
+                if (ex != null) call.completeExceptionally(ex);
+                else lanes.submit(lane, call, () -> sendFrame(frame, call));
+            });
+        }
+        return call;
+    }
+
+    private static @Nullable PersistentOutbox openOutbox(String endpoint) {
+        ModConfig.OutboxSettings settings = MineBotApi.config.outbox;
+        if (!settings.enabled) return null;
+        Path directory = Path.of(settings.directory, endpoint.replaceAll("[^A-Za-z0-9.-]", "_"));
+        try {
+            return PersistentOutbox.open(directory, () -> MineBotApi.config.outbox);
+        } catch (IOException e) {
+            LOGGER.error("无法打开持久化发送队列，消息将不会在机器人不可用时保存，目录：" + directory, e);
+            return null;
+        }
+    }
+
+    /**
+     * 发送消息，机器人不可用或队列中还有未发送的消息时写入持久化发送队列
+     */
+    private <E> APIResponse<E> sendOrQueue(String action, JSONObject params, @Nullable APIRequestType requestType, Function<JSONObject, E> data) {
+        if (outbox != null && MineBotApi.config.outbox.actions.contains(action) && (!isOpen() || !outbox.isEmpty())) {
+            if (outbox.offer(action, params, requestType == null ? null : requestType.name())) {
+                metrics.increment("outbox_enqueued");
+                if (BotLogger.shouldLog(BotLogger.Category.API))
+                    BotLogger.info(LOGGER, "机器人不可用，请求已写入持久化发送队列，机器人UUID：{}，API：{}，参数：{}", uuid, action, params);
+                drainOutbox();
+                return new APIResponse<>(APIResponse.Status.ASYNC, 1, "queued", "已加入持久化发送队列", null);
+            }
+            LOGGER.warn("持久化发送队列已满，请求将直接发送！机器人UUID：{}，API：{}", uuid, action);
+        }
+        return call(action, params, requestType, data);
+    }
+
+    private void drainOutbox() {
+        if (outbox == null || !isOpen() || !draining.compareAndSet(false, true)) return;
+        PersistentOutbox.executor().execute(this::drainNext);
+    }
+
+    /**
+     * 逐条发送队列中的请求，收到响应（无论 retcode）后才确认并发送下一条
+     * 在发送队列的线程中执行，读写队列时可能等待刷盘
+     */
+    private void drainNext() {
+        PersistentOutbox.Entry entry = outbox.peek();
+        if (entry == null || !isOpen()) {
+            draining.set(false);
+            // 检查期间可能有新的请求进入队列
+            if (entry == null && !outbox.isEmpty()) drainOutbox();
+            return;
+        }
+        APIRequestType requestType = entry.requestType() == null ? null : APIRequestType.valueOf(entry.requestType());
+        sendToApiAsync(entry.action(), entry.params(), requestType, 0, ApiLane.BULK).whenComplete((response, ex) -> {
+            if (ex == null) {
+                PersistentOutbox.executor().execute(() -> outbox.ack(entry));
+                metrics.increment("outbox_delivered");
+                if (response.getInt("retcode") != 0)
+                    LOGGER.warn("持久化发送队列中的请求发送失败，已丢弃，机器人UUID：{}，API：{}，响应：{}", uuid, entry.action(), response);
+                long interval = (long) (1000 / Math.max(0.001, MineBotApi.config.outbox.drainRate));
+                PersistentOutbox.executor().schedule(this::drainNext, interval, TimeUnit.MILLISECONDS);
+            } else {
+                // 连接断开时等待重新连接，其他错误稍后重试
+                draining.set(false);
+                if (!(ex instanceof BotClosedException))
+                    PersistentOutbox.executor().schedule(this::drainOutbox, 1000, TimeUnit.MILLISECONDS);
+            }
+        });
+    }
+
+    /**
+     * 获取持久化发送队列
+     *
+     * @return 发送队列，未启用时为 {@code null}
+     */
+    public @Nullable PersistentOutbox getOutbox() {
+        return outbox;
+    }
+
+    private void recordLatency(String action, ApiLatencyTracker.ActionStats stats, long rtt) {
+        ModConfig.AdaptiveTimeoutSettings settings = MineBotApi.config.adaptiveTimeout;
+        switch (stats.record(rtt, settings)) {
+            case DEGRADED -> {
+                LOGGER.warn("机器人API延迟异常！机器人UUID：{}，API：{}，近期往返时间：{}ms，基线：{}ms", uuid, action, (long) stats.getRecent() / 1000, (long) stats.getBaseline() / 1000);
+                BotLifecycleEvent.BOT_DEGRADED.invoker().degraded(this, action, (long) stats.getRecent() / 1000, (long) stats.getBaseline() / 1000);
+            }
+            case RECOVERED -> {
+                LOGGER.info("机器人API延迟已恢复，机器人UUID：{}，API：{}，近期往返时间：{}ms，基线：{}ms", uuid, action, (long) stats.getRecent() / 1000, (long) stats.getBaseline() / 1000);
+                BotLifecycleEvent.BOT_RECOVERED.invoker().recovered(this, action, (long) stats.getRecent() / 1000, (long) stats.getBaseline() / 1000);
+            }
+        }
+    }
+
+    /**
+     * 记录整个机器人的调用结果，只统计超时与连接故障，
+     * 收到响应（包括业务错误，如权限不足、用户已退群）说明连接正常，业务错误只计入对应API的熔断器，避免一个API的错误阻止所有发送
+     */
+    private static void recordBotOutcome(CircuitBreaker breaker, @Nullable JSONObject response, @Nullable Throwable ex) {
+        if (response != null) breaker.onSuccess();
+        else if (ex instanceof ApiTimeoutException || ex instanceof BotClosedException) breaker.onFailure();
+        else breaker.onIgnored();
+    }
+
+    /**
+     * 记录单个API的调用结果，超时与 {@link ModConfig.CircuitBreakerSettings#ignoredRetcodes} 以外的错误 retcode 计为失败
+     */
+    private static void recordActionOutcome(CircuitBreaker breaker, @Nullable JSONObject response, @Nullable Throwable ex) {
+        if (response != null) {
+            int retcode = response.getInt("retcode");
+            if (retcode == 0 || MineBotApi.config.circuitBreaker.ignoredRetcodes.contains(retcode)) breaker.onSuccess();
+            else breaker.onFailure();
+        } else if (ex instanceof ApiTimeoutException) {
+            breaker.onFailure();
+        } else {
+            breaker.onIgnored();
+        }
+    }
+
+    private void sendFrame(String frame, PendingCall call) {
+        if (call.isDone()) return;
+        ApiCallEvent event = new ApiCallEvent();
+        if (event.isEnabled()) {
+            event.begin();
+            call.event = event;
+        }
+        call.sentAt = System.nanoTime();
+        // 先标记再写入，写入期间断开时按已发送处理
+        call.sent = true;
+        if (!transport.sendText(frame, call)) call.completeExceptionally(closedException);
+    }
+
+    /**
+     * 结束并提交API调用的 JFR 事件，事件从请求写入连接时开始，未发送就超时的请求提交不含持续时间的事件
+     */
+    private static void commitApiCallEvent(PendingCall call, String action, UUID echo, long rtt, int retcode, boolean timedOut) {
+        ApiCallEvent event = call.event;
+        if (event == null) event = new ApiCallEvent();
+        else event.end();
+        if (event.shouldCommit()) {
+            event.action = action;
+            event.echo = echo.toString();
+            event.rtt = rtt;
+            event.retcode = retcode;
+            event.timedOut = timedOut;
+            event.commit();
+        }
+    }
+
+    private <E> APIResponse<E> toResponse(JSONObject response, boolean throwOnFailure, Function<JSONObject, E> data) {
+        int retcode = response.getInt("retcode");
+        if (retcode != 0) {
+            if (throwOnFailure)
+                throw new BotRequestException(this, response.optString("message"), response.optString("wording"), retcode);
+            return new APIResponse<>(APIResponse.Status.FAIL, retcode, response.optString("message"), response.optString("wording"), null);
+        }
+        return new APIResponse<>(APIResponse.Status.getStatus(response.getString("status")), retcode, response.getString("message"), response.getString("wording"), data.apply(response));
+    }
+
+    private <E> APIResponse<E> call(String action, JSONObject params, @Nullable APIRequestType requestType, Function<JSONObject, E> data) {
+        BlockingCallPolicy policy = blockingCallGuard.check(action);
+        if (policy == BlockingCallPolicy.REJECT) throw new BlockingCallException(this, action);
+        if (policy == BlockingCallPolicy.REROUTE) {
+            sendToApiAsync(action, params, requestType).whenComplete((response, ex) -> {
+                if (ex != null) LOGGER.warn("改为异步发送的API请求失败，机器人UUID：{}，API：{}", uuid, action, ex);
+            });
+            return new APIResponse<>(APIResponse.Status.ASYNC, 1, "rerouted", "已改为异步发送", null);
+        }
+        return toResponse(sendToApi(action, params, requestType), CALL_OPTIONS.get().throwOnFailure(), data);
+    }
+
+    private JSONObject sendToApi(String action, JSONObject params, @Nullable APIRequestType requestType) {
+        CompletableFuture<JSONObject> call = sendToApiAsync(action, params, requestType);
+        try {
+            return call.get();
+        } catch (InterruptedException e) {
+            call.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new ApiCancelledException(this);
+        } catch (CancellationException e) {
+            throw new ApiCancelledException(this);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof BotException botException) throw botException;
+            throw new CompletionException(e.getCause());
         }
-        throw new ApiTimeoutException(this);
     }
 
     @Override
     public APIResponse<Integer> sendPrivateMsg(long userId, @NotNull Message message, boolean autoEscape, @Nullable APIRequestType requestType) {
-        JSONObject response = sendToApi("send_private_msg", new JSONObject().put("user_id", userId).put("message", message.getMessage()).put("autoEscape", autoEscape), requestType);
-        JSONObject responseData = response.getJSONObject("data");
-        return new APIResponse<>(APIResponse.Status.getStatus(response.getString("status")), response.getInt("retcode"), response.getString("message"), response.getString("wording"), responseData.getInt("message_id"));
+        return sendOrQueue("send_private_msg", new JSONObject().put("user_id", userId).put("message", message.getMessage()).put("auto_escape", autoEscape), requestType, response -> response.getJSONObject("data").getInt("message_id"));
     }
 
     @Override
     public APIResponse<Integer> sendGroupMsg(long groupId, @NotNull Message message, boolean autoEscape, @Nullable APIRequestType requestType) {
-        JSONObject response = sendToApi("send_group_msg", new JSONObject().put("user_id", groupId).put("message", message.getMessage()).put("autoEscape", autoEscape), requestType);
-        JSONObject responseData = response.getJSONObject("data");
-        return new APIResponse<>(APIResponse.Status.getStatus(response.getString("status")), response.getInt("retcode"), response.getString("message"), response.getString("wording"), responseData.getInt("message_id"));
+        return sendOrQueue("send_group_msg", new JSONObject().put("group_id", groupId).put("message", message.getMessage()).put("auto_escape", autoEscape), requestType, response -> response.getJSONObject("data").getInt("message_id"));
     }
 
     @Override
     public APIResponse<Integer> sendMsg(@Nullable MessageType messageType, long userId, long groupId, @NotNull Message message, boolean autoEscape, @Nullable APIRequestType requestType) {
-        JSONObject response = sendToApi("send_msg", new JSONObject().put("message_type", messageType == null ? null : messageType.getValue()).put("user_id", userId).put("group_id", groupId).put("message", message.getMessage()).put("autoEscape", autoEscape), requestType);
-        JSONObject responseData = response.getJSONObject("data");
-        return new APIResponse<>(APIResponse.Status.getStatus(response.getString("status")), response.getInt("retcode"), response.getString("message"), response.getString("wording"), responseData.getInt("message_id"));
+        return sendOrQueue("send_msg", new JSONObject().put("message_type", messageType == null ? null : messageType.getValue()).put("user_id", userId).put("group_id", groupId).put("message", message.getMessage()).put("auto_escape", autoEscape), requestType, response -> response.getJSONObject("data").getInt("message_id"));
     }
 
     @Override
     public APIResponse<Void> recallMsg(int messageId, @Nullable APIRequestType requestType) {
-        JSONObject response = sendToApi("send_msg", new JSONObject().put("message_id", messageId), requestType);
-        return new APIResponse<>(APIResponse.Status.getStatus(response.getString("status")), response.getInt("retcode"), response.getString("message"), response.getString("wording"), null);
+        return call("delete_msg", new JSONObject().put("message_id", messageId), requestType, response -> null);
     }
 
     @Override
     public APIResponse<MessageInfo> getMsg(int messageId, @Nullable APIRequestType requestType) {
-        JSONObject response = sendToApi("get_msg", new JSONObject().put("message_id", messageId), requestType);
-        return new APIResponse<>(APIResponse.Status.getStatus(response.getString("status")), response.getInt("retcode"), response.getString("message"), response.getString("wording"), MessageInfo.fromJSON(response.getJSONObject("data")));
+        return call("get_msg", new JSONObject().put("message_id", messageId), requestType, response -> MessageInfo.fromJSON(response.getJSONObject("data")));
     }
 
     @Override
     public APIResponse<ArrayMessage> getForwardMsg(@NotNull String id, @Nullable APIRequestType requestType) {
-        JSONObject response = sendToApi("get_forward_msg", new JSONObject().put("id", id), requestType);
-        JSONObject responseData = response.getJSONObject("data");
-        return new APIResponse<>(APIResponse.Status.getStatus(response.getString("status")), response.getInt("retcode"), response.getString("message"), response.getString("wording"), ArrayMessage.fromJSON(responseData.getJSONArray("messages")));
+        return call("get_forward_msg", new JSONObject().put("id", id), requestType, response -> ArrayMessage.fromJSON(response.getJSONObject("data").getJSONArray("messages")));
     }
 
     @Override
     public APIResponse<Void> sendLike(long userId, int times, @Nullable APIRequestType requestType) {
-        JSONObject response = sendToApi("send_like", new JSONObject().put("user_id", userId).put("times", times), requestType);
-        return new APIResponse<>(APIResponse.Status.getStatus(response.getString("status")), response.getInt("retcode"), response.getString("message"), response.getString("wording"), null);
+        return call("send_like", new JSONObject().put("user_id", userId).put("times", times), requestType, response -> null);
     }
 
     @Override
     public APIResponse<Void> setGroupKick(long groupId, long userId, boolean rejectAddRequest, @Nullable APIRequestType requestType) {
-        JSONObject response = sendToApi("set_group_kick", new JSONObject().put("group_id", groupId).put("user_id", userId).put("reject_add_request", rejectAddRequest), requestType);
-        return new APIResponse<>(APIResponse.Status.getStatus(response.getString("status")), response.getInt("retcode"), response.getString("message"), response.getString("wording"), null);
+        return call("set_group_kick", new JSONObject().put("group_id", groupId).put("user_id", userId).put("reject_add_request", rejectAddRequest), requestType, response -> null);
     }
 
     @Override
     public APIResponse<Void> setGroupMute(long groupId, long userId, long duration, @Nullable APIRequestType requestType) {
-        JSONObject response = sendToApi("set_group_ban", new JSONObject().put("group_id", groupId).put("user_id", userId).put("duration", duration), requestType);
-        return new APIResponse<>(APIResponse.Status.getStatus(response.getString("status")), response.getInt("retcode"), response.getString("message"), response.getString("wording"), null);
+        return call("set_group_ban", new JSONObject().put("group_id", groupId).put("user_id", userId).put("duration", duration), requestType, response -> null);
     }
 
     @Override
     public APIResponse<Void> setGroupAnonymousMute(long groupId, @Nullable MessageSenderAnonymous anonymous, @Nullable String flag, long duration, @Nullable APIRequestType requestType) {
-        JSONObject response = sendToApi("set_group_anonymous_ban", new JSONObject().put("group_id", groupId).put("anonymous", anonymous == null ? null : anonymous.toJSON()).put("anonymous_flag", flag).put("duration", duration), requestType);
-        return new APIResponse<>(APIResponse.Status.getStatus(response.getString("status")), response.getInt("retcode"), response.getString("message"), response.getString("wording"), null);
+        return call("set_group_anonymous_ban", new JSONObject().put("group_id", groupId).put("anonymous", anonymous == null ? null : anonymous.toJSON()).put("anonymous_flag", flag).put("duration", duration), requestType, response -> null);
     }
 
     @Override
     public APIResponse<Void> setGroupWholeMute(long groupId, boolean enable, @Nullable APIRequestType requestType) {
-        JSONObject response = sendToApi("set_group_whole_ban", new JSONObject().put("group_id", groupId).put("enable", enable), requestType);
-        return new APIResponse<>(APIResponse.Status.getStatus(response.getString("status")), response.getInt("retcode"), response.getString("message"), response.getString("wording"), null);
+        return call("set_group_whole_ban", new JSONObject().put("group_id", groupId).put("enable", enable), requestType, response -> null);
     }
 
     @Override
     public APIResponse<Void> setGroupAdmin(long groupId, long userId, boolean enable, @Nullable APIRequestType requestType) {
-        JSONObject response = sendToApi("set_group_admin", new JSONObject().put("group_id", groupId).put("user_id", userId).put("enable", enable), requestType);
-        return new APIResponse<>(APIResponse.Status.getStatus(response.getString("status")), response.getInt("retcode"), response.getString("message"), response.getString("wording"), null);
+        return call("set_group_admin", new JSONObject().put("group_id", groupId).put("user_id", userId).put("enable", enable), requestType, response -> null);
     }
 
     @Override
     public APIResponse<Void> setGroupAnonymous(long groupId, boolean enable, @Nullable APIRequestType requestType) {
-        JSONObject response = sendToApi("set_group_anonymous", new JSONObject().put("group_id", groupId).put("enable", enable), requestType);
-        return new APIResponse<>(APIResponse.Status.getStatus(response.getString("status")), response.getInt("retcode"), response.getString("message"), response.getString("wording"), null);
+        return call("set_group_anonymous", new JSONObject().put("group_id", groupId).put("enable", enable), requestType, response -> null);
     }
 
     @Override
     public APIResponse<Void> setGroupCard(long groupId, long userId, @Nullable String card, @Nullable APIRequestType requestType) {
-        JSONObject response = sendToApi("set_group_card", new JSONObject().put("group_id", groupId).put("user_id", userId).put("card", card), requestType);
-        return new APIResponse<>(APIResponse.Status.getStatus(response.getString("status")), response.getInt("retcode"), response.getString("message"), response.getString("wording"), null);
+        return call("set_group_card", new JSONObject().put("group_id", groupId).put("user_id", userId).put("card", card), requestType, response -> null);
     }
 
     @Override
     public APIResponse<Void> setGroupName(long groupId, @NotNull String groupName, @Nullable APIRequestType requestType) {
-        JSONObject response = sendToApi("set_group_name", new JSONObject().put("group_id", groupId).put("group_name", groupName), requestType);
-        return new APIResponse<>(APIResponse.Status.getStatus(response.getString("status")), response.getInt("retcode"), response.getString("message"), response.getString("wording"), null);
+        return call("set_group_name", new JSONObject().put("group_id", groupId).put("group_name", groupName), requestType, response -> null);
     }
 
     @Override
     public APIResponse<Void> setGroupLeave(long groupId, boolean isDismiss, @Nullable APIRequestType requestType) {
-        JSONObject response = sendToApi("set_group_card", new JSONObject().put("group_id", groupId).put("is_dismiss", isDismiss), requestType);
-        return new APIResponse<>(APIResponse.Status.getStatus(response.getString("status")), response.getInt("retcode"), response.getString("message"), response.getString("wording"), null);
+        return call("set_group_leave", new JSONObject().put("group_id", groupId).put("is_dismiss", isDismiss), requestType, response -> null);
     }
 
     @Override
     public APIResponse<Void> setGroupSpecialTitle(long groupId, long userId, @Nullable String specialTitle, long duration, @Nullable APIRequestType requestType) {
-        JSONObject response = sendToApi("set_group_special_title", new JSONObject().put("group_id", groupId).put("user_id", userId).put("special_title", specialTitle).put("duration", duration), requestType);
-        return new APIResponse<>(APIResponse.Status.getStatus(response.getString("status")), response.getInt("retcode"), response.getString("message"), response.getString("wording"), null);
+        return call("set_group_special_title", new JSONObject().put("group_id", groupId).put("user_id", userId).put("special_title", specialTitle).put("duration", duration), requestType, response -> null);
     }
 
     @Override
     public APIResponse<Void> setFriendAddRequest(String flag, boolean approve, @Nullable String remark, @Nullable APIRequestType requestType) {
-        JSONObject response = sendToApi("set_friend_add_request", new JSONObject().put("flag", flag).put("approve", approve).put("remark", remark), requestType);
-        return new APIResponse<>(APIResponse.Status.getStatus(response.getString("status")), response.getInt("retcode"), response.getString("message"), response.getString("wording"), null);
+        return call("set_friend_add_request", new JSONObject().put("flag", flag).put("approve", approve).put("remark", remark), requestType, response -> null);
     }
 
     @Override
     public APIResponse<Void> setGroupAddRequest(String flag, GroupRequestSubType subType, boolean approve, @Nullable String reason, @Nullable APIRequestType requestType) {
-        JSONObject response = sendToApi("set_group_add_request", new JSONObject().put("flag", flag).put("sub_type", subType.getValue()).put("approve", approve).put("reason", reason), requestType);
-        return new APIResponse<>(APIResponse.Status.getStatus(response.getString("status")), response.getInt("retcode"), response.getString("message"), response.getString("wording"), null);
+        return call("set_group_add_request", new JSONObject().put("flag", flag).put("sub_type", subType.getValue()).put("approve", approve).put("reason", reason), requestType, response -> null);
     }
 
     @Override
     public APIResponse<LoginInfo> getLoginInfo(@Nullable APIRequestType requestType) {
-        JSONObject response = sendToApi("get_login_info", new JSONObject(), requestType);
-        JSONObject responseData = response.getJSONObject("data");
-        return new APIResponse<>(APIResponse.Status.getStatus(response.getString("status")), response.getInt("retcode"), response.getString("message"), response.getString("wording"), LoginInfo.fromJSON(responseData));
+        return call("get_login_info", new JSONObject(), requestType, response -> LoginInfo.fromJSON(response.getJSONObject("data")));
     }
 
     @Override
     public APIResponse<StrangerInfo> getStrangerInfo(long userId, boolean noCache, @Nullable APIRequestType requestType) {
-        JSONObject response = sendToApi("get_stranger_info", new JSONObject().put("user_id", userId).put("no_cache", noCache), requestType);
-        JSONObject responseData = response.getJSONObject("data");
-        return new APIResponse<>(APIResponse.Status.getStatus(response.getString("status")), response.getInt("retcode"), response.getString("message"), response.getString("wording"), StrangerInfo.fromJSON(responseData));
+        return call("get_stranger_info", new JSONObject().put("user_id", userId).put("no_cache", noCache), requestType, response -> StrangerInfo.fromJSON(response.getJSONObject("data")));
     }
 
     @Override
     public APIResponse<FriendInfo[]> getFriendList(@Nullable APIRequestType requestType) {
-        JSONObject response = sendToApi("get_friend_list", new JSONObject(), requestType);
-        JSONArray responseData = response.getJSONArray("data");
-        FriendInfo[] friends = new FriendInfo[responseData.length()];
-        for (int i = 0; i < responseData.length(); i++) {
-            friends[i] = FriendInfo.fromJSON(responseData.getJSONObject(i));
-        }
-        return new APIResponse<>(APIResponse.Status.getStatus(response.getString("status")), response.getInt("retcode"), response.getString("message"), response.getString("wording"), friends);
+        return call("get_friend_list", new JSONObject(), requestType, response -> {
+            JSONArray responseData = response.getJSONArray("data");
+            FriendInfo[] friends = new FriendInfo[responseData.length()];
+            for (int i = 0; i < responseData.length(); i++) {
+                friends[i] = FriendInfo.fromJSON(responseData.getJSONObject(i));
+            }
+            return friends;
+        });
     }
 
     @Override
     public APIResponse<GroupInfo> getGroupInfo(long groupId, boolean noCache, @Nullable APIRequestType requestType) {
-        JSONObject response = sendToApi("set_group_add_request", new JSONObject().put("group_id", groupId).put("no_cache", noCache), requestType);
-        JSONObject responseData = response.getJSONObject("data");
-        return new APIResponse<>(APIResponse.Status.getStatus(response.getString("status")), response.getInt("retcode"), response.getString("message"), response.getString("wording"), GroupInfo.fromJSON(responseData));
+        return call("get_group_info", new JSONObject().put("group_id", groupId).put("no_cache", noCache), requestType, response -> GroupInfo.fromJSON(response.getJSONObject("data")));
+    }
+
+    @Override
+    public APIResponse<GroupInfo[]> getGroupList(@Nullable APIRequestType requestType) {
+        return call("get_group_list", new JSONObject(), requestType, response -> {
+            JSONArray responseData = response.getJSONArray("data");
+            GroupInfo[] groupList = new GroupInfo[responseData.length()];
+            for (int i = 0; i < responseData.length(); i++) {
+                groupList[i] = GroupInfo.fromJSON(responseData.getJSONObject(i));
+            }
+            return groupList;
+        });
     }
 
     @Override
     public APIResponse<GroupMemberInfo> getGroupMemberInfo(long groupId, long userId, boolean noCache, @Nullable APIRequestType requestType) {
-        JSONObject response = sendToApi("get_group_member_info", new JSONObject().put("group_id", groupId).put("user_id", userId).put("no_cache", noCache), requestType);
-        JSONObject responseData = response.getJSONObject("data");
-        return new APIResponse<>(APIResponse.Status.getStatus(response.getString("status")), response.getInt("retcode"), response.getString("message"), response.getString("wording"), GroupMemberInfo.fromJSON(responseData));
+        return call("get_group_member_info", new JSONObject().put("group_id", groupId).put("user_id", userId).put("no_cache", noCache), requestType, response -> GroupMemberInfo.fromJSON(response.getJSONObject("data")));
     }
 
     @Override
     public APIResponse<GroupMemberInfo[]> getGroupMemberList(long groupId, @Nullable APIRequestType requestType) {
-        JSONObject response = sendToApi("get_group_member_list", new JSONObject().put("group_id", groupId), requestType);
-        JSONArray responseData = response.getJSONArray("data");
-        GroupMemberInfo[] groupMemberList = new GroupMemberInfo[responseData.length()];
-        for (int i = 0; i < responseData.length(); i++) {
-            groupMemberList[i] = GroupMemberInfo.fromJSON(responseData.getJSONObject(i));
-        }
-        return new APIResponse<>(APIResponse.Status.getStatus(response.getString("status")), response.getInt("retcode"), response.getString("message"), response.getString("wording"), groupMemberList);
+        return call("get_group_member_list", new JSONObject().put("group_id", groupId), requestType, response -> {
+            JSONArray responseData = response.getJSONArray("data");
+            GroupMemberInfo[] groupMemberList = new GroupMemberInfo[responseData.length()];
+            for (int i = 0; i < responseData.length(); i++) {
+                groupMemberList[i] = GroupMemberInfo.fromJSON(responseData.getJSONObject(i));
+            }
+            return groupMemberList;
+        });
     }
 
     @Override
     public APIResponse<GroupHonorInfo> getGroupHonorInfo(long groupId, HonorType type, @Nullable APIRequestType requestType) {
-        JSONObject response = sendToApi("get_group_honor_info", new JSONObject().put("group_id", groupId).put("type", type.getValue()), requestType);
-        JSONObject responseData = response.getJSONObject("data");
-        return new APIResponse<>(APIResponse.Status.getStatus(response.getString("status")), response.getInt("retcode"), response.getString("message"), response.getString("wording"), GroupHonorInfo.fromJSON(responseData));
+        return call("get_group_honor_info", new JSONObject().put("group_id", groupId).put("type", type.getValue()), requestType, response -> GroupHonorInfo.fromJSON(response.getJSONObject("data")));
     }
 
     @Override
     public APIResponse<String> getCookies(String domain, @Nullable APIRequestType requestType) {
-        JSONObject response = sendToApi("get_cookies", new JSONObject().put("domain", domain), requestType);
-        JSONObject responseData = response.getJSONObject("data");
-        return new APIResponse<>(APIResponse.Status.getStatus(response.getString("status")), response.getInt("retcode"), response.getString("message"), response.getString("wording"), responseData.getString("cookies"));
+        return call("get_cookies", new JSONObject().put("domain", domain), requestType, response -> response.getJSONObject("data").getString("cookies"));
     }
 
     @Override
     public APIResponse<Integer> getCsrfToken(@Nullable APIRequestType requestType) {
-        JSONObject response = sendToApi("get_csrf_token", new JSONObject(), requestType);
-        JSONObject responseData = response.getJSONObject("data");
-        return new APIResponse<>(APIResponse.Status.getStatus(response.getString("status")), response.getInt("retcode"), response.getString("message"), response.getString("wording"), responseData.getInt("token"));
+        return call("get_csrf_token", new JSONObject(), requestType, response -> response.getJSONObject("data").getInt("token"));
     }
 
     @Override
     public APIResponse<Credentials> getCredentials(String domain, @Nullable APIRequestType requestType) {
-        JSONObject response = sendToApi("get_credentials", new JSONObject().put("domain", domain), requestType);
-        JSONObject responseData = response.getJSONObject("data");
-        return new APIResponse<>(APIResponse.Status.getStatus(response.getString("status")), response.getInt("retcode"), response.getString("message"), response.getString("wording"), Credentials.fromJSON(responseData));
+        return call("get_credentials", new JSONObject().put("domain", domain), requestType, response -> Credentials.fromJSON(response.getJSONObject("data")));
     }
 
     @Override
     public APIResponse<String> getRecord(String file, RecordOutFormat outFormat, @Nullable APIRequestType requestType) {
-        JSONObject response = sendToApi("get_record", new JSONObject().put("file", file).put("out_format", outFormat), requestType);
-        JSONObject responseData = response.getJSONObject("data");
-        return new APIResponse<>(APIResponse.Status.getStatus(response.getString("status")), response.getInt("retcode"), response.getString("message"), response.getString("wording"), responseData.getString("file"));
+        return call("get_record", new JSONObject().put("file", file).put("out_format", outFormat), requestType, response -> response.getJSONObject("data").getString("file"));
     }
 
     @Override
     public APIResponse<String> getImage(String file, @Nullable APIRequestType requestType) {
-        JSONObject response = sendToApi("get_image", new JSONObject().put("file", file), requestType);
-        JSONObject responseData = response.getJSONObject("data");
-        return new APIResponse<>(APIResponse.Status.getStatus(response.getString("status")), response.getInt("retcode"), response.getString("message"), response.getString("wording"), responseData.getString("file"));
+        return call("get_image", new JSONObject().put("file", file), requestType, response -> response.getJSONObject("data").getString("file"));
     }
 
     @Override
     public APIResponse<Boolean> canSendImage(@Nullable APIRequestType requestType) {
-        JSONObject response = sendToApi("can_send_image", new JSONObject(), requestType);
-        JSONObject responseData = response.getJSONObject("data");
-        return new APIResponse<>(APIResponse.Status.getStatus(response.getString("status")), response.getInt("retcode"), response.getString("message"), response.getString("wording"), responseData.getBoolean("yes"));
+        return call("can_send_image", new JSONObject(), requestType, response -> response.getJSONObject("data").getBoolean("yes"));
     }
 
     @Override
     public APIResponse<Boolean> canSendRecord(@Nullable APIRequestType requestType) {
-        JSONObject response = sendToApi("can_send_record", new JSONObject(), requestType);
-        JSONObject responseData = response.getJSONObject("data");
-        return new APIResponse<>(APIResponse.Status.getStatus(response.getString("status")), response.getInt("retcode"), response.getString("message"), response.getString("wording"), responseData.getBoolean("yes"));
+        return call("can_send_record", new JSONObject(), requestType, response -> response.getJSONObject("data").getBoolean("yes"));
     }
 
     @Override
     public APIResponse<BotStatus> getStatus(@Nullable APIRequestType requestType) {
-        JSONObject response = sendToApi("get_status", new JSONObject(), requestType);
-        JSONObject responseData = response.getJSONObject("data");
-        return new APIResponse<>(APIResponse.Status.getStatus(response.getString("status")), response.getInt("retcode"), response.getString("message"), response.getString("wording"), BotStatus.fromJson(responseData));
+        return call("get_status", new JSONObject(), requestType, response -> BotStatus.fromJson(response.getJSONObject("data")));
     }
 
     @Override
     public APIResponse<VersionInfo> getVersionInfo(@Nullable APIRequestType requestType) {
-        JSONObject response = sendToApi("get_version_info", new JSONObject(), requestType);
-        JSONObject responseData = response.getJSONObject("data");
-        return new APIResponse<>(APIResponse.Status.getStatus(response.getString("status")), response.getInt("retcode"), response.getString("message"), response.getString("wording"), VersionInfo.fromJson(responseData));
+        return call("get_version_info", new JSONObject(), requestType, response -> VersionInfo.fromJson(response.getJSONObject("data")));
     }
 
     @Override
     public APIResponse<Void> restart(int delay, @Nullable APIRequestType requestType) {
-        JSONObject response = sendToApi("set_restart", new JSONObject().put("delay", delay), requestType);
-        return new APIResponse<>(APIResponse.Status.getStatus(response.getString("status")), response.getInt("retcode"), response.getString("message"), response.getString("wording"), null);
+        return call("set_restart", new JSONObject().put("delay", delay), requestType, response -> null);
     }
 
     @Override
     public APIResponse<Void> cleanCache(@Nullable APIRequestType requestType) {
-        JSONObject response = sendToApi("clean_cache", new JSONObject(), requestType);
-        return new APIResponse<>(APIResponse.Status.getStatus(response.getString("status")), response.getInt("retcode"), response.getString("message"), response.getString("wording"), null);
+        return call("clean_cache", new JSONObject(), requestType, response -> null);
     }
 
     @Override
     public APIResponse<JSONObject> customApi(String action, JSONObject params, @Nullable APIRequestType requestType) {
-        JSONObject response = sendToApi(action, params, requestType);
-        return new APIResponse<>(APIResponse.Status.getStatus(response.getString("status")), response.getInt("retcode"), response.getString("message"), response.getString("wording"), response.getJSONObject("data"));
+        return call(action, params, requestType, response -> response.optJSONObject("data"));
+    }
+
+    @Override
+    public CompletableFuture<APIResponse<JSONObject>> customApiAsync(String action, JSONObject params, @Nullable APIRequestType requestType) {
+        boolean throwOnFailure = CALL_OPTIONS.get().throwOnFailure();
+        return sendToApiAsync(action, params, requestType).thenApply(response -> toResponse(response, throwOnFailure, data -> data.optJSONObject("data")));
+    }
+
+    @Override
+    public Bot withTimeout(long timeout) {
+        return new OptionsView(CALL_OPTIONS.get().withTimeout(timeout));
+    }
+
+    @Override
+    public Bot withLane(ApiLane lane) {
+        return new OptionsView(CALL_OPTIONS.get().withLane(lane));
+    }
+
+    @Override
+    public BotMetrics.Snapshot metrics() {
+        return metrics.snapshot();
+    }
+
+    @Override
+    public Bot nonThrowing() {
+        return new OptionsView(CALL_OPTIONS.get().withThrowOnFailure(false));
+    }
+
+    /**
+     * 等待响应中的API请求
+     */
+    private static class PendingCall extends CompletableFuture<JSONObject> {
+        volatile long sentAt = System.nanoTime();
+        /**
+         * 是否已写入连接，在优先级通道中排队时为 {@code false}
+         */
+        volatile boolean sent;
+        /**
+         * 请求写入连接时开始的 JFR 事件，未启用记录时为 {@code null}
+         */
+        volatile @Nullable ApiCallEvent event;
+    }
+
+    /**
+     * 单次API调用的选项
+     *
+     * @param timeout        超时时间，单位毫秒，不大于 {@code 0} 时使用配置中该API的默认超时时间
+     * @param throwOnFailure 返回非 {@code 0} retcode 时是否抛出 {@link BotRequestException}
+     * @param lane           优先级通道，为 {@code null} 时按API自动选择
+     */
+    private record CallOptions(long timeout, boolean throwOnFailure, @Nullable ApiLane lane) {
+        static final CallOptions DEFAULT = new CallOptions(0, true, null);
+
+        CallOptions withTimeout(long timeout) {
+            return new CallOptions(timeout, throwOnFailure, lane);
+        }
+
+        CallOptions withThrowOnFailure(boolean throwOnFailure) {
+            return new CallOptions(timeout, throwOnFailure, lane);
+        }
+
+        CallOptions withLane(ApiLane lane) {
+            return new CallOptions(timeout, throwOnFailure, lane);
+        }
+    }
+
+    /**
+     * 以指定选项调用API的机器人视图
+     */
+    private class OptionsView extends ForwardingBot {
+        private final CallOptions options;
+
+        OptionsView(CallOptions options) {
+            this.options = options;
+        }
+
+        @Override
+        protected Bot delegate() {
+            return WSBot.this;
+        }
+
+        @Override
+        protected <T> T forward(Function<Bot, T> call) {
+            CallOptions previous = CALL_OPTIONS.get();
+            CALL_OPTIONS.set(options);
+            try {
+                return call.apply(WSBot.this);
+            } finally {
+                CALL_OPTIONS.set(previous);
+            }
+        }
     }
 }
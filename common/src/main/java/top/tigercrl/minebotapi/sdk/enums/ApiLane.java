@@ -0,0 +1,27 @@
+package top.tigercrl.minebotapi.sdk.enums;
+
+import top.tigercrl.minebotapi.ModConfig;
+
+/**
+ * API请求的优先级通道
+ * 同时进行中的请求数达到 {@link ModConfig.LaneSettings#maxInFlight} 时，新的请求在各自的通道中排队，
+ * 有空位时按各通道的权重轮流发送。未启用 {@link ModConfig.LaneSettings#enabled} 时所有请求都立即发送，通道不起作用
+ */
+public enum ApiLane {
+    /**
+     * 群管理操作（禁言、踢人等），权重最高，并且有预留的空位
+     */
+    MODERATION,
+    /**
+     * 交互回复（普通的发送消息）
+     */
+    INTERACTIVE,
+    /**
+     * 批量发送或广播
+     */
+    BULK,
+    /**
+     * 后台刷新（获取信息类的API）
+     */
+    BACKGROUND
+}
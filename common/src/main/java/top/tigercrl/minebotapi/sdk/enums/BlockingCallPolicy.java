@@ -0,0 +1,19 @@
+package top.tigercrl.minebotapi.sdk.enums;
+
+/**
+ * 在 Minecraft 服务器线程中调用同步API时的处理方式
+ */
+public enum BlockingCallPolicy {
+    /**
+     * 输出警告日志后照常阻塞调用
+     */
+    WARN,
+    /**
+     * 改为异步发送，立即返回状态为 {@code async} 的响应，不等待结果
+     */
+    REROUTE,
+    /**
+     * 抛出 {@link top.tigercrl.minebotapi.sdk.exceptions.BlockingCallException}，请求不会被发送
+     */
+    REJECT
+}
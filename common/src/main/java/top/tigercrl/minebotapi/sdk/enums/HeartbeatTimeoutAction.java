@@ -0,0 +1,19 @@
+package top.tigercrl.minebotapi.sdk.enums;
+
+/**
+ * 心跳超时时执行的操作
+ */
+public enum HeartbeatTimeoutAction {
+    /**
+     * 输出警告日志，超时期间按间隔重复输出
+     */
+    WARN,
+    /**
+     * 断开并重新连接
+     */
+    RECONNECT,
+    /**
+     * 让所有等待响应的API请求立即失败，而不是等到各自超时
+     */
+    FAIL_PENDING
+}
@@ -0,0 +1,26 @@
+package top.tigercrl.minebotapi.sdk.enums;
+
+import top.tigercrl.minebotapi.ModConfig;
+
+/**
+ * 入站事件队列已满（达到 {@link ModConfig.InboundQueueSettings#capacity}）时的处理方式
+ * 元事件与API响应不进入队列，不会被丢弃
+ */
+public enum InboundOverflowPolicy {
+    /**
+     * 暂停读取事件连接，由 TCP 流量控制让服务器放慢推送，只在事件与API响应使用不同连接时
+     * （{@link ModConfig.TransportSettings#apiConnections} 大于 0）生效。
+     * 暂停后已从连接中读取的帧仍会入队，队列最多为容量的两倍，超出的事件被丢弃。
+     * 事件与API响应在同一连接上时暂停读取会让API响应也无法读取，因此不会暂停，新的事件被丢弃并记录警告
+     */
+    BLOCK,
+    /**
+     * 丢弃队列中最早的聊天消息，队列中没有聊天消息时新的聊天消息直接丢弃，
+     * 通知与请求事件无法腾出空位时按 {@link #BLOCK} 处理
+     */
+    DROP_OLDEST,
+    /**
+     * 丢弃队列中与新消息来自同一会话（群或私聊对象）的旧消息，没有时按 {@link #DROP_OLDEST} 处理
+     */
+    COALESCE
+}
@@ -5,14 +5,18 @@ import dev.architectury.event.EventFactory;
 import org.java_websocket.WebSocket;
 import org.java_websocket.handshake.ClientHandshake;
 import org.java_websocket.handshake.ServerHandshake;
+import org.jetbrains.annotations.Nullable;
 import org.json.JSONObject;
 import top.tigercrl.minebotapi.sdk.bot.Bot;
+import top.tigercrl.minebotapi.sdk.bot.CircuitBreaker;
+import top.tigercrl.minebotapi.sdk.enums.InboundOverflowPolicy;
 
 /**
  * MineBot API 提供的一些事件
  */
 public interface BotLifecycleEvent {
     Event<BotMessage> BOT_MESSAGE = EventFactory.createLoop();
+    Event<BotFrame> BOT_FRAME = EventFactory.createLoop();
     Event<WebSocketStart> WEBSOCKET_START = EventFactory.createLoop();
     Event<WebSocketConnect> WEBSOCKET_CONNECT = EventFactory.createLoop();
     Event<WebSocketDisconnect> WEBSOCKET_DISCONNECT = EventFactory.createLoop();
@@ -22,6 +26,11 @@ public interface BotLifecycleEvent {
     Event<WebSocketReverseStop> WEBSOCKET_REVERSE_STOP = EventFactory.createLoop();
     Event<HttpPostStart> HTTP_POST_START = EventFactory.createLoop();
     Event<HttpPostStop> HTTP_POST_STOP = EventFactory.createLoop();
+    Event<BotDegraded> BOT_DEGRADED = EventFactory.createLoop();
+    Event<BotRecovered> BOT_RECOVERED = EventFactory.createLoop();
+    Event<CircuitStateChange> CIRCUIT_STATE_CHANGE = EventFactory.createLoop();
+    Event<InboundDrop> INBOUND_DROP = EventFactory.createLoop();
+    Event<Failover> FAILOVER = EventFactory.createLoop();
 
     interface BotMessage {
         /**
@@ -33,6 +42,16 @@ public interface BotLifecycleEvent {
         void message(Bot bot, JSONObject message);
     }
 
+    interface BotFrame {
+        /**
+         * 接收到帧，在解析之前调用
+         *
+         * @param bot   触发事件的机器人
+         * @param frame 帧的原始文本
+         */
+        void frame(Bot bot, String frame);
+    }
+
     interface WebSocketStart {
         /**
          * 正向WebSocket客户端启动
@@ -123,4 +142,63 @@ public interface BotLifecycleEvent {
          */
         void stop(Bot bot);
     }
+
+    interface BotDegraded {
+        /**
+         * API往返时间明显高于基线
+         *
+         * @param bot         触发事件的机器人
+         * @param action      API名称
+         * @param recentRtt   近期往返时间，单位毫秒
+         * @param baselineRtt 往返时间基线，单位毫秒
+         */
+        void degraded(Bot bot, String action, long recentRtt, long baselineRtt);
+    }
+
+    interface BotRecovered {
+        /**
+         * API往返时间恢复正常
+         *
+         * @param bot         触发事件的机器人
+         * @param action      API名称
+         * @param recentRtt   近期往返时间，单位毫秒
+         * @param baselineRtt 往返时间基线，单位毫秒
+         */
+        void recovered(Bot bot, String action, long recentRtt, long baselineRtt);
+    }
+
+    interface CircuitStateChange {
+        /**
+         * 熔断器状态变化
+         *
+         * @param bot    触发事件的机器人
+         * @param action API名称，为 {@code null} 表示机器人整体的熔断器
+         * @param from   原状态
+         * @param to     新状态
+         */
+        void stateChange(Bot bot, @Nullable String action, CircuitBreaker.State from, CircuitBreaker.State to);
+    }
+
+    interface InboundDrop {
+        /**
+         * 入站事件队列已满，事件被丢弃
+         *
+         * @param bot    触发事件的机器人
+         * @param frame  被丢弃的事件的原始文本，未经解析
+         * @param policy 丢弃时使用的处理方式
+         */
+        void drop(Bot bot, String frame, InboundOverflowPolicy policy);
+    }
+
+    interface Failover {
+        /**
+         * 多端点机器人切换了使用的端点
+         *
+         * @param bot      触发事件的机器人
+         * @param from     原端点
+         * @param to       新端点
+         * @param duration 从最后一次收到原端点的消息到完成切换的时间，单位毫秒，原端点仍可用（切换回优先的端点）时为 {@code 0}
+         */
+        void failover(Bot bot, Bot from, Bot to, long duration);
+    }
 }
@@ -0,0 +1,12 @@
+package top.tigercrl.minebotapi.sdk.exceptions;
+
+import top.tigercrl.minebotapi.sdk.bot.Bot;
+
+/**
+ * API请求在收到响应前被取消（例如调用线程被中断）
+ */
+public class ApiCancelledException extends BotException {
+    public ApiCancelledException(Bot bot) {
+        super(bot, "API请求已被取消！");
+    }
+}
@@ -3,10 +3,11 @@ package top.tigercrl.minebotapi.sdk.exceptions;
 import top.tigercrl.minebotapi.sdk.bot.Bot;
 
 /**
- * HTTP通信方式（HTTP POST）中签名不正确时抛出此异常
+ * API请求在超时时间内没有收到响应
+ * 此异常不记录调用栈，同一机器人的实例可能被复用
  */
 public class ApiTimeoutException extends BotException {
     public ApiTimeoutException(Bot bot) {
-        super(bot, "API响应超时！");
+        super(bot, "API响应超时！", false);
     }
 }
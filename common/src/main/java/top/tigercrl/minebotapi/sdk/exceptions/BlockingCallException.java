@@ -0,0 +1,24 @@
+package top.tigercrl.minebotapi.sdk.exceptions;
+
+import top.tigercrl.minebotapi.sdk.bot.Bot;
+
+/**
+ * 在 Minecraft 服务器线程中调用了同步API，请求未被发送
+ */
+public class BlockingCallException extends BotException {
+    private final String action;
+
+    public BlockingCallException(Bot bot, String action) {
+        super(bot, "不能在服务器线程中调用同步API，请在 BotExecutors.blocking() 中调用或改用 customApiAsync！API：" + action);
+        this.action = action;
+    }
+
+    /**
+     * 获取被拒绝的API
+     *
+     * @return API名称
+     */
+    public String getAction() {
+        return action;
+    }
+}
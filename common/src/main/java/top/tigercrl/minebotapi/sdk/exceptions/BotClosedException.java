@@ -4,10 +4,27 @@ import top.tigercrl.minebotapi.sdk.bot.Bot;
 
 /**
  * 机器人已关闭但仍在请求API
+ * 此异常不记录调用栈，同一机器人的实例可能被复用
  */
 public class BotClosedException extends BotException {
+    private final boolean requestSent;
 
     public BotClosedException(Bot bot) {
-        super(bot, "机器人已关闭！");
+        this(bot, false);
+    }
+
+    public BotClosedException(Bot bot, boolean requestSent) {
+        super(bot, "机器人已关闭！", false);
+        this.requestSent = requestSent;
+    }
+
+    /**
+     * 请求是否已经发送（连接在等待响应时断开）
+     * 为 {@code false} 时可以确定 OneBot 没有收到该请求
+     *
+     * @return 请求是否已经发送
+     */
+    public boolean isRequestSent() {
+        return requestSent;
     }
 }
@@ -13,6 +13,16 @@ public class BotException extends RuntimeException {
         this.bot = bot;
     }
 
+    /**
+     * @param bot                机器人
+     * @param message            异常信息
+     * @param writableStackTrace 是否记录调用栈，预期会频繁抛出的异常不记录调用栈以减少开销
+     */
+    protected BotException(Bot bot, String message, boolean writableStackTrace) {
+        super(message, null, writableStackTrace, writableStackTrace);
+        this.bot = bot;
+    }
+
     /**
      * 获取发生异常的机器人
      *
@@ -4,13 +4,14 @@ import top.tigercrl.minebotapi.sdk.bot.Bot;
 
 /**
  * 机器人在通信中遇到了 HTTP非 {@code 200} 状态码 或 WebSocket 非 {@code 1200} retcode
+ * 此异常不记录调用栈；需要频繁处理此类失败时可以使用 {@link Bot#nonThrowing()} 避免创建异常
  */
 public class BotRequestException extends BotException {
     private final String wording;
     private final int code;
 
     public BotRequestException(Bot bot, String message, String wording, int code) {
-        super(bot, message);
+        super(bot, message, false);
         this.wording = wording;
         this.code = code;
     }
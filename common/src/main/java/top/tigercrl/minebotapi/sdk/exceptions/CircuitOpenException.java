@@ -0,0 +1,26 @@
+package top.tigercrl.minebotapi.sdk.exceptions;
+
+import org.jetbrains.annotations.Nullable;
+import top.tigercrl.minebotapi.sdk.bot.Bot;
+
+/**
+ * API熔断中，请求未被发送
+ * 此异常不记录调用栈，同一机器人的实例可能被复用
+ */
+public class CircuitOpenException extends BotException {
+    private final String action;
+
+    public CircuitOpenException(Bot bot, @Nullable String action) {
+        super(bot, action == null ? "机器人熔断中，请求已被拒绝！" : "API熔断中，请求已被拒绝！API：" + action, false);
+        this.action = action;
+    }
+
+    /**
+     * 获取熔断的API
+     *
+     * @return API名称，为 {@code null} 表示整个机器人熔断
+     */
+    public @Nullable String getAction() {
+        return action;
+    }
+}
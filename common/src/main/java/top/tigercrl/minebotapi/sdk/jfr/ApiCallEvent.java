@@ -0,0 +1,29 @@
+package top.tigercrl.minebotapi.sdk.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * API调用，从请求写入连接开始，到收到响应或超时结束
+ */
+@Name("top.tigercrl.minebotapi.ApiCall")
+@Label("API Call")
+@Category({"MineBotApi"})
+@StackTrace(false)
+public class ApiCallEvent extends Event {
+    @Label("Action")
+    public String action;
+
+    @Label("Echo")
+    public String echo;
+
+    @Label("Round Trip Time")
+    @Timespan(Timespan.MICROSECONDS)
+    public long rtt;
+
+    @Label("Retcode")
+    @Description("超时时为 -1")
+    public int retcode;
+
+    @Label("Timed Out")
+    public boolean timedOut;
+}
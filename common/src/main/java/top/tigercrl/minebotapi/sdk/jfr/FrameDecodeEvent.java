@@ -0,0 +1,21 @@
+package top.tigercrl.minebotapi.sdk.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * 解析收到的帧，事件持续时间即解析耗时
+ */
+@Name("top.tigercrl.minebotapi.FrameDecode")
+@Label("Frame Decode")
+@Category({"MineBotApi"})
+@StackTrace(false)
+public class FrameDecodeEvent extends Event {
+    @Label("Post Type")
+    @Description("API响应为 echo")
+    public String postType;
+
+    @Label("Size")
+    @Description("帧长度，文本帧为字符数")
+    @DataAmount(DataAmount.BYTES)
+    public long bytes;
+}
@@ -0,0 +1,24 @@
+package top.tigercrl.minebotapi.sdk.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * 两次心跳之间的间隔，收到心跳或心跳超时时记录
+ */
+@Name("top.tigercrl.minebotapi.HeartbeatGap")
+@Label("Heartbeat Gap")
+@Category({"MineBotApi"})
+@StackTrace(false)
+public class HeartbeatGapEvent extends Event {
+    @Label("Gap")
+    @Timespan(Timespan.MILLISECONDS)
+    public long gap;
+
+    @Label("Expected Interval")
+    @Timespan(Timespan.MILLISECONDS)
+    public long interval;
+
+    @Label("Overdue")
+    @Description("为 true 时表示尚未收到下一次心跳")
+    public boolean overdue;
+}
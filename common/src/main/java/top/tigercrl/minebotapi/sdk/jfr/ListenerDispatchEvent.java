@@ -0,0 +1,16 @@
+package top.tigercrl.minebotapi.sdk.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * 调用某个事件的所有监听器，事件持续时间即监听器执行耗时
+ */
+@Name("top.tigercrl.minebotapi.ListenerDispatch")
+@Label("Listener Dispatch")
+@Category({"MineBotApi"})
+@StackTrace(false)
+public class ListenerDispatchEvent extends Event {
+    @Label("Channel")
+    @Description("事件名称，如 MessageEvent.GROUP_CHAT")
+    public String channel;
+}
@@ -0,0 +1,268 @@
+package top.tigercrl.minebotapi.sdk.metrics;
+
+import top.tigercrl.minebotapi.MineBotApi;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * 机器人运行指标
+ * 记录操作只使用原子计数，不加锁，可以在生产环境中常开
+ * 延迟类指标以微秒记录
+ */
+public class BotMetrics {
+    private static final List<BotMetrics> REGISTRY = new CopyOnWriteArrayList<>();
+    private static final AtomicInteger NEXT_ID = new AtomicInteger();
+
+    private final String id = String.valueOf(NEXT_ID.incrementAndGet());
+    private final String endpoint;
+    private final Map<String, LatencyHistogram> apiLatency = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> apiTimeouts = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> apiRetries = new ConcurrentHashMap<>();
+    private final Map<Integer, LongAdder> retcodes = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> inboundFrames = new ConcurrentHashMap<>();
+    private final Map<String, LatencyHistogram> listeners = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private final Map<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+    private final Map<String, LongSupplier> gauges = new ConcurrentHashMap<>();
+
+    /**
+     * @param endpoint 机器人连接的地址，用于区分机器人，不应包含访问令牌
+     */
+    public BotMetrics(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    /**
+     * 获取所有已注册的机器人指标
+     *
+     * @return 机器人指标
+     */
+    public static List<BotMetrics> getAll() {
+        return Collections.unmodifiableList(REGISTRY);
+    }
+
+    /**
+     * 注册到全局列表，使其可以被导出
+     */
+    public void register() {
+        if (!REGISTRY.contains(this)) REGISTRY.add(this);
+    }
+
+    /**
+     * 从全局列表中移除
+     */
+    public void unregister() {
+        REGISTRY.remove(this);
+    }
+
+    /**
+     * 获取指标编号，在进程内唯一
+     *
+     * @return 编号
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * 获取机器人连接的地址
+     *
+     * @return 地址
+     */
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    /**
+     * 记录一次收到响应的API调用
+     *
+     * @param action  API名称
+     * @param rtt     往返时间，单位微秒
+     * @param retcode retcode
+     */
+    public void recordApiCall(String action, long rtt, int retcode) {
+        if (!isEnabled()) return;
+        get(apiLatency, action).record(rtt);
+        adder(retcodes, retcode).increment();
+    }
+
+    /**
+     * 记录一次超时的API调用
+     *
+     * @param action API名称
+     */
+    public void recordApiTimeout(String action) {
+        if (isEnabled()) adder(apiTimeouts, action).increment();
+    }
+
+    /**
+     * 记录一次API重试
+     *
+     * @param action API名称
+     */
+    public void recordApiRetry(String action) {
+        if (isEnabled()) adder(apiRetries, action).increment();
+    }
+
+    /**
+     * 记录一个收到的帧
+     *
+     * @param postType 上报类型，API响应为 {@code echo}
+     */
+    public void recordInboundFrame(String postType) {
+        if (isEnabled()) adder(inboundFrames, postType).increment();
+    }
+
+    /**
+     * 记录一次事件监听器执行
+     *
+     * @param channel  事件
+     * @param duration 执行时间，单位微秒
+     */
+    public void recordListener(String channel, long duration) {
+        if (isEnabled()) get(listeners, channel).record(duration);
+    }
+
+    /**
+     * 增加计数器
+     *
+     * @param name 计数器名称
+     */
+    public void increment(String name) {
+        add(name, 1);
+    }
+
+    /**
+     * 增加计数器
+     *
+     * @param name  计数器名称
+     * @param delta 增加量
+     */
+    public void add(String name, long delta) {
+        if (isEnabled()) adder(counters, name).add(delta);
+    }
+
+    /**
+     * 在直方图中记录一个延迟
+     *
+     * @param name  直方图名称
+     * @param value 延迟，单位微秒
+     */
+    public void record(String name, long value) {
+        if (isEnabled()) get(histograms, name).record(value);
+    }
+
+    /**
+     * 注册一个瞬时值（如队列长度），读取指标时调用
+     *
+     * @param name  名称
+     * @param gauge 瞬时值
+     */
+    public void gauge(String name, LongSupplier gauge) {
+        gauges.put(name, gauge);
+    }
+
+    /**
+     * 获取指标快照
+     *
+     * @return 指标快照
+     */
+    public Snapshot snapshot() {
+        Map<String, ApiSnapshot> api = new TreeMap<>();
+        Set<String> actions = new HashSet<>(apiLatency.keySet());
+        actions.addAll(apiTimeouts.keySet());
+        actions.addAll(apiRetries.keySet());
+        for (String action : actions) {
+            LatencyHistogram latency = apiLatency.get(action);
+            api.put(action, new ApiSnapshot(latency == null ? LatencySnapshot.EMPTY : LatencySnapshot.of(latency),
+                    sum(apiTimeouts.get(action)), sum(apiRetries.get(action))));
+        }
+        Map<String, Long> gaugeValues = new TreeMap<>();
+        gauges.forEach((name, gauge) -> gaugeValues.put(name, gauge.getAsLong()));
+        return new Snapshot(id, endpoint, Collections.unmodifiableMap(api), sums(retcodes), sums(inboundFrames),
+                latencies(listeners), sums(counters), latencies(histograms), Collections.unmodifiableMap(gaugeValues));
+    }
+
+    private static boolean isEnabled() {
+        return MineBotApi.config == null || MineBotApi.config.metrics.enabled;
+    }
+
+    private static <K> LatencyHistogram get(Map<K, LatencyHistogram> map, K key) {
+        LatencyHistogram histogram = map.get(key);
+        return histogram != null ? histogram : map.computeIfAbsent(key, ignored -> new LatencyHistogram());
+    }
+
+    private static <K> LongAdder adder(Map<K, LongAdder> map, K key) {
+        LongAdder adder = map.get(key);
+        return adder != null ? adder : map.computeIfAbsent(key, ignored -> new LongAdder());
+    }
+
+    private static long sum(LongAdder adder) {
+        return adder == null ? 0 : adder.sum();
+    }
+
+    private static <K> Map<K, Long> sums(Map<K, LongAdder> map) {
+        Map<K, Long> result = new TreeMap<>();
+        map.forEach((key, adder) -> result.put(key, adder.sum()));
+        return Collections.unmodifiableMap(result);
+    }
+
+    private static Map<String, LatencySnapshot> latencies(Map<String, LatencyHistogram> map) {
+        Map<String, LatencySnapshot> result = new TreeMap<>();
+        map.forEach((key, histogram) -> result.put(key, LatencySnapshot.of(histogram)));
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * 指标快照
+     *
+     * @param id            指标编号
+     * @param endpoint      机器人连接的地址
+     * @param api           各API的调用统计
+     * @param retcodes      各 retcode 的出现次数
+     * @param inboundFrames 各上报类型收到的帧数量，API响应为 {@code echo}
+     * @param listeners     各事件的监听器执行时间
+     * @param counters      其它计数器
+     * @param histograms    其它直方图
+     * @param gauges        瞬时值（如等待响应的请求数量、队列长度）
+     */
+    public record Snapshot(String id, String endpoint, Map<String, ApiSnapshot> api, Map<Integer, Long> retcodes,
+                           Map<String, Long> inboundFrames, Map<String, LatencySnapshot> listeners,
+                           Map<String, Long> counters, Map<String, LatencySnapshot> histograms,
+                           Map<String, Long> gauges) {
+    }
+
+    /**
+     * API调用统计
+     *
+     * @param latency  往返时间
+     * @param timeouts 超时次数
+     * @param retries  重试次数
+     */
+    public record ApiSnapshot(LatencySnapshot latency, long timeouts, long retries) {
+    }
+
+    /**
+     * 直方图统计
+     *
+     * @param count 数量
+     * @param sum   总和
+     * @param p50   p50
+     * @param p90   p90
+     * @param p99   p99
+     * @param max   最大值
+     */
+    public record LatencySnapshot(long count, long sum, long p50, long p90, long p99, long max) {
+        static final LatencySnapshot EMPTY = new LatencySnapshot(0, 0, 0, 0, 0, 0);
+
+        static LatencySnapshot of(LatencyHistogram histogram) {
+            return new LatencySnapshot(histogram.getCount(), histogram.getSum(), histogram.getPercentile(50),
+                    histogram.getPercentile(90), histogram.getPercentile(99), histogram.getMax());
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package top.tigercrl.minebotapi.sdk.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 无锁的对数分桶直方图（与 HdrHistogram 相同的分桶方式）
+ * 每个2的幂区间被等分为 {@value #SUB_BUCKETS} 个子桶，相对误差不超过约 3%
+ * 记录操作只涉及原子自增，可以在任意线程中并发调用
+ */
+public class LatencyHistogram {
+    private static final int SUB_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final long MAX_VALUE = (1L << 40) - 1;
+    private static final int BUCKETS = bucketIndex(MAX_VALUE) + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * 记录一个值
+     *
+     * @param value 值，负数按 {@code 0} 记录，超过 2^40 按 2^40 记录
+     */
+    public void record(long value) {
+        if (value < 0) value = 0;
+        else if (value > MAX_VALUE) value = MAX_VALUE;
+        counts.incrementAndGet(bucketIndex(value));
+        count.increment();
+        sum.add(value);
+        long current = max.get();
+        while (value > current && !max.compareAndSet(current, value)) current = max.get();
+    }
+
+    /**
+     * 获取记录的值的数量
+     *
+     * @return 数量
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * 获取记录的值的总和
+     *
+     * @return 总和
+     */
+    public long getSum() {
+        return sum.sum();
+    }
+
+    /**
+     * 获取记录的最大值
+     *
+     * @return 最大值
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * 获取百分位数
+     *
+     * @param percentile 百分位，范围 {@code 0} ~ {@code 100}
+     * @return 百分位数（所在桶的上界，不超过最大值），没有记录时返回 {@code 0}
+     */
+    public long getPercentile(double percentile) {
+        return percentile(percentile, this);
+    }
+
+    /**
+     * 获取多个直方图合并后的百分位数
+     *
+     * @param percentile 百分位，范围 {@code 0} ~ {@code 100}
+     * @param histograms 直方图
+     * @return 百分位数（所在桶的上界，不超过最大值），没有记录时返回 {@code 0}
+     */
+    public static long percentile(double percentile, LatencyHistogram... histograms) {
+        long total = 0;
+        long max = 0;
+        for (LatencyHistogram histogram : histograms) {
+            total += histogram.getCount();
+            max = Math.max(max, histogram.getMax());
+        }
+        if (total == 0) return 0;
+        long target = Math.max(1, (long) Math.ceil(total * percentile / 100));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            for (LatencyHistogram histogram : histograms) seen += histogram.counts.get(i);
+            if (seen >= target) return Math.min(bucketUpperBound(i), max);
+        }
+        return max;
+    }
+
+    /**
+     * 获取各桶的计数，用于导出
+     *
+     * @param consumer 接收桶上界与该桶计数，仅回调计数不为 {@code 0} 的桶
+     */
+    public void forEachBucket(BucketConsumer consumer) {
+        for (int i = 0; i < BUCKETS; i++) {
+            long c = counts.get(i);
+            if (c != 0) consumer.accept(bucketUpperBound(i), c);
+        }
+    }
+
+    private static int bucketIndex(long value) {
+        if (value < SUB_BUCKETS) return (int) value;
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+        return shift * SUB_BUCKETS + (int) (value >>> shift);
+    }
+
+    private static long bucketUpperBound(int index) {
+        if (index < SUB_BUCKETS) return index;
+        int shift = index / SUB_BUCKETS - 1;
+        long sub = index - (long) shift * SUB_BUCKETS;
+        return ((sub + 1) << shift) - 1;
+    }
+
+    public interface BucketConsumer {
+        /**
+         * 接收一个桶
+         *
+         * @param upperBound 桶上界
+         * @param count      桶内计数
+         */
+        void accept(long upperBound, long count);
+    }
+}
@@ -0,0 +1,134 @@
+package top.tigercrl.minebotapi.sdk.metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+
+/**
+ * 以 Prometheus 文本格式导出所有机器人的指标
+ * 延迟类指标导出时换算为秒
+ */
+public class PrometheusExporter {
+    private static final Logger LOGGER = LogManager.getLogger();
+    private static final String PREFIX = "minebotapi_";
+
+    private final HttpServer server;
+
+    private PrometheusExporter(HttpServer server) {
+        this.server = server;
+    }
+
+    /**
+     * 启动导出服务，指标路径为 {@code /metrics}
+     *
+     * @param host 监听地址
+     * @param port 监听端口
+     * @return 导出服务
+     * @throws IOException 无法监听端口
+     */
+    public static PrometheusExporter start(String host, int port) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(host, port), 0);
+        server.createContext("/metrics", PrometheusExporter::handle);
+        server.setExecutor(Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "MineBotApi-Prometheus");
+            thread.setDaemon(true);
+            return thread;
+        }));
+        server.start();
+        LOGGER.info("Prometheus 指标已在 http://{}:{}/metrics 导出", host, port);
+        return new PrometheusExporter(server);
+    }
+
+    /**
+     * 停止导出服务
+     */
+    public void stop() {
+        server.stop(0);
+    }
+
+    private static void handle(HttpExchange exchange) throws IOException {
+        byte[] body = scrape().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * 生成所有机器人的指标文本
+     * 同名指标的样本放在一起，前面带有 {@code # TYPE} 行
+     *
+     * @return Prometheus 文本格式的指标
+     */
+    public static String scrape() {
+        Map<String, Family> families = new LinkedHashMap<>();
+        for (BotMetrics metrics : BotMetrics.getAll()) {
+            BotMetrics.Snapshot snapshot = metrics.snapshot();
+            String bot = "bot=\"" + escape(snapshot.id()) + "\",endpoint=\"" + escape(snapshot.endpoint()) + "\"";
+            for (Map.Entry<String, BotMetrics.ApiSnapshot> entry : snapshot.api().entrySet()) {
+                String labels = bot + ",action=\"" + escape(entry.getKey()) + "\"";
+                summary(families, "api_latency_seconds", labels, entry.getValue().latency());
+                sample(families, "counter", "api_timeouts_total", labels, entry.getValue().timeouts());
+                sample(families, "counter", "api_retries_total", labels, entry.getValue().retries());
+            }
+            snapshot.retcodes().forEach((retcode, count) -> sample(families, "counter", "api_retcode_total", bot + ",retcode=\"" + retcode + "\"", count));
+            snapshot.inboundFrames().forEach((postType, count) -> sample(families, "counter", "inbound_frames_total", bot + ",post_type=\"" + escape(postType) + "\"", count));
+            snapshot.listeners().forEach((channel, latency) -> summary(families, "listener_seconds", bot + ",channel=\"" + escape(channel) + "\"", latency));
+            snapshot.counters().forEach((name, count) -> sample(families, "counter", name + "_total", bot, count));
+            snapshot.histograms().forEach((name, latency) -> summary(families, name + "_seconds", bot, latency));
+            snapshot.gauges().forEach((name, value) -> sample(families, "gauge", name, bot, value));
+        }
+        StringBuilder out = new StringBuilder();
+        families.forEach((name, family) -> out.append("# TYPE ").append(PREFIX).append(name).append(' ').append(family.type).append('\n').append(family.samples));
+        return out.toString();
+    }
+
+    private static void summary(Map<String, Family> families, String name, String labels, BotMetrics.LatencySnapshot latency) {
+        StringBuilder out = family(families, "summary", name);
+        append(out, name, labels + ",quantile=\"0.5\"", seconds(latency.p50()));
+        append(out, name, labels + ",quantile=\"0.9\"", seconds(latency.p90()));
+        append(out, name, labels + ",quantile=\"0.99\"", seconds(latency.p99()));
+        append(out, name, labels + ",quantile=\"1\"", seconds(latency.max()));
+        append(out, name + "_sum", labels, seconds(latency.sum()));
+        append(out, name + "_count", labels, latency.count());
+    }
+
+    private static void sample(Map<String, Family> families, String type, String name, String labels, Object value) {
+        append(family(families, type, name), name, labels, value);
+    }
+
+    private static StringBuilder family(Map<String, Family> families, String type, String name) {
+        return families.computeIfAbsent(name, ignored -> new Family(type)).samples;
+    }
+
+    private static void append(StringBuilder out, String name, String labels, Object value) {
+        out.append(PREFIX).append(name).append('{').append(labels).append("} ").append(value).append('\n');
+    }
+
+    private static double seconds(long micros) {
+        return micros / 1e6;
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static final class Family {
+        final String type;
+        final StringBuilder samples = new StringBuilder();
+
+        Family(String type) {
+            this.type = type;
+        }
+    }
+}
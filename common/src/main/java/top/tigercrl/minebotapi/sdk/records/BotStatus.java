@@ -20,9 +20,12 @@ public record BotStatus(@Nullable Boolean online, boolean good, JSONObject other
     public static BotStatus fromJson(JSONObject json) {
         Boolean online = json.has("online") ? json.getBoolean("online") : null;
         boolean good = json.getBoolean("good");
-        json.remove("online");
-        json.remove("good");
-        return new BotStatus(online, good, json);
+        // 复制其余字段而不是从传入的对象中删除，传入的对象属于调用方
+        JSONObject other = new JSONObject();
+        for (String key : json.keySet()) {
+            if (!key.equals("online") && !key.equals("good")) other.put(key, json.get(key));
+        }
+        return new BotStatus(online, good, other);
     }
 
     /**
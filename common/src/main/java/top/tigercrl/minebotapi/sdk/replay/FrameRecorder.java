@@ -0,0 +1,217 @@
+package top.tigercrl.minebotapi.sdk.replay;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.Nullable;
+import top.tigercrl.minebotapi.sdk.bot.Bot;
+import top.tigercrl.minebotapi.sdk.events.BotLifecycleEvent;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 入站帧记录器
+ * <p>
+ * 通过 {@link BotLifecycleEvent#BOT_FRAME} 将收到的帧原文追加写入内存映射文件，写入只涉及内存复制，不产生系统调用。
+ * 下一段映射在当前段写入过半时于后台线程提前建立，写满的段也在后台线程刷盘。
+ * 文件格式（大端序）：
+ * <pre>
+ * 文件头：int 魔数 {@value #MAGIC}，int 版本，long 开始记录的时间戳（毫秒）
+ * 记录：  int 帧长度（字节），long 距开始记录的时间（纳秒），UTF-8 编码的帧内容
+ * </pre>
+ * 文件按 {@value #MAP_SIZE} 字节分段映射，帧长度为 {@code 0} 表示记录结束
+ */
+public class FrameRecorder implements Closeable {
+    static final int MAGIC = 0x4D424652; // "MBFR"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 16;
+    static final int RECORD_HEADER_SIZE = 12;
+    private static final int MAP_SIZE = 16 * 1024 * 1024;
+    private static final Logger LOGGER = LogManager.getLogger();
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "MineBotApi-FrameRecorder");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Path file;
+    private final FileChannel channel;
+    private final @Nullable Bot bot;
+    private final long maxSize;
+    private final long startNanos = System.nanoTime();
+    private final BotLifecycleEvent.BotFrame listener = this::onFrame;
+    private MappedByteBuffer buffer;
+    private long bufferStart;
+    private @Nullable CompletableFuture<MappedByteBuffer> next;
+    private long nextStart;
+    private long position;
+    private long frames;
+    private boolean closed;
+
+    private FrameRecorder(Path file, @Nullable Bot bot, long maxSize) throws IOException {
+        this.file = file;
+        this.bot = bot;
+        this.maxSize = maxSize;
+        if (file.getParent() != null) Files.createDirectories(file.getParent());
+        channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, MAP_SIZE);
+        buffer.putInt(MAGIC).putInt(VERSION).putLong(System.currentTimeMillis());
+        position = HEADER_SIZE;
+    }
+
+    /**
+     * 开始记录
+     *
+     * @param file    记录文件，不能已存在
+     * @param bot     只记录该机器人收到的帧，为 {@code null} 时记录所有机器人（帧会交错写入同一文件）
+     * @param maxSize 文件大小上限（字节），达到后停止记录，不大于 {@code 0} 时不限制
+     * @return 记录器
+     * @throws IOException 无法创建文件
+     */
+    public static FrameRecorder start(Path file, @Nullable Bot bot, long maxSize) throws IOException {
+        FrameRecorder recorder = new FrameRecorder(file, bot, maxSize);
+        BotLifecycleEvent.BOT_FRAME.register(recorder.listener);
+        LOGGER.info("开始记录机器人收到的帧，文件：{}", file);
+        return recorder;
+    }
+
+    private void onFrame(Bot bot, String frame) {
+        if (this.bot != null && this.bot != bot) return;
+        record(frame);
+    }
+
+    /**
+     * 写入一帧
+     *
+     * @param frame 帧内容
+     */
+    public void record(String frame) {
+        byte[] bytes = frame.getBytes(StandardCharsets.UTF_8);
+        long time = System.nanoTime() - startNanos;
+        synchronized (this) {
+            write(bytes, time);
+        }
+    }
+
+    private void write(byte[] bytes, long time) {
+        if (closed) return;
+        int size = RECORD_HEADER_SIZE + bytes.length;
+        // 预留结尾的 0 长度标记
+        if (maxSize > 0 && position + size + 4 > maxSize) {
+            LOGGER.warn("帧记录文件已达到大小上限，停止记录，文件：{}", file);
+            closeQuietly();
+            return;
+        }
+        try {
+            if (position + size + 4 > bufferStart + buffer.capacity()) nextBuffer(size + 4);
+        } catch (IOException e) {
+            LOGGER.error("无法扩展帧记录文件，停止记录，文件：" + file, e);
+            closeQuietly();
+            return;
+        }
+        buffer.position((int) (position - bufferStart));
+        buffer.putInt(bytes.length).putLong(time).put(bytes);
+        position += size;
+        frames++;
+        if (next == null && position - bufferStart > buffer.capacity() / 2) {
+            // 从当前位置开始映射，与当前段重叠的部分指向同一份页缓存
+            long start = position;
+            nextStart = start;
+            next = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return channel.map(FileChannel.MapMode.READ_WRITE, start, MAP_SIZE);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, EXECUTOR);
+        }
+    }
+
+    /**
+     * 切换到能容纳当前位置之后 {@code minSize} 字节的映射，提前建立的映射未完成或不够大时在当前线程中映射
+     */
+    private void nextBuffer(int minSize) throws IOException {
+        MappedByteBuffer previous = buffer;
+        CompletableFuture<MappedByteBuffer> next = this.next;
+        this.next = null;
+        MappedByteBuffer mapped = next != null && next.isDone() && !next.isCompletedExceptionally() ? next.join() : null;
+        if (mapped != null && position + minSize <= nextStart + mapped.capacity()) {
+            buffer = mapped;
+            bufferStart = nextStart;
+        } else {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, position, Math.max(MAP_SIZE, minSize));
+            bufferStart = position;
+        }
+        EXECUTOR.execute(previous::force);
+    }
+
+    /**
+     * 获取已记录的帧数
+     *
+     * @return 帧数
+     */
+    public synchronized long getFrameCount() {
+        return frames;
+    }
+
+    /**
+     * 获取已写入的字节数（含文件头）
+     *
+     * @return 字节数
+     */
+    public synchronized long getSize() {
+        return position;
+    }
+
+    /**
+     * 获取记录文件
+     *
+     * @return 文件路径
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * 停止记录，将数据写入磁盘
+     *
+     * @throws IOException 写入失败
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        BotLifecycleEvent.BOT_FRAME.unregister(listener);
+        // 等待后台线程中的刷盘与映射完成，避免截断后又被提前建立的映射扩展
+        CompletableFuture.runAsync(() -> {
+        }, EXECUTOR).join();
+        next = null;
+        buffer.force();
+        buffer = null;
+        try {
+            // 部分系统（如 Windows）在映射未被回收时无法截断文件，此时保留结尾的空白
+            channel.truncate(position);
+        } catch (IOException ignored) {
+        }
+        channel.close();
+        LOGGER.info("停止记录机器人收到的帧，共 {} 帧，文件：{}", frames, file);
+    }
+
+    private void closeQuietly() {
+        try {
+            close();
+        } catch (IOException e) {
+            LOGGER.error("无法关闭帧记录文件：" + file, e);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package top.tigercrl.minebotapi.sdk.replay;
+
+import top.tigercrl.minebotapi.sdk.bot.WSBot;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * 回放 {@link FrameRecorder} 记录的帧
+ */
+public final class FrameReplayer {
+    private FrameReplayer() {
+    }
+
+    /**
+     * 将记录的帧交给机器人处理，如同从服务器收到一样
+     * <p>
+     * 帧在调用线程中依次处理，回声帧不会匹配到任何请求
+     *
+     * @param file 记录文件
+     * @param bot  机器人
+     * @param pace 回放速度
+     * @return 回放结果
+     * @throws IOException 读取失败或文件格式不正确
+     */
+    public static Result replay(Path file, WSBot bot, Pace pace) throws IOException {
+        return replay(file, bot::onMessage, pace);
+    }
+
+    /**
+     * 回放记录的帧
+     *
+     * @param file   记录文件
+     * @param target 接收帧的回调，在调用线程中依次调用
+     * @param pace   回放速度
+     * @return 回放结果
+     * @throws IOException 读取失败或文件格式不正确
+     */
+    public static Result replay(Path file, Consumer<String> target, Pace pace) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 20))) {
+            if (in.readInt() != FrameRecorder.MAGIC) throw new IOException("不是帧记录文件：" + file);
+            int version = in.readInt();
+            if (version != FrameRecorder.VERSION) throw new IOException("不支持的帧记录文件版本：" + version);
+            in.readLong(); // 开始记录的时间戳
+
+            long frames = 0;
+            long bytes = 0;
+            long start = System.nanoTime();
+            byte[] buffer = new byte[8192];
+            while (true) {
+                int length;
+                try {
+                    length = in.readInt();
+                } catch (EOFException e) {
+                    break;
+                }
+                if (length == 0) break;
+                long offset = in.readLong();
+                if (length > buffer.length) buffer = new byte[Math.max(length, buffer.length * 2)];
+                in.readFully(buffer, 0, length);
+                String frame = new String(buffer, 0, length, StandardCharsets.UTF_8);
+                if (pace == Pace.ORIGINAL) {
+                    long wait;
+                    while ((wait = start + offset - System.nanoTime()) > 0) LockSupport.parkNanos(wait);
+                }
+                target.accept(frame);
+                frames++;
+                bytes += length;
+            }
+            return new Result(frames, bytes, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * 回放速度
+     */
+    public enum Pace {
+        /**
+         * 按记录时的时间间隔回放
+         */
+        ORIGINAL,
+        /**
+         * 不等待，尽快回放
+         */
+        MAXIMUM
+    }
+
+    /**
+     * 回放结果
+     *
+     * @param frames      帧数
+     * @param bytes       帧内容的总字节数
+     * @param elapsedNanos 耗时（纳秒）
+     */
+    public record Result(long frames, long bytes, long elapsedNanos) {
+        /**
+         * 获取平均每秒处理的帧数
+         *
+         * @return 帧数
+         */
+        public double getFramesPerSecond() {
+            return elapsedNanos == 0 ? 0 : frames * 1e9 / elapsedNanos;
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package top.tigercrl.minebotapi.utils;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import top.tigercrl.minebotapi.MineBotApi;
+import top.tigercrl.minebotapi.ModConfig;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 机器人日志
+ * 按 {@link ModConfig.LogSettings} 中的分类开关与采样率决定是否记录，
+ * 启用异步日志时由单独的线程输出，队列满时丢弃最旧的日志，避免阻塞 WebSocket 线程
+ */
+public final class BotLogger {
+    private static final Logger LOGGER = LogManager.getLogger();
+    private static final AtomicLong DROPPED = new AtomicLong();
+    private static volatile BlockingQueue<Entry> queue;
+
+    private BotLogger() {
+    }
+
+    /**
+     * 日志分类
+     */
+    public enum Category {
+        API,
+        BOT_CONNECTION,
+        EVENT,
+        HEARTBEAT,
+        MESSAGE
+    }
+
+    /**
+     * 判断本次日志是否需要记录（分类开关与采样）
+     * 在构造日志参数前调用，未被采样时没有任何额外开销
+     *
+     * @param category 日志分类
+     * @return 是否需要记录
+     */
+    public static boolean shouldLog(Category category) {
+        ModConfig.LogSettings settings = MineBotApi.config.logSettings;
+        return switch (category) {
+            case API -> settings.api && sample(settings.apiSampleRate);
+            case BOT_CONNECTION -> settings.botConnection;
+            case EVENT -> settings.event && sample(settings.eventSampleRate);
+            case HEARTBEAT -> settings.heartbeat && sample(settings.heartbeatSampleRate);
+            case MESSAGE -> settings.message && sample(settings.messageSampleRate);
+        };
+    }
+
+    /**
+     * 记录 INFO 日志
+     * JSON 与字符串参数在调用线程中转换为字符串并截断到 {@link ModConfig.LogSettings#maxPayloadLength}，
+     * 之后对 JSON 对象的修改不会影响日志内容
+     *
+     * @param logger  日志记录器
+     * @param message 日志格式
+     * @param params  日志参数
+     */
+    public static void info(Logger logger, String message, Object... params) {
+        ModConfig.LogSettings settings = MineBotApi.config.logSettings;
+        format(params, settings.maxPayloadLength);
+        if (!settings.async) {
+            logger.info(message, params);
+            return;
+        }
+        BlockingQueue<Entry> queue = getQueue(settings);
+        Entry entry = new Entry(logger, message, params);
+        while (!queue.offer(entry)) {
+            if (queue.poll() != null) DROPPED.incrementAndGet();
+        }
+    }
+
+    /**
+     * 获取因队列已满而被丢弃的日志数量
+     *
+     * @return 日志数量
+     */
+    public static long getDroppedCount() {
+        return DROPPED.get();
+    }
+
+    /**
+     * 获取等待输出的日志数量
+     *
+     * @return 日志数量
+     */
+    public static int getQueueSize() {
+        BlockingQueue<Entry> queue = BotLogger.queue;
+        return queue == null ? 0 : queue.size();
+    }
+
+    private static boolean sample(double rate) {
+        return rate >= 1 || (rate > 0 && ThreadLocalRandom.current().nextDouble() < rate);
+    }
+
+    private static BlockingQueue<Entry> getQueue(ModConfig.LogSettings settings) {
+        BlockingQueue<Entry> queue = BotLogger.queue;
+        if (queue != null) return queue;
+        synchronized (BotLogger.class) {
+            if (BotLogger.queue == null) {
+                BotLogger.queue = new ArrayBlockingQueue<>(Math.max(1, settings.asyncQueueSize));
+                Thread thread = new Thread(BotLogger::drain, "MineBotApi-Logger");
+                thread.setDaemon(true);
+                thread.start();
+            }
+            return BotLogger.queue;
+        }
+    }
+
+    private static void drain() {
+        while (true) {
+            try {
+                Entry entry = queue.take();
+                entry.logger().info(entry.message(), entry.params());
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                LOGGER.error("无法输出机器人日志", e);
+            }
+        }
+    }
+
+    private static void format(Object[] params, int maxLength) {
+        for (int i = 0; i < params.length; i++) {
+            Object param = params[i];
+            if (param instanceof JSONObject || param instanceof JSONArray) {
+                params[i] = serialize(param, maxLength);
+            } else if (param instanceof CharSequence) {
+                String text = param.toString();
+                params[i] = maxLength > 0 && text.length() > maxLength
+                        ? text.substring(0, maxLength) + "...（共" + text.length() + "字符）"
+                        : text;
+            }
+        }
+    }
+
+    /**
+     * 序列化 JSON，超过长度上限时停止序列化
+     */
+    private static String serialize(Object json, int maxLength) {
+        if (maxLength <= 0) return json.toString();
+        LimitedWriter writer = new LimitedWriter(maxLength);
+        try {
+            if (json instanceof JSONObject object) object.write(writer);
+            else ((JSONArray) json).write(writer);
+        } catch (JSONException e) {
+            if (!writer.truncated) throw e;
+            return writer + "...（已截断）";
+        }
+        return writer.toString();
+    }
+
+    private static final class LimitedWriter extends Writer {
+        private final StringBuilder builder = new StringBuilder();
+        private final int maxLength;
+        boolean truncated;
+
+        LimitedWriter(int maxLength) {
+            this.maxLength = maxLength;
+        }
+
+        @Override
+        public void write(char[] buffer, int offset, int length) throws IOException {
+            int count = Math.min(length, maxLength - builder.length());
+            builder.append(buffer, offset, count);
+            if (count < length) truncate();
+        }
+
+        @Override
+        public void write(String str, int offset, int length) throws IOException {
+            int count = Math.min(length, maxLength - builder.length());
+            builder.append(str, offset, offset + count);
+            if (count < length) truncate();
+        }
+
+        @Override
+        public void write(int c) throws IOException {
+            if (builder.length() >= maxLength) truncate();
+            builder.append((char) c);
+        }
+
+        private void truncate() throws IOException {
+            truncated = true;
+            throw new IOException("已达到长度上限");
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public String toString() {
+            return builder.toString();
+        }
+    }
+
+    private record Entry(Logger logger, String message, Object[] params) {
+    }
+}
@@ -0,0 +1,79 @@
+package top.tigercrl.minebotapi.sdk.bot;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import top.tigercrl.minebotapi.ModConfig;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ApiLatencyTrackerTest {
+    private final ModConfig.AdaptiveTimeoutSettings settings = new ModConfig.AdaptiveTimeoutSettings();
+    private final ApiLatencyTracker tracker = new ApiLatencyTracker();
+
+    @BeforeEach
+    void setUp() {
+        settings.minSamples = 5;
+        settings.minTimeout = 100;
+        settings.factor = 3;
+        settings.degradeFactor = 3;
+        settings.degradeMinRtt = 200;
+    }
+
+    @Test
+    void usesCeilingUntilEnoughSamples() {
+        ApiLatencyTracker.ActionStats stats = tracker.get("get_group_info");
+        for (int i = 0; i < 4; i++) stats.record(100_000, settings);
+        assertEquals(5000, stats.getTimeout(settings, 5000));
+        stats.record(100_000, settings);
+        // p99 为 100 毫秒，超时时间为其 factor 倍
+        assertEquals(300, stats.getTimeout(settings, 5000));
+        assertEquals(200, stats.getTimeout(settings, 200));
+        settings.minTimeout = 1000;
+        assertEquals(1000, stats.getTimeout(settings, 5000));
+    }
+
+    @Test
+    void tracksActionsSeparately() {
+        assertSame(tracker.get("get_group_info"), tracker.get("get_group_info"));
+        assertNotSame(tracker.get("get_group_info"), tracker.get("send_group_msg"));
+    }
+
+    @Test
+    void detectsDegradationAndRecovery() {
+        ApiLatencyTracker.ActionStats stats = tracker.get("send_group_msg");
+        for (int i = 0; i < 10; i++) assertEquals(ApiLatencyTracker.Transition.NONE, stats.record(100_000, settings));
+        assertFalse(tracker.isDegraded());
+
+        int samples = 0;
+        ApiLatencyTracker.Transition transition;
+        do {
+            transition = stats.record(1_000_000, settings);
+            assertTrue(++samples <= 5, "延迟升高后应很快进入异常状态");
+        } while (transition == ApiLatencyTracker.Transition.NONE);
+        assertEquals(ApiLatencyTracker.Transition.DEGRADED, transition);
+        assertTrue(stats.isDegraded());
+        assertTrue(tracker.isDegraded());
+
+        // 异常期间基线不跟随异常值
+        double baseline = stats.getBaseline();
+        stats.record(1_000_000, settings);
+        assertEquals(baseline, stats.getBaseline());
+
+        samples = 0;
+        do {
+            transition = stats.record(100_000, settings);
+            assertTrue(++samples <= 20, "延迟恢复后应退出异常状态");
+        } while (transition == ApiLatencyTracker.Transition.NONE);
+        assertEquals(ApiLatencyTracker.Transition.RECOVERED, transition);
+        assertFalse(tracker.isDegraded());
+    }
+
+    @Test
+    void ignoresSlowCallsBelowMinimumRtt() {
+        ApiLatencyTracker.ActionStats stats = tracker.get("get_status");
+        for (int i = 0; i < 10; i++) stats.record(1_000, settings);
+        // 从 1 毫秒升到 100 毫秒，仍低于 degradeMinRtt
+        for (int i = 0; i < 20; i++) assertEquals(ApiLatencyTracker.Transition.NONE, stats.record(100_000, settings));
+        assertFalse(stats.isDegraded());
+    }
+}
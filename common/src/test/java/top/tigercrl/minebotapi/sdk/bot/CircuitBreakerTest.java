@@ -0,0 +1,108 @@
+package top.tigercrl.minebotapi.sdk.bot;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import top.tigercrl.minebotapi.ModConfig;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakerTest {
+    private final ModConfig.CircuitBreakerSettings settings = new ModConfig.CircuitBreakerSettings();
+    private final List<String> transitions = new CopyOnWriteArrayList<>();
+    private CircuitBreaker breaker;
+
+    @BeforeEach
+    void setUp() {
+        settings.windowSize = 4;
+        settings.minCalls = 4;
+        settings.failureRateThreshold = 0.5;
+        settings.openDuration = 100;
+        settings.halfOpenProbes = 1;
+        breaker = new CircuitBreaker("send_group_msg", () -> settings, (b, from, to) -> transitions.add(from + "->" + to));
+    }
+
+    private void succeed(int times) {
+        for (int i = 0; i < times; i++) {
+            assertTrue(breaker.tryAcquire());
+            breaker.onSuccess();
+        }
+    }
+
+    private void fail(int times) {
+        for (int i = 0; i < times; i++) {
+            assertTrue(breaker.tryAcquire());
+            breaker.onFailure();
+        }
+    }
+
+    @Test
+    void staysClosedBelowMinCalls() {
+        fail(3);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(transitions.isEmpty());
+    }
+
+    @Test
+    void opensAtFailureRateAndRejects() {
+        succeed(2);
+        fail(2);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertEquals(1, breaker.getOpenedCount());
+        assertFalse(breaker.tryAcquire());
+        assertFalse(breaker.tryAcquire());
+        assertEquals(2, breaker.getRejectedCount());
+        assertEquals(List.of("CLOSED->OPEN"), transitions);
+    }
+
+    @Test
+    void slidingWindowForgetsOldFailures() {
+        fail(1);
+        succeed(3);
+        // 窗口为4次，最早的失败被挤出后只剩1次失败
+        succeed(1);
+        fail(1);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        fail(1);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    void halfOpenProbeSuccessCloses() throws InterruptedException {
+        fail(4);
+        Thread.sleep(150);
+        assertTrue(breaker.tryAcquire());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        // 只放行 halfOpenProbes 个探测
+        assertFalse(breaker.tryAcquire());
+        breaker.onSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(List.of("CLOSED->OPEN", "OPEN->HALF_OPEN", "HALF_OPEN->CLOSED"), transitions);
+        // 恢复后重新统计
+        fail(3);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void halfOpenProbeFailureReopens() throws InterruptedException {
+        fail(4);
+        Thread.sleep(150);
+        assertTrue(breaker.tryAcquire());
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertEquals(2, breaker.getOpenedCount());
+        assertFalse(breaker.tryAcquire());
+    }
+
+    @Test
+    void ignoredProbeFreesSlot() throws InterruptedException {
+        fail(4);
+        Thread.sleep(150);
+        assertTrue(breaker.tryAcquire());
+        breaker.onIgnored();
+        assertTrue(breaker.tryAcquire());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+    }
+}
@@ -0,0 +1,78 @@
+package top.tigercrl.minebotapi.sdk.bot;
+
+import org.json.JSONObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import top.tigercrl.minebotapi.MineBotApi;
+import top.tigercrl.minebotapi.ModConfig;
+import top.tigercrl.minebotapi.sdk.metrics.BotMetrics;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DuplicateFilterTest {
+    private final ModConfig.DuplicateFilterSettings settings = new ModConfig.DuplicateFilterSettings();
+    private final BotMetrics metrics = new BotMetrics("test");
+    private DuplicateFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        MineBotApi.config = new ModConfig();
+        filter = new DuplicateFilter(() -> settings, metrics);
+    }
+
+    private static JSONObject message(String type, long id) {
+        return new JSONObject().put("post_type", "message").put("message_type", type).put("message_id", id).put("time", 1700000000);
+    }
+
+    private static JSONObject poke(long userId, long time) {
+        return new JSONObject().put("post_type", "notice").put("notice_type", "notify").put("sub_type", "poke")
+                .put("group_id", 736152904).put("user_id", userId).put("target_id", 10000).put("time", time);
+    }
+
+    @Test
+    void suppressesRepeatedMessages() {
+        assertFalse(filter.isDuplicate(message("group", 1)));
+        assertTrue(filter.isDuplicate(message("group", 1)));
+        assertFalse(filter.isDuplicate(message("group", 2)));
+        // 私聊与群聊的消息 ID 分开判断
+        assertFalse(filter.isDuplicate(message("private", 1)));
+        assertEquals(1L, metrics.snapshot().counters().get("duplicate_events_suppressed"));
+    }
+
+    @Test
+    void comparesNoticeFields() {
+        assertFalse(filter.isDuplicate(poke(1, 1700000000)));
+        assertTrue(filter.isDuplicate(poke(1, 1700000000)));
+        assertFalse(filter.isDuplicate(poke(2, 1700000000)));
+        assertFalse(filter.isDuplicate(poke(1, 1700000001)));
+    }
+
+    @Test
+    void comparesRequestFlags() {
+        JSONObject request = new JSONObject().put("post_type", "request").put("request_type", "group").put("flag", "abc");
+        assertFalse(filter.isDuplicate(request));
+        assertTrue(filter.isDuplicate(request));
+        assertFalse(filter.isDuplicate(new JSONObject(request.toString()).put("flag", "abd")));
+    }
+
+    @Test
+    void ignoresMetaEvents() {
+        JSONObject heartbeat = new JSONObject().put("post_type", "meta_event").put("meta_event_type", "heartbeat").put("time", 1700000000);
+        assertFalse(filter.isDuplicate(heartbeat));
+        assertFalse(filter.isDuplicate(heartbeat));
+        assertNull(metrics.snapshot().counters().get("duplicate_events_suppressed"));
+    }
+
+    @Test
+    void forgetsEventsAfterWindow() throws InterruptedException {
+        settings.window = 50;
+        assertFalse(filter.isDuplicate(message("group", 1)));
+        Thread.sleep(60);
+        // 超过一个时间窗口后仍保留在上一代中
+        assertFalse(filter.isDuplicate(message("group", 2)));
+        assertTrue(filter.isDuplicate(message("group", 1)));
+        Thread.sleep(60);
+        assertFalse(filter.isDuplicate(message("group", 1)));
+        assertTrue(filter.isDuplicate(message("group", 1)));
+    }
+}
@@ -0,0 +1,53 @@
+package top.tigercrl.minebotapi.sdk.bot;
+
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventDedupTest {
+    private static JSONObject groupMessage(long selfId, long messageId, String content) {
+        return new JSONObject().put("time", 1720425600).put("self_id", selfId).put("post_type", "message")
+                .put("message_type", "group").put("sub_type", "normal").put("message_id", messageId)
+                .put("group_id", 736152904L).put("user_id", 1498023761L).put("raw_message", content);
+    }
+
+    @Test
+    void sameGroupMessageSeenByTwoAccountsHasSameKey() {
+        // 消息 ID 只在收到消息的账号中有效，不参与判断
+        long key = EventDedup.key(groupMessage(2854196310L, 1893452107, "hello"));
+        assertNotEquals(0, key);
+        assertEquals(key, EventDedup.key(groupMessage(3061827495L, 20394, "hello")));
+        assertNotEquals(key, EventDedup.key(groupMessage(2854196310L, 1893452107, "hello!")));
+        assertNotEquals(key, EventDedup.key(groupMessage(2854196310L, 1893452107, "hello").put("group_id", 736152905L)));
+    }
+
+    @Test
+    void usesMessageWhenRawMessageIsMissing() {
+        JSONObject first = groupMessage(1, 1, "").put("message", "hello");
+        first.remove("raw_message");
+        JSONObject second = new JSONObject(first.toString()).put("self_id", 2).put("message_id", 2);
+        assertEquals(EventDedup.key(first), EventDedup.key(second));
+        assertNotEquals(EventDedup.key(first), EventDedup.key(new JSONObject(first.toString()).put("message", "bye")));
+    }
+
+    @Test
+    void keysGroupNotices() {
+        JSONObject recall = new JSONObject().put("time", 1720425620).put("post_type", "notice").put("notice_type", "group_recall")
+                .put("group_id", 736152904L).put("user_id", 1498023761L).put("operator_id", 1498023761L).put("message_id", 1);
+        assertNotEquals(0, EventDedup.key(recall));
+        assertEquals(EventDedup.key(recall), EventDedup.key(new JSONObject(recall.toString()).put("message_id", 2)));
+        JSONObject increase = new JSONObject().put("time", 1720425620).put("post_type", "notice").put("notice_type", "group_increase")
+                .put("sub_type", "approve").put("group_id", 736152904L).put("operator_id", 1498023761L).put("user_id", 1684203957L);
+        assertNotEquals(0, EventDedup.key(increase));
+        assertNotEquals(EventDedup.key(increase), EventDedup.key(new JSONObject(increase.toString()).put("sub_type", "invite")));
+    }
+
+    @Test
+    void ignoresOtherEvents() {
+        assertEquals(0, EventDedup.key(groupMessage(1, 1, "hello").put("message_type", "private")));
+        assertEquals(0, EventDedup.key(new JSONObject().put("post_type", "notice").put("notice_type", "friend_add").put("user_id", 1)));
+        assertEquals(0, EventDedup.key(new JSONObject().put("post_type", "request").put("request_type", "group").put("flag", "x")));
+        assertEquals(0, EventDedup.key(new JSONObject().put("post_type", "meta_event").put("meta_event_type", "heartbeat")));
+    }
+}
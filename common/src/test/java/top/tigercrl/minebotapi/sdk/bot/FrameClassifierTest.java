@@ -0,0 +1,61 @@
+package top.tigercrl.minebotapi.sdk.bot;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FrameClassifierTest {
+    private static final String GROUP_MESSAGE = "{\"time\":1720425600,\"self_id\":2854196310,\"post_type\":\"message\",\"message_type\":\"group\","
+            + "\"sub_type\":\"normal\",\"message_id\":1893452107,\"group_id\":736152904,\"user_id\":1498023761,\"raw_message\":\"hello\"}";
+
+    @Test
+    void classifiesUserEvents() {
+        assertTrue(FrameClassifier.isUserEvent(GROUP_MESSAGE));
+        assertTrue(FrameClassifier.isUserEvent("{\"post_type\":\"notice\",\"notice_type\":\"group_increase\",\"group_id\":736152904}"));
+        assertTrue(FrameClassifier.isUserEvent("{\"post_type\":\"request\",\"request_type\":\"friend\",\"flag\":\"abc\"}"));
+        assertFalse(FrameClassifier.isUserEvent("{\"post_type\":\"meta_event\",\"meta_event_type\":\"heartbeat\",\"interval\":5000}"));
+        assertFalse(FrameClassifier.isUserEvent("{\"status\":\"ok\",\"retcode\":0,\"data\":null}"));
+    }
+
+    @Test
+    void allowsWhitespaceAroundColon() {
+        assertTrue(FrameClassifier.isUserEvent("{ \"post_type\" :\t\"message\" , \"message_type\" : \"group\", \"group_id\" : 736152904 }"));
+        assertEquals("group:736152904", FrameClassifier.conversation("{\"post_type\" : \"message\",\n\"message_type\" : \"group\",\n\"group_id\" :\n736152904}"));
+        assertFalse(FrameClassifier.isUserEvent("{\"echo\" : \"1\", \"data\":{\"post_type\":\"message\"}}"));
+    }
+
+    @Test
+    void treatsEchoAsResponseEvenWithPostTypeInData() {
+        String getMsg = "{\"status\":\"ok\",\"retcode\":0,\"data\":" + GROUP_MESSAGE + ",\"echo\":\"00000000-0000-0000-0000-000000000000\"}";
+        assertFalse(FrameClassifier.isUserEvent(getMsg));
+        String echoFirst = "{\"echo\":\"00000000-0000-0000-0000-000000000000\",\"data\":" + GROUP_MESSAGE + "}";
+        assertFalse(FrameClassifier.isUserEvent(echoFirst));
+    }
+
+    @Test
+    void ignoresKeysInsideEscapedStrings() {
+        // 聊天内容中的引号被转义，不能伪造键
+        String forgedEcho = "{\"post_type\":\"message\",\"message_type\":\"group\",\"group_id\":736152904,"
+                + "\"raw_message\":\"{\\\"echo\\\":\\\"x\\\"}\"}";
+        assertTrue(FrameClassifier.isUserEvent(forgedEcho));
+        String forgedPostType = "{\"status\":\"ok\",\"retcode\":0,\"data\":{\"text\":\"\\\"post_type\\\":\\\"message\\\"\"}}";
+        assertFalse(FrameClassifier.isUserEvent(forgedPostType));
+        String forgedGroup = "{\"raw_message\":\"\\\"group_id\\\":1\",\"post_type\":\"message\",\"message_type\":\"group\",\"group_id\":736152904}";
+        assertEquals("group:736152904", FrameClassifier.conversation(forgedGroup));
+    }
+
+    @Test
+    void skipsKeyTextUsedAsValue() {
+        // "echo" 作为值出现时后面没有冒号
+        assertTrue(FrameClassifier.isUserEvent("{\"sub_type\":\"echo\",\"post_type\":\"notice\",\"notice_type\":\"notify\"}"));
+    }
+
+    @Test
+    void resolvesConversation() {
+        assertEquals("group:736152904", FrameClassifier.conversation(GROUP_MESSAGE));
+        assertEquals("private:1498023761", FrameClassifier.conversation("{\"post_type\":\"message\",\"message_type\":\"private\",\"user_id\":1498023761}"));
+        assertEquals("private", FrameClassifier.conversation("{\"post_type\":\"message\",\"message_type\":\"private\"}"));
+        assertNull(FrameClassifier.conversation("{\"post_type\":\"notice\",\"group_id\":736152904}"));
+        assertNull(FrameClassifier.conversation("{\"post_type\":"));
+    }
+}
@@ -0,0 +1,197 @@
+package top.tigercrl.minebotapi.sdk.bot;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import top.tigercrl.minebotapi.MineBotApi;
+import top.tigercrl.minebotapi.ModConfig;
+import top.tigercrl.minebotapi.sdk.enums.InboundOverflowPolicy;
+import top.tigercrl.minebotapi.sdk.events.BotLifecycleEvent;
+import top.tigercrl.minebotapi.sdk.metrics.BotMetrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InboundQueueTest {
+    private final ModConfig.InboundQueueSettings settings = new ModConfig.InboundQueueSettings();
+    private final List<String> handled = new CopyOnWriteArrayList<>();
+    private final List<String> dropped = new CopyOnWriteArrayList<>();
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final BotLifecycleEvent.InboundDrop dropListener = (bot, frame, policy) -> dropped.add(frame);
+    private final TestTransport transport = new TestTransport();
+
+    @BeforeEach
+    void setUp() {
+        MineBotApi.config = new ModConfig();
+        settings.capacity = 2;
+        BotLifecycleEvent.INBOUND_DROP.register(dropListener);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        BotLifecycleEvent.INBOUND_DROP.unregister(dropListener);
+    }
+
+    /**
+     * 创建队列并让分发线程停在第一个事件上，之后入队的事件都留在队列中
+     */
+    private InboundQueue blockedQueue() throws InterruptedException {
+        InboundQueue queue = new InboundQueue(null, () -> settings, new BotMetrics("test"), transport, frame -> {
+            if (handled.isEmpty()) {
+                handled.add(frame);
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            } else {
+                handled.add(frame);
+            }
+        });
+        queue.offer(notice(0));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        return queue;
+    }
+
+    private List<String> drain() throws InterruptedException {
+        release.countDown();
+        Thread.sleep(200);
+        return new ArrayList<>(handled.subList(1, handled.size()));
+    }
+
+    private static String chat(long groupId, int id) {
+        return "{\"post_type\":\"message\",\"message_type\":\"group\",\"group_id\":" + groupId + ",\"message_id\":" + id + "}";
+    }
+
+    private static String notice(int id) {
+        return "{\"post_type\":\"notice\",\"notice_type\":\"group_increase\",\"group_id\":1,\"user_id\":" + id + "}";
+    }
+
+    @Test
+    void blockDropsNewEventsWhenEventsCannotBePaused() throws InterruptedException {
+        settings.policy = InboundOverflowPolicy.BLOCK;
+        InboundQueue queue = blockedQueue();
+        for (int i = 1; i <= 5; i++) queue.offer(notice(i));
+        assertEquals(List.of(notice(3), notice(4), notice(5)), dropped);
+        assertEquals(List.of(notice(1), notice(2)), drain());
+    }
+
+    @Test
+    void blockPausesEventsAndCapsAtTwiceCapacity() throws InterruptedException {
+        settings.policy = InboundOverflowPolicy.BLOCK;
+        transport.pausable = true;
+        InboundQueue queue = blockedQueue();
+        for (int i = 1; i <= 6; i++) queue.offer(notice(i));
+        assertEquals(1, transport.paused.get());
+        assertEquals(List.of(notice(5), notice(6)), dropped);
+        assertEquals(List.of(notice(1), notice(2), notice(3), notice(4)), drain());
+        assertEquals(1, transport.resumed.get());
+    }
+
+    @Test
+    void dropOldestDropsOldestChatMessage() throws InterruptedException {
+        settings.policy = InboundOverflowPolicy.DROP_OLDEST;
+        InboundQueue queue = blockedQueue();
+        queue.offer(chat(1, 1));
+        queue.offer(notice(1));
+        queue.offer(chat(2, 2));
+        assertEquals(List.of(chat(1, 1)), dropped);
+        assertEquals(List.of(notice(1), chat(2, 2)), drain());
+    }
+
+    @Test
+    void dropOldestDropsNewNoticeWhenNoChatMessageIsQueued() throws InterruptedException {
+        settings.policy = InboundOverflowPolicy.DROP_OLDEST;
+        InboundQueue queue = blockedQueue();
+        queue.offer(notice(1));
+        queue.offer(notice(2));
+        queue.offer(notice(3));
+        assertEquals(List.of(notice(3)), dropped);
+        // 队列中只有通知时新的聊天消息直接丢弃
+        queue.offer(chat(1, 1));
+        assertEquals(List.of(notice(3), chat(1, 1)), dropped);
+        assertEquals(List.of(notice(1), notice(2)), drain());
+    }
+
+    @Test
+    void coalesceReplacesMessageFromSameConversation() throws InterruptedException {
+        settings.policy = InboundOverflowPolicy.COALESCE;
+        InboundQueue queue = blockedQueue();
+        queue.offer(chat(1, 1));
+        queue.offer(chat(2, 2));
+        queue.offer(chat(1, 3));
+        assertEquals(List.of(chat(1, 1)), dropped);
+        // 没有同一会话的消息时丢弃最早的聊天消息
+        queue.offer(chat(3, 4));
+        assertEquals(List.of(chat(1, 1), chat(2, 2)), dropped);
+        assertEquals(List.of(chat(1, 3), chat(3, 4)), drain());
+    }
+
+    private static class TestTransport implements BotTransport {
+        final AtomicInteger paused = new AtomicInteger();
+        final AtomicInteger resumed = new AtomicInteger();
+        boolean pausable;
+
+        @Override
+        public void connect() {
+        }
+
+        @Override
+        public void reconnect() {
+        }
+
+        @Override
+        public boolean reconnectBlocking() {
+            return false;
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public boolean isClosed() {
+            return false;
+        }
+
+        @Override
+        public boolean sendText(String text) {
+            return true;
+        }
+
+        @Override
+        public boolean pauseReading() {
+            return false;
+        }
+
+        @Override
+        public void resumeReading() {
+        }
+
+        @Override
+        public boolean pauseEvents() {
+            if (!pausable) return false;
+            paused.incrementAndGet();
+            return true;
+        }
+
+        @Override
+        public void resumeEvents() {
+            resumed.incrementAndGet();
+        }
+    }
+}
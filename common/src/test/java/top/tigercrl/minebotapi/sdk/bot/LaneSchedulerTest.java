@@ -0,0 +1,103 @@
+package top.tigercrl.minebotapi.sdk.bot;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import top.tigercrl.minebotapi.ModConfig;
+import top.tigercrl.minebotapi.sdk.enums.ApiLane;
+import top.tigercrl.minebotapi.sdk.metrics.BotMetrics;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LaneSchedulerTest {
+    private final ModConfig.LaneSettings settings = new ModConfig.LaneSettings();
+    private final List<String> sent = new ArrayList<>();
+    private final Map<String, CompletableFuture<Void>> calls = new HashMap<>();
+    private LaneScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        settings.enabled = true;
+        settings.maxInFlight = 1;
+        settings.moderationReserve = 0;
+        scheduler = new LaneScheduler(() -> settings, new BotMetrics("test"));
+    }
+
+    private void submit(ApiLane lane, String name) {
+        CompletableFuture<Void> call = new CompletableFuture<>();
+        calls.put(name, call);
+        scheduler.submit(lane, call, () -> sent.add(name));
+    }
+
+    private void complete(String name) {
+        calls.get(name).complete(null);
+    }
+
+    @Test
+    void sendsImmediatelyWhenDisabled() {
+        settings.enabled = false;
+        submit(ApiLane.INTERACTIVE, "a");
+        submit(ApiLane.INTERACTIVE, "b");
+        assertEquals(List.of("a", "b"), sent);
+    }
+
+    @Test
+    void queuesBeyondMaxInFlight() {
+        submit(ApiLane.INTERACTIVE, "a");
+        submit(ApiLane.INTERACTIVE, "b");
+        assertEquals(List.of("a"), sent);
+        complete("a");
+        assertEquals(List.of("a", "b"), sent);
+    }
+
+    @Test
+    void dispatchesByWeight() {
+        submit(ApiLane.INTERACTIVE, "first");
+        for (int i = 0; i < 10; i++) {
+            submit(ApiLane.INTERACTIVE, "i" + i);
+            submit(ApiLane.BACKGROUND, "g" + i);
+        }
+        String last = "first";
+        for (int i = 0; i < 10; i++) {
+            complete(last);
+            last = sent.get(sent.size() - 1);
+        }
+        List<String> dispatched = sent.subList(1, sent.size());
+        assertEquals(10, dispatched.size());
+        // 权重为 4:1，每 5 个请求中有 4 个来自交互通道
+        assertEquals(8, dispatched.stream().filter(name -> name.startsWith("i")).count());
+        assertEquals(2, dispatched.stream().filter(name -> name.startsWith("g")).count());
+        // 同一通道内按提交顺序发送
+        assertEquals(List.of("i0", "i1", "i2", "i3", "i4", "i5", "i6", "i7"), dispatched.stream().filter(name -> name.startsWith("i")).toList());
+    }
+
+    @Test
+    void moderationUsesReservedSlot() {
+        settings.maxInFlight = 2;
+        settings.moderationReserve = 1;
+        submit(ApiLane.INTERACTIVE, "a");
+        submit(ApiLane.BULK, "b");
+        submit(ApiLane.MODERATION, "kick");
+        assertEquals(List.of("a", "kick"), sent);
+        complete("kick");
+        assertEquals(List.of("a", "kick"), sent);
+        complete("a");
+        assertEquals(List.of("a", "kick", "b"), sent);
+    }
+
+    @Test
+    void skipsCallsCompletedWhileQueued() {
+        submit(ApiLane.INTERACTIVE, "a");
+        submit(ApiLane.INTERACTIVE, "b");
+        submit(ApiLane.INTERACTIVE, "c");
+        // 排队时超时或被取消的请求不再发送，也不占用空位
+        calls.get("b").cancel(false);
+        complete("a");
+        assertEquals(List.of("a", "c"), sent);
+    }
+}
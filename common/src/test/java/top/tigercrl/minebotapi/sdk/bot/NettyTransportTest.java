@@ -0,0 +1,147 @@
+package top.tigercrl.minebotapi.sdk.bot;
+
+import org.java_websocket.WebSocket;
+import org.java_websocket.handshake.ClientHandshake;
+import org.java_websocket.handshake.ServerHandshake;
+import org.java_websocket.server.WebSocketServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import top.tigercrl.minebotapi.MineBotApi;
+import top.tigercrl.minebotapi.ModConfig;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NettyTransportTest {
+    private Server server;
+    private final AtomicInteger opened = new AtomicInteger();
+    private final AtomicInteger closed = new AtomicInteger();
+    private NettyTransport transport;
+
+    @BeforeEach
+    void setUp() throws InterruptedException {
+        MineBotApi.config = new ModConfig();
+        MineBotApi.config.transport.type = ModConfig.TransportSettings.Type.NETTY;
+        server = new Server();
+        server.start();
+        assertTrue(server.started.await(5, TimeUnit.SECONDS));
+        transport = new NettyTransport(URI.create("ws://127.0.0.1:" + server.getPort() + "/"), new BotTransport.Listener() {
+            @Override
+            public void onOpen(ServerHandshake handshakeData) {
+                opened.incrementAndGet();
+            }
+
+            @Override
+            public void onMessage(String message) {
+            }
+
+            @Override
+            public void onClose(int code, String reason, boolean remote) {
+                closed.incrementAndGet();
+            }
+
+            @Override
+            public void onError(Exception ex) {
+            }
+        }, null, new IllegalStateException("写入失败"));
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        transport.close();
+        server.stop(1000);
+    }
+
+    @Test
+    void closeDuringReconnectIsHonoured() throws InterruptedException {
+        transport.connect();
+        awaitOpened(1);
+        transport.reconnect();
+        transport.close();
+        awaitClosed(1);
+        // 旧连接关闭后不应再发起连接
+        Thread.sleep(500);
+        assertFalse(transport.isOpen());
+        assertEquals(1, opened.get());
+        assertEquals(1, server.connections.get());
+    }
+
+    @Test
+    void closeDuringSecondConnectIsHonoured() throws InterruptedException {
+        transport.connect();
+        awaitOpened(1);
+        transport.close();
+        awaitClosed(1);
+        // 第二次连接时上一个连接已关闭，关闭请求仍要取消正在进行的连接
+        transport.connect();
+        transport.close();
+        awaitClosed(2);
+        Thread.sleep(500);
+        assertFalse(transport.isOpen());
+        assertEquals(1, opened.get());
+    }
+
+    @Test
+    void reconnectOpensAgain() throws InterruptedException {
+        transport.connect();
+        awaitOpened(1);
+        assertTrue(transport.reconnectBlocking());
+        assertTrue(transport.isOpen());
+        assertEquals(2, opened.get());
+    }
+
+    private void awaitOpened(int count) throws InterruptedException {
+        await(opened, count);
+        assertTrue(transport.isOpen());
+    }
+
+    private void awaitClosed(int count) throws InterruptedException {
+        await(closed, count);
+    }
+
+    private static void await(AtomicInteger counter, int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (counter.get() < count) {
+            assertTrue(System.currentTimeMillis() < deadline, "等待超时");
+            Thread.sleep(5);
+        }
+    }
+
+    private static class Server extends WebSocketServer {
+        final CountDownLatch started = new CountDownLatch(1);
+        final AtomicInteger connections = new AtomicInteger();
+
+        Server() {
+            super(new InetSocketAddress("127.0.0.1", 0));
+            setReuseAddr(true);
+        }
+
+        @Override
+        public void onOpen(WebSocket conn, ClientHandshake handshake) {
+            connections.incrementAndGet();
+        }
+
+        @Override
+        public void onClose(WebSocket conn, int code, String reason, boolean remote) {
+        }
+
+        @Override
+        public void onMessage(WebSocket conn, String message) {
+        }
+
+        @Override
+        public void onError(WebSocket conn, Exception ex) {
+        }
+
+        @Override
+        public void onStart() {
+            started.countDown();
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package top.tigercrl.minebotapi.sdk.bot;
+
+import org.json.JSONObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import top.tigercrl.minebotapi.ModConfig;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersistentOutboxTest {
+    @TempDir
+    Path directory;
+    private final ModConfig.OutboxSettings settings = new ModConfig.OutboxSettings();
+    private final List<PersistentOutbox> opened = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        opened.forEach(PersistentOutbox::close);
+    }
+
+    private PersistentOutbox open() throws IOException {
+        PersistentOutbox outbox = PersistentOutbox.open(directory, () -> settings);
+        opened.add(outbox);
+        return outbox;
+    }
+
+    private static JSONObject message(int id) {
+        return new JSONObject().put("group_id", 1).put("message", "消息" + id);
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().startsWith("segment-")).sorted().toList();
+        }
+    }
+
+    @Test
+    void recoversUnacknowledgedEntries() throws IOException {
+        PersistentOutbox outbox = open();
+        for (int i = 1; i <= 3; i++) assertTrue(outbox.offer("send_group_msg", message(i), null));
+        outbox.ack(outbox.peek());
+        outbox.close();
+
+        outbox = open();
+        assertEquals(2, outbox.size());
+        PersistentOutbox.Entry entry = outbox.peek();
+        assertEquals(2, entry.seq());
+        assertEquals("send_group_msg", entry.action());
+        assertEquals("消息2", entry.params().getString("message"));
+        // 新的请求接在已有序号之后
+        assertTrue(outbox.offer("send_group_msg", message(4), "ASYNC"));
+        outbox.close();
+
+        outbox = open();
+        assertEquals(3, outbox.size());
+        outbox.ack(outbox.peek());
+        outbox.ack(outbox.peek());
+        entry = outbox.peek();
+        assertEquals(4, entry.seq());
+        assertEquals("ASYNC", entry.requestType());
+    }
+
+    @Test
+    void ackIgnoresEntriesOtherThanHead() throws IOException {
+        PersistentOutbox outbox = open();
+        outbox.offer("send_group_msg", message(1), null);
+        PersistentOutbox.Entry first = outbox.peek();
+        outbox.ack(first);
+        outbox.ack(first);
+        assertTrue(outbox.isEmpty());
+        assertEquals(0, outbox.getPendingBytes());
+    }
+
+    @Test
+    void truncatesIncompleteTail() throws IOException {
+        PersistentOutbox outbox = open();
+        outbox.offer("send_group_msg", message(1), null);
+        outbox.offer("send_group_msg", message(2), null);
+        outbox.close();
+        Path segment = segments().get(0);
+        long size = Files.size(segment);
+        // 模拟写入一半时进程崩溃
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.allocate(12).putInt(100).putInt(0).putInt(0).flip());
+        }
+
+        outbox = open();
+        assertEquals(2, outbox.size());
+        assertEquals(size, Files.size(segment));
+        assertTrue(outbox.offer("send_group_msg", message(3), null));
+        outbox.close();
+
+        outbox = open();
+        assertEquals(3, outbox.size());
+    }
+
+    @Test
+    void truncatesAtChecksumMismatch() throws IOException {
+        PersistentOutbox outbox = open();
+        for (int i = 1; i <= 3; i++) outbox.offer("send_group_msg", message(i), null);
+        long firstSize = outbox.peek().size();
+        outbox.close();
+        Path segment = segments().get(0);
+        // 破坏第二条记录的内容
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{'x'}), firstSize + 10);
+        }
+
+        outbox = open();
+        assertEquals(1, outbox.size());
+        assertEquals(firstSize, Files.size(segment));
+    }
+
+    @Test
+    void checkpointDeletesSentSegments() throws IOException {
+        settings.segmentSize = 1;
+        PersistentOutbox outbox = open();
+        JSONObject large = new JSONObject().put("group_id", 1).put("message", "x".repeat(300 * 1024));
+        for (int i = 0; i < 6; i++) assertTrue(outbox.offer("send_group_msg", large, null));
+        // 每个分段放得下3条记录
+        assertEquals(2, segments().size());
+        outbox.ack(outbox.peek());
+        outbox.ack(outbox.peek());
+        outbox.sync();
+        assertEquals(2, segments().size());
+        // 第一个分段中的记录全部发送后才删除
+        outbox.ack(outbox.peek());
+        outbox.sync();
+        assertEquals(1, segments().size());
+        assertEquals("3", Files.readString(directory.resolve("checkpoint")));
+        outbox.close();
+
+        outbox = open();
+        assertEquals(3, outbox.size());
+        assertEquals(4, outbox.peek().seq());
+    }
+
+    @Test
+    void rejectsWhenFull() throws IOException {
+        settings.maxSize = 1;
+        PersistentOutbox outbox = open();
+        JSONObject large = new JSONObject().put("group_id", 1).put("message", "x".repeat(400 * 1024));
+        assertTrue(outbox.offer("send_group_msg", large, null));
+        assertTrue(outbox.offer("send_group_msg", large, null));
+        assertFalse(outbox.offer("send_group_msg", large, null));
+        assertEquals(2, outbox.size());
+        assertEquals(1, outbox.getRejectedCount());
+    }
+
+    @Test
+    void dropsExpiredEntries() throws IOException, InterruptedException {
+        settings.ttl = 20;
+        PersistentOutbox outbox = open();
+        outbox.offer("send_group_msg", message(1), null);
+        Thread.sleep(50);
+        outbox.offer("send_group_msg", message(2), null);
+        assertEquals(2, outbox.peek().seq());
+        assertEquals(1, outbox.getExpiredCount());
+        outbox.close();
+
+        // 恢复时同样丢弃过期的请求
+        Thread.sleep(50);
+        outbox = open();
+        assertTrue(outbox.isEmpty());
+        assertEquals(1, outbox.getExpiredCount());
+    }
+
+    @Test
+    void directoryCanOnlyBeOpenedOnce() throws IOException {
+        PersistentOutbox outbox = open();
+        assertThrows(IOException.class, this::open);
+        outbox.close();
+        assertDoesNotThrow(this::open);
+    }
+}
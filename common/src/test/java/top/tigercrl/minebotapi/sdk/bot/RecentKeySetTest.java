@@ -0,0 +1,67 @@
+package top.tigercrl.minebotapi.sdk.bot;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecentKeySetTest {
+    private static final long FOREVER = Long.MAX_VALUE / 1_000_000;
+
+    @Test
+    void addsEachKeyOnce() {
+        RecentKeySet<Boolean> set = new RecentKeySet<>(() -> FOREVER, 16);
+        assertTrue(set.add(42));
+        assertFalse(set.add(42));
+        assertTrue(set.add(43));
+        // 0 表示空位，仍然可以作为键
+        assertTrue(set.add(0));
+        assertFalse(set.add(0));
+    }
+
+    @Test
+    void returnsExistingValue() {
+        RecentKeySet<String> set = new RecentKeySet<>(() -> FOREVER, 16);
+        assertNull(set.putIfAbsent(7, "first"));
+        assertEquals("first", set.putIfAbsent(7, "second"));
+    }
+
+    @Test
+    void keepsPreviousGenerationWhenFull() {
+        RecentKeySet<Boolean> set = new RecentKeySet<>(() -> FOREVER, 4);
+        for (long key = 1; key <= 4; key++) assertTrue(set.add(key));
+        // 当前一代已满，轮换后 1~4 在上一代中仍然可见
+        assertTrue(set.add(5));
+        for (long key = 1; key <= 5; key++) assertFalse(set.add(key));
+        for (long key = 6; key <= 8; key++) assertTrue(set.add(key));
+        // 再次轮换，1~4 被丢弃
+        assertTrue(set.add(9));
+        for (long key = 1; key <= 4; key++) assertTrue(set.add(key), "key " + key);
+    }
+
+    @Test
+    void evictsAfterTwoWindows() {
+        AtomicLong window = new AtomicLong(FOREVER);
+        RecentKeySet<Boolean> set = new RecentKeySet<>(window::get, 16);
+        assertTrue(set.add(1));
+        window.set(0); // 之后每次访问都会轮换
+        assertFalse(set.add(1), "上一代中的键在一个时间窗口后仍可见");
+        assertTrue(set.add(1), "两个时间窗口后键被丢弃");
+    }
+
+    @Test
+    void findsKeysAfterCollisions() {
+        // 低位相同的键落在同一位置，依次向后探测
+        RecentKeySet<Boolean> set = new RecentKeySet<>(() -> FOREVER, 8);
+        for (long i = 1; i <= 8; i++) assertTrue(set.add(i << 32));
+        for (long i = 1; i <= 8; i++) assertFalse(set.add(i << 32));
+    }
+
+    @Test
+    void hashDependsOnOrderAndValues() {
+        assertEquals(RecentKeySet.hash(1, 2, 3), RecentKeySet.hash(1, 2, 3));
+        assertNotEquals(RecentKeySet.hash(1, 2, 3), RecentKeySet.hash(3, 2, 1));
+        assertNotEquals(RecentKeySet.hash(1, 2), RecentKeySet.hash(1, 2, 0));
+    }
+}
@@ -0,0 +1,70 @@
+package top.tigercrl.minebotapi.sdk.bot;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import top.tigercrl.minebotapi.MineBotApi;
+import top.tigercrl.minebotapi.ModConfig;
+import top.tigercrl.minebotapi.sdk.exceptions.ApiTimeoutException;
+import top.tigercrl.minebotapi.sdk.exceptions.BotClosedException;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RetryPolicyTest {
+    @BeforeEach
+    void setUp() {
+        MineBotApi.config = new ModConfig();
+    }
+
+    @Test
+    void classifiesIdempotentActions() {
+        assertTrue(RetryPolicy.isIdempotent("get_group_info"));
+        assertTrue(RetryPolicy.isIdempotent("can_send_image"));
+        assertTrue(RetryPolicy.isIdempotent("set_group_card"));
+        assertFalse(RetryPolicy.isIdempotent("send_group_msg"));
+        assertFalse(RetryPolicy.isIdempotent("set_group_kick"));
+        MineBotApi.config.retry.idempotentActions = List.of("set_group_kick");
+        assertTrue(RetryPolicy.isIdempotent("set_group_kick"));
+    }
+
+    @Test
+    void retriesUnsentRequestsOnlyForNonIdempotentActions() {
+        BotClosedException unsent = new BotClosedException(null);
+        BotClosedException sent = new BotClosedException(null, true);
+        assertTrue(RetryPolicy.shouldRetry("send_group_msg", unsent));
+        assertFalse(RetryPolicy.shouldRetry("send_group_msg", sent));
+        assertTrue(RetryPolicy.shouldRetry("get_group_info", unsent));
+        assertTrue(RetryPolicy.shouldRetry("get_group_info", sent));
+        // 超时时无法确定请求是否已执行，不重试
+        assertFalse(RetryPolicy.shouldRetry("get_group_info", new ApiTimeoutException(null)));
+    }
+
+    @Test
+    void retriesConfiguredRetcodesForIdempotentActions() {
+        assertFalse(RetryPolicy.shouldRetry("get_group_info", 1200));
+        MineBotApi.config.retry.retryRetcodes = List.of(1200);
+        assertTrue(RetryPolicy.shouldRetry("get_group_info", 1200));
+        assertFalse(RetryPolicy.shouldRetry("get_group_info", 100));
+        assertFalse(RetryPolicy.shouldRetry("send_group_msg", 1200));
+    }
+
+    @Test
+    void backoffDoublesWithJitterUpToMax() {
+        ModConfig.RetrySettings settings = MineBotApi.config.retry;
+        settings.initialBackoff = 200;
+        settings.maxBackoff = 1000;
+        for (int i = 0; i < 100; i++) {
+            assertBetween(100, 200, RetryPolicy.backoff(1));
+            assertBetween(200, 400, RetryPolicy.backoff(2));
+            assertBetween(400, 800, RetryPolicy.backoff(3));
+            assertBetween(500, 1000, RetryPolicy.backoff(4));
+            // 次数很大时不溢出
+            assertBetween(500, 1000, RetryPolicy.backoff(100));
+        }
+    }
+
+    private static void assertBetween(long min, long max, long actual) {
+        assertTrue(actual >= min && actual <= max, actual + " 不在 [" + min + ", " + max + "] 内");
+    }
+}
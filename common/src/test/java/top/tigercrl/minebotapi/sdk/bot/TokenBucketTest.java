@@ -0,0 +1,37 @@
+package top.tigercrl.minebotapi.sdk.bot;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketTest {
+    @Test
+    void startsFullAndRunsOut() {
+        TokenBucket bucket = new TokenBucket(() -> 0, () -> 3);
+        assertEquals(3, bucket.available());
+        for (int i = 0; i < 3; i++) assertTrue(bucket.take());
+        assertFalse(bucket.take());
+        assertEquals(0, bucket.available());
+    }
+
+    @Test
+    void refillsUpToCapacity() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(() -> 1000, () -> 2);
+        assertTrue(bucket.take());
+        assertTrue(bucket.take());
+        Thread.sleep(20);
+        assertEquals(2, bucket.available(), 1e-9);
+    }
+
+    @Test
+    void readsSettingsOnEveryUse() {
+        AtomicReference<Double> capacity = new AtomicReference<>(5.0);
+        TokenBucket bucket = new TokenBucket(() -> 0, capacity::get);
+        capacity.set(1.0);
+        assertEquals(1, bucket.available());
+        assertTrue(bucket.take());
+        assertFalse(bucket.take());
+    }
+}
@@ -0,0 +1,146 @@
+package top.tigercrl.minebotapi.sdk.bot;
+
+import org.java_websocket.WebSocket;
+import org.java_websocket.exceptions.WebsocketNotConnectedException;
+import org.java_websocket.handshake.ClientHandshake;
+import org.java_websocket.server.WebSocketServer;
+import org.json.JSONObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import top.tigercrl.minebotapi.MineBotApi;
+import top.tigercrl.minebotapi.ModConfig;
+import top.tigercrl.minebotapi.sdk.enums.MessageType;
+import top.tigercrl.minebotapi.sdk.message.StringMessage;
+import top.tigercrl.minebotapi.sdk.records.APIResponse;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WSBotFrameTest {
+    private Server server;
+    private WSBot bot;
+
+    @BeforeEach
+    void setUp() throws InterruptedException {
+        MineBotApi.config = new ModConfig();
+        server = new Server();
+        server.start();
+        assertTrue(server.started.await(5, TimeUnit.SECONDS));
+        bot = (WSBot) Bot.createWebSocketBot("ws://127.0.0.1:" + server.getPort());
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!bot.isOpen()) {
+            assertTrue(System.currentTimeMillis() < deadline, "等待超时");
+            Thread.sleep(5);
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        bot.close();
+        server.stop(1000);
+    }
+
+    @Test
+    void sendGroupMsgUsesGroupId() {
+        APIResponse<Integer> response = bot.sendGroupMsg(736152904, new StringMessage("hi"), false, null);
+        assertEquals(APIResponse.Status.SUCCESS, response.status());
+        assertEquals(1, response.data());
+        JSONObject frame = lastFrame("send_group_msg");
+        JSONObject params = frame.getJSONObject("params");
+        assertEquals(736152904L, params.getLong("group_id"));
+        assertFalse(params.has("user_id"));
+        assertEquals("hi", params.getString("message"));
+        assertFalse(params.getBoolean("auto_escape"));
+    }
+
+    @Test
+    void sendPrivateMsgUsesUserId() {
+        bot.sendPrivateMsg(10001, new StringMessage("hi"), true, null);
+        JSONObject params = lastFrame("send_private_msg").getJSONObject("params");
+        assertEquals(10001L, params.getLong("user_id"));
+        assertFalse(params.has("group_id"));
+        assertTrue(params.getBoolean("auto_escape"));
+    }
+
+    @Test
+    void sendMsgUsesSnakeCaseParams() {
+        bot.sendMsg(MessageType.GROUP, 10001, 736152904, new StringMessage("hi"), true, null);
+        JSONObject params = lastFrame("send_msg").getJSONObject("params");
+        assertEquals("group", params.getString("message_type"));
+        assertEquals(736152904L, params.getLong("group_id"));
+        assertTrue(params.getBoolean("auto_escape"));
+        assertFalse(params.has("autoEscape"));
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    void deprecatedSendWritesRawFrame() throws InterruptedException {
+        assertEquals(server.getPort(), bot.getURI().getPort());
+        bot.send(new JSONObject().put("action", "get_status").put("params", new JSONObject()).put("echo", "raw").toString());
+        long deadline = System.currentTimeMillis() + 5000;
+        while (server.frames.isEmpty()) {
+            assertTrue(System.currentTimeMillis() < deadline, "等待超时");
+            Thread.sleep(5);
+        }
+        assertEquals("raw", lastFrame("get_status").getString("echo"));
+        bot.close();
+        assertThrows(WebsocketNotConnectedException.class, () -> bot.send("{}"));
+    }
+
+    private JSONObject lastFrame(String action) {
+        assertFalse(server.frames.isEmpty());
+        JSONObject frame = server.frames.get(server.frames.size() - 1);
+        assertEquals(action, frame.getString("action"));
+        return frame;
+    }
+
+    /**
+     * 记录收到的请求，并对每个请求返回成功响应
+     */
+    private static class Server extends WebSocketServer {
+        final CountDownLatch started = new CountDownLatch(1);
+        final List<JSONObject> frames = new CopyOnWriteArrayList<>();
+
+        Server() {
+            super(new InetSocketAddress("127.0.0.1", 0));
+            setReuseAddr(true);
+        }
+
+        @Override
+        public void onOpen(WebSocket conn, ClientHandshake handshake) {
+        }
+
+        @Override
+        public void onClose(WebSocket conn, int code, String reason, boolean remote) {
+        }
+
+        @Override
+        public void onMessage(WebSocket conn, String message) {
+            JSONObject frame = new JSONObject(message);
+            frames.add(frame);
+            conn.send(new JSONObject()
+                    .put("status", "ok")
+                    .put("retcode", 0)
+                    .put("message", "")
+                    .put("wording", "")
+                    .put("data", new JSONObject().put("message_id", 1))
+                    .put("echo", frame.get("echo"))
+                    .toString());
+        }
+
+        @Override
+        public void onError(WebSocket conn, Exception ex) {
+        }
+
+        @Override
+        public void onStart() {
+            started.countDown();
+        }
+    }
+}
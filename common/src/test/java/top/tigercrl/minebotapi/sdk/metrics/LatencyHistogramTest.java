@@ -0,0 +1,77 @@
+package top.tigercrl.minebotapi.sdk.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+    @Test
+    void emptyHistogramReturnsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getPercentile(99));
+    }
+
+    @Test
+    void smallValuesAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 32; i++) histogram.record(i);
+        assertEquals(15, histogram.getPercentile(50));
+        assertEquals(31, histogram.getPercentile(100));
+        assertEquals(0, histogram.getPercentile(0));
+    }
+
+    @Test
+    void percentilesStayWithinRelativeError() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 100000; i++) histogram.record(i);
+        assertEquals(100000, histogram.getCount());
+        assertEquals(5000050000L, histogram.getSum());
+        assertEquals(100000, histogram.getMax());
+        for (double percentile : new double[]{50, 90, 99, 99.9}) {
+            long expected = (long) (100000 * percentile / 100);
+            long actual = histogram.getPercentile(percentile);
+            // 返回所在桶的上界，不小于真实值且相对误差不超过约 3%
+            assertTrue(actual >= expected && actual <= expected * 1.04, percentile + "：" + actual);
+        }
+        assertEquals(100000, histogram.getPercentile(100));
+    }
+
+    @Test
+    void clampsOutOfRangeValues() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+        assertEquals(0, histogram.getMax());
+        assertEquals(0, histogram.getPercentile(100));
+        histogram.record(Long.MAX_VALUE);
+        assertEquals((1L << 40) - 1, histogram.getMax());
+        assertEquals((1L << 40) - 1, histogram.getPercentile(100));
+    }
+
+    @Test
+    void mergesHistograms() {
+        LatencyHistogram fast = new LatencyHistogram();
+        LatencyHistogram slow = new LatencyHistogram();
+        for (int i = 0; i < 90; i++) fast.record(10);
+        for (int i = 0; i < 10; i++) slow.record(1000);
+        assertEquals(10, LatencyHistogram.percentile(90, fast, slow));
+        assertEquals(1000, LatencyHistogram.percentile(91, fast, slow));
+    }
+
+    @Test
+    void exportsNonEmptyBuckets() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(3);
+        histogram.record(3);
+        histogram.record(1000);
+        List<long[]> buckets = new ArrayList<>();
+        histogram.forEachBucket((upperBound, count) -> buckets.add(new long[]{upperBound, count}));
+        assertEquals(2, buckets.size());
+        assertArrayEquals(new long[]{3, 2}, buckets.get(0));
+        assertTrue(buckets.get(1)[0] >= 1000 && buckets.get(1)[0] < 1040);
+        assertEquals(1, buckets.get(1)[1]);
+    }
+}